@@ -0,0 +1,212 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+import com.sap.cds.services.utils.OpenTelemetryUtils;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+
+/**
+ * Tunes the batch size and the number of concurrent requests to the Audit Log service with AIMD (additive
+ * increase, multiplicative decrease).
+ *
+ * Every request attempt reports its latency and outcome. Successful requests within the target latency increase
+ * the batch size by a fixed step and, once per window of {@code limit} successes, the concurrency limit by one.
+ * Slow requests decrease both slightly, while throttling (HTTP 429), server errors and I/O failures halve them.
+ * The current state is reported as OpenTelemetry gauges per binding, which are removed by {@link #close()}.
+ */
+class AdaptiveBatchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBatchController.class);
+    private static final double BACKOFF_RATIO = 0.5;
+    private static final double SLOW_RATIO = 0.9;
+    private static final AttributeKey<String> BINDING = AttributeKey.stringKey("auditlog.ng.binding");
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int batchSizeStep;
+    private final int maxConcurrency;
+    private final long targetLatencyNanos;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private int batchSize;
+    private int limit;
+    private int inFlight;
+    private int successesInWindow;
+    private final List<ObservableLongGauge> gauges;
+
+    AdaptiveBatchController(AuditLogNGProperties.Batching properties, Duration maxWait, String binding) {
+        this.minBatchSize = properties.getMinSize();
+        this.maxBatchSize = properties.getMaxSize();
+        this.batchSizeStep = Math.max(1, properties.getMinSize());
+        this.maxConcurrency = properties.getMaxConcurrency();
+        this.targetLatencyNanos = properties.getTargetLatency().toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.batchSize = clamp(properties.getInitialSize(), minBatchSize, maxBatchSize);
+        this.limit = 1;
+        this.gauges = registerGauges(binding);
+    }
+
+    /**
+     * @return the number of events to send in the next batch
+     */
+    int getBatchSize() {
+        lock.lock();
+        try {
+            return batchSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the current limit of concurrent requests
+     */
+    int getConcurrencyLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests currently in flight
+     */
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a request may be sent within the current concurrency limit.
+     *
+     * @param deadlineNanos the point in time in {@link System#nanoTime()} after which the caller gives up waiting,
+     *        if it is earlier than the maximum wait time
+     * @throws ErrorStatusException if no permit becomes available within the maximum wait time or before the deadline
+     */
+    void acquire(long deadlineNanos) {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            long remainingNanos = Math.min(maxWaitNanos, deadlineNanos - start);
+            while (inFlight >= limit) {
+                if (remainingNanos <= 0) {
+                    logger.warn("No request to Audit Log service permitted within {} ms, {} requests in flight",
+                            Duration.ofNanos(System.nanoTime() - start).toMillis(), inFlight);
+                    throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE);
+                }
+                try {
+                    remainingNanos = permitReleased.awaitNanos(remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
+                }
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the permit of a request that received an HTTP response.
+     *
+     * @param statusCode the HTTP status code
+     * @param latencyNanos the latency of the request
+     */
+    void onResponse(int statusCode, long latencyNanos) {
+        if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS || statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            release(BACKOFF_RATIO);
+        } else if (statusCode >= HttpStatus.SC_BAD_REQUEST) {
+            // a rejected payload says nothing about the capacity of the service
+            release(1.0);
+        } else if (latencyNanos > targetLatencyNanos) {
+            release(SLOW_RATIO);
+        } else {
+            lock.lock();
+            try {
+                inFlight--;
+                batchSize = Math.min(maxBatchSize, batchSize + batchSizeStep);
+                if (++successesInWindow >= limit) {
+                    successesInWindow = 0;
+                    limit = Math.min(maxConcurrency, limit + 1);
+                }
+                permitReleased.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Releases the permit of a request that failed without an HTTP response, e.g. due to a timeout.
+     */
+    void onFailure() {
+        release(BACKOFF_RATIO);
+    }
+
+    private void release(double ratio) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (ratio < 1.0) {
+                successesInWindow = 0;
+                batchSize = clamp((int) (batchSize * ratio), minBatchSize, maxBatchSize);
+                limit = Math.max(1, (int) (limit * ratio));
+                logger.debug("Decreased Audit Log batch size to {} and concurrency limit to {}", batchSize, limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the gauges of the binding, once the controller is no longer used.
+     */
+    void close() {
+        gauges.forEach(ObservableLongGauge::close);
+    }
+
+    private List<ObservableLongGauge> registerGauges(String binding) {
+        Attributes attributes = Attributes.of(BINDING, binding);
+        Meter meter = OpenTelemetryUtils.getMeter(AuditLogNGCommunicator.class.getPackageName());
+        return List.of(
+                meter.gaugeBuilder("auditlog.ng.batch.size").ofLongs()
+                        .setDescription("Current number of audit log events sent per request")
+                        .buildWithCallback(m -> m.record(getBatchSize(), attributes)),
+                meter.gaugeBuilder("auditlog.ng.concurrency.limit").ofLongs()
+                        .setDescription("Current limit of concurrent requests to the Audit Log service")
+                        .buildWithCallback(m -> m.record(getConcurrencyLimit(), attributes)),
+                meter.gaugeBuilder("auditlog.ng.concurrency.in_flight").ofLongs()
+                        .setDescription("Requests to the Audit Log service currently in flight")
+                        .buildWithCallback(m -> m.record(getInFlight(), attributes)));
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import io.opentelemetry.context.Context;
+
+/**
+ * Sends audit log events on a pool of threads and completes a future with the outcome.
+ *
+ * The pool is bounded by the configured number of threads and pending bulks. If all are busy, the bulk is sent on
+ * the submitting thread, which slows down the submitter instead of buffering without limit. A bulk whose future
+ * has been completed before it is sent, e.g. by cancellation or a timeout, is skipped. Idle threads are stopped.
+ */
+class AsyncEventSender {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final EventSender delegate;
+    private final ThreadPoolExecutor executor;
+
+    AsyncEventSender(AuditLogNGProperties.Async properties, EventSender delegate) {
+        this.delegate = delegate;
+        int threads = Math.max(1, properties.getThreads());
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())), r -> {
+                    Thread thread = new Thread(r, "auditlog-ng-async-" + count.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sends the events asynchronously.
+     *
+     * @param events the events
+     * @return the future, which completes when the events are sent or fails with the translated error
+     */
+    CompletableFuture<Void> submit(ArrayNode events) {
+        CompletableFuture<Void> delivery = new CompletableFuture<>();
+        AuditLogNGRecording.QueueWaitEvent queueWait = new AuditLogNGRecording.QueueWaitEvent();
+        // the current context is propagated to keep the spans of the send within the trace of the caller
+        executor.execute(Context.current().wrap(() -> {
+            queueWait.finish(AuditLogNGRecording.QueueWaitEvent.ASYNC);
+            if (delivery.isDone()) {
+                return;
+            }
+            try {
+                delegate.send(events);
+                delivery.complete(null);
+            } catch (Exception e) {
+                delivery.completeExceptionally(AuditLogNGHandler.translate(e));
+            }
+        }));
+        return delivery;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Service provider interface for the JSON codec used to read application-provided event JSON and to encode the
+ * audit log events sent to the Audit Log NG service.
+ *
+ * Implementations are discovered with {@link java.util.ServiceLoader} and selected by their name with the
+ * {@code cds.auditlog.ng.codec} property. Implementations must be thread-safe and have a public no-argument
+ * constructor. The default implementation is {@link JacksonAuditLogNGCodec}.
+ */
+public interface AuditLogNGCodec {
+
+    /**
+     * Returns the name of this codec, which is used to select it with {@code cds.auditlog.ng.codec}.
+     *
+     * @return the name of the codec
+     */
+    String getName();
+
+    /**
+     * Parses the given JSON document into a tree.
+     *
+     * @param json the JSON document
+     * @return the parsed tree
+     * @throws JsonProcessingException if the JSON is malformed
+     */
+    JsonNode readTree(String json) throws JsonProcessingException;
+
+    /**
+     * Encodes the given events to UTF-8 encoded JSON. Raw values contained in the tree must be written verbatim.
+     *
+     * @param events the events to encode
+     * @return the UTF-8 encoded JSON
+     * @throws JsonProcessingException if the events cannot be encoded
+     */
+    byte[] encode(JsonNode events) throws JsonProcessingException;
+
+}
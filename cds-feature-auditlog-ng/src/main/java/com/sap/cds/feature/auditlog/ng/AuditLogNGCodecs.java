@@ -0,0 +1,44 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.List;
+import java.util.ServiceLoader;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Discovers the {@link AuditLogNGCodec} implementations with {@link ServiceLoader}.
+ */
+final class AuditLogNGCodecs {
+
+    private AuditLogNGCodecs() {
+    }
+
+    /**
+     * Returns all available codecs.
+     *
+     * @return the codecs
+     */
+    static List<AuditLogNGCodec> all() {
+        return ServiceLoader.load(AuditLogNGCodec.class, AuditLogNGCodec.class.getClassLoader()).stream()
+                .map(ServiceLoader.Provider::get).toList();
+    }
+
+    /**
+     * Returns the codec with the given name.
+     *
+     * @param name the name of the codec
+     * @return the codec
+     * @throws ErrorStatusException if no codec with the given name is available
+     */
+    static AuditLogNGCodec load(String name) {
+        return all().stream()
+                .filter(codec -> name.equals(codec.getName()))
+                .findFirst()
+                .orElseThrow(() -> new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_CONFIG,
+                        AuditLogNGProperties.PREFIX + "codec"));
+    }
+}
@@ -4,20 +4,43 @@
 package com.sap.cds.feature.auditlog.ng;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpOptions;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.sap.cds.services.utils.CdsErrorStatuses;
 import com.sap.cds.services.utils.ErrorStatusException;
 import com.sap.cloud.environment.servicebinding.api.ServiceBinding;
@@ -25,95 +48,410 @@ import com.sap.cloud.sdk.cloudplatform.resilience.ResilienceConfiguration;
 import com.sap.cloud.sdk.cloudplatform.resilience.ResilienceDecorator;
 import com.sap.cloud.sdk.cloudplatform.resilience.ResilienceIsolationMode;
 
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+
 public class AuditLogNGCommunicator {
 
     private static final Logger logger = LoggerFactory.getLogger(AuditLogNGCommunicator.class);
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private static final int NUMBER_RETRIES = 3;
     private static final Duration TIMEOUT_DURATION = Duration.ofMillis(30000);
     private static final String RESILIENCE_CONFIG_NAME = "auditlog";
     private static final String AUDITLOG_EVENTS_ENDPOINT = "/ingestion/v1/events";
+    private static final int ESTIMATED_EVENT_BYTES = 1024;
+    private static final double LATENCY_SMOOTHING = 0.2;
 
     private final ResilienceConfiguration resilienceConfig;
     private final String serviceUrl;
-    private final CloseableHttpClient certHttpClient;
+    private final ReloadableHttpClient certHttpClient;
     private final String region;
     private final String namespace;
+    private final AuditLogNGCodec codec;
+    private final PayloadMemoryBudget memoryBudget;
+    private final AdaptiveBatchController batchController;
+    private final DeadLetterStore deadLetters;
+    private final RateLimiter rateLimiter;
+    private final Duration defaultBudget;
+    private final Bulkhead bulkhead;
+    private final PayloadCapture capture;
+    private volatile double latencyNanos;
 
     public AuditLogNGCommunicator(ServiceBinding binding) {
+        this(binding, AuditLogNGProperties.defaults());
+    }
+
+    public AuditLogNGCommunicator(ServiceBinding binding, AuditLogNGProperties properties) {
+        this(binding, properties, PayloadMemoryBudget.shared(properties.getMemoryBudget()));
+    }
+
+    AuditLogNGCommunicator(ServiceBinding binding, AuditLogNGProperties properties, PayloadMemoryBudget memoryBudget) {
+        this(binding, properties, memoryBudget, () -> binding);
+    }
+
+    /**
+     * @param binding the binding
+     * @param properties the properties
+     * @param memoryBudget the payload memory budget
+     * @param bindingSupplier supplies the current state of the binding when the certificate is reloaded
+     */
+    AuditLogNGCommunicator(ServiceBinding binding, AuditLogNGProperties properties, PayloadMemoryBudget memoryBudget,
+            Supplier<ServiceBinding> bindingSupplier) {
+        this(binding, properties, memoryBudget,
+                new ReloadableHttpClient(bindingSupplier, b -> createHttpClient(b, maxConnections(properties)), TIMEOUT_DURATION));
+    }
+
+    AuditLogNGCommunicator(ServiceBinding binding, AuditLogNGProperties properties, PayloadMemoryBudget memoryBudget,
+            ReloadableHttpClient certHttpClient) {
+        this.codec = AuditLogNGCodecs.load(properties.getCodec());
+        this.memoryBudget = memoryBudget;
+        this.certHttpClient = certHttpClient;
+        if (properties.getCertificate().isWarmUp()) {
+            certHttpClient.warmUp();
+        }
+        if (properties.getCertificate().getRefreshInterval().compareTo(Duration.ZERO) > 0) {
+            certHttpClient.watch(properties.getCertificate().getRefreshInterval());
+        }
+        this.deadLetters = properties.getDeadLetter().isEnabled()
+                ? DeadLetterStore.of(Path.of(properties.getDeadLetter().getFile()), codec) : null;
+        this.rateLimiter = new RateLimiter(properties.getRateLimit());
+        this.defaultBudget = properties.getDeadlines().getDefault();
         this.serviceUrl = (String) binding.getCredentials().get("url");
         this.region = (String) binding.getCredentials().get("region");
         this.namespace = (String) binding.getCredentials().get("namespace");
+        this.bulkhead = new Bulkhead(properties.getBulkhead(), region + "/" + namespace);
+        this.batchController = properties.getBatching().isAdaptive()
+                ? new AdaptiveBatchController(properties.getBatching(), TIMEOUT_DURATION, region + "/" + namespace) : null;
+        this.capture = new PayloadCapture(properties.getCapture(), region + "/" + namespace);
 
         // Configure resilience patterns
         this.resilienceConfig = ResilienceConfiguration.empty(RESILIENCE_CONFIG_NAME);
+        // calls are isolated by the bulkhead of the binding, if enabled, which also bounds the time waiting for admission
         this.resilienceConfig.isolationMode(ResilienceIsolationMode.NO_ISOLATION);
         this.resilienceConfig.timeLimiterConfiguration(
                 ResilienceConfiguration.TimeLimiterConfiguration.of().timeoutDuration(TIMEOUT_DURATION));
-        this.resilienceConfig.retryConfiguration(
-                ResilienceConfiguration.RetryConfiguration.of(NUMBER_RETRIES));
+        // a rejected payload is rejected again, so it is isolated by bisection instead of being retried, a refused
+        // request is refused again, a throttled request is sent again when the rate limiter permits it, and no
+        // attempt is left after the deadline
+        this.resilienceConfig.retryConfiguration(ResilienceConfiguration.RetryConfiguration.of(NUMBER_RETRIES)
+                .retryOnExceptionPredicate(e -> PayloadRejectedException.of(e) == null && RequestRefusedException.of(e) == null
+                        && ThrottledException.of(e) == null && DeadlineExceededException.of(e) == null));
+    }
 
-        // Configure HTTP client with certificate authentication
+    /**
+     * Creates the HTTP client with the certificate authentication of the binding.
+     */
+    private static CloseableHttpClient createHttpClient(ServiceBinding binding, int maxConnections) {
         try {
-            this.certHttpClient = CertificateHttpClientConfig.builder()
+            return CertificateHttpClientConfig.builder()
                     .certPem((String) binding.getCredentials().get("cert"))
                     .keyPem((String) binding.getCredentials().get("key"))
                     .keyPassphrase((String) binding.getCredentials().get("passphrase"))
                     .maxRetries(NUMBER_RETRIES)
                     .timeoutMillis((int) TIMEOUT_DURATION.toMillis())
+                    .maxConnections(maxConnections)
                     .build().getHttpClient();
         } catch (Exception e) {
             throw new IllegalStateException("Failed to create HttpClient with certificate", e);
         }
     }
 
-    String sendBulkRequest(Object auditLogEvents) throws JsonProcessingException {
-        logger.debug("Sending bulk request to audit log service");
-        String bulkRequestJson = serializeBulkRequest(auditLogEvents);
-        HttpPost request = new HttpPost(serviceUrl + AUDITLOG_EVENTS_ENDPOINT);
-        request.setEntity(new StringEntity(bulkRequestJson, ContentType.APPLICATION_JSON));
+    /**
+     * With priority classes, the connection pool provides the connections of all classes, so that no class has to
+     * wait for a connection held by another one.
+     */
+    private static int maxConnections(AuditLogNGProperties properties) {
+        return properties.getPriorities().isEnabled() ? properties.getPriorities().getConnections() : 0;
+    }
+
+    /**
+     * Sends the events, in batches with adaptive batching, isolating rejected events.
+     *
+     * @throws PartialDeliveryException if sending failed after some of the events have been delivered
+     */
+    String sendBulkRequest(JsonNode auditLogEvents) throws JsonProcessingException {
+        List<Rejection> rejections = new ArrayList<>();
+        Set<JsonNode> delivered = Collections.newSetFromMap(new IdentityHashMap<>());
+        String result = null;
+        try {
+            if (batchController == null || auditLogEvents.size() <= batchController.getBatchSize()) {
+                result = sendIsolatingRejections(auditLogEvents, rejections, delivered);
+            } else {
+                int offset = 0;
+                while (offset < auditLogEvents.size()) {
+                    // the batch size is read again for every batch to apply the latest adjustment
+                    int end = Math.min(auditLogEvents.size(), offset + batchController.getBatchSize());
+                    String batchResult = sendIsolatingRejections(slice(auditLogEvents, offset, end), rejections, delivered);
+                    result = batchResult != null ? batchResult : result;
+                    offset = end;
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            if (delivered.isEmpty()) {
+                throw e;
+            }
+            ArrayNode undelivered = JsonNodeFactory.instance.arrayNode();
+            auditLogEvents.forEach(event -> {
+                if (!delivered.contains(event)) {
+                    undelivered.add(event);
+                }
+            });
+            logger.error("Failed to send {} of {} audit log events", undelivered.size(), auditLogEvents.size());
+            throw new PartialDeliveryException(undelivered, e);
+        }
+        if (!rejections.isEmpty()) {
+            handleRejections(rejections);
+        }
+        return result;
+    }
+
+    /**
+     * Sends the events and, if the Audit Log service rejects the payload, splits it in halves until the rejected
+     * events are isolated. The remaining events are delivered with O(log n) additional requests per rejected event.
+     * Any other failure, e.g. a request refused for authentication, stops the bisection.
+     *
+     * @return the response of the last successful request, or {@code null} if all events were rejected
+     */
+    private String sendIsolatingRejections(JsonNode auditLogEvents, List<Rejection> rejections, Set<JsonNode> delivered)
+            throws JsonProcessingException {
         try {
-            return ResilienceDecorator.executeCallable(() -> executeBulkRequest(request), resilienceConfig);
+            String result = sendBatch(auditLogEvents);
+            auditLogEvents.forEach(delivered::add);
+            return result;
+        } catch (PayloadRejectedException e) {
+            if (auditLogEvents.size() <= 1) {
+                if (!auditLogEvents.isEmpty()) {
+                    rejections.add(new Rejection(auditLogEvents.get(0), e));
+                }
+                return null;
+            }
+            int half = auditLogEvents.size() / 2;
+            logger.debug("Bisecting rejected bulk request of {} events", auditLogEvents.size());
+            String first = sendIsolatingRejections(slice(auditLogEvents, 0, half), rejections, delivered);
+            String second = sendIsolatingRejections(slice(auditLogEvents, half, auditLogEvents.size()), rejections, delivered);
+            return second != null ? second : first;
+        }
+    }
+
+    /**
+     * Stores the rejected events in the dead letter store or, if there is none, fails with the first rejection.
+     */
+    private void handleRejections(List<Rejection> rejections) {
+        if (deadLetters == null) {
+            logger.error("Audit Log service rejected {} events", rejections.size());
+            throw rejections.get(0).exception();
+        }
+        for (Rejection rejection : rejections) {
+            try {
+                deadLetters.store(rejection.event(), rejection.exception().getStatusCode(),
+                        rejection.exception().getResponseBody());
+            } catch (IOException e) {
+                logger.error("Failed to store rejected audit log event in {}", deadLetters.getFile(), e);
+                throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
+            }
+        }
+    }
+
+    /**
+     * Sends the events stored by the dead letter store again. Events that are rejected again are stored again.
+     *
+     * @return the number of events sent
+     * @throws IOException if the events cannot be read or sent
+     */
+    public int replayDeadLetters() throws IOException {
+        return deadLetters != null ? deadLetters.replay(this::sendBulkRequest) : 0;
+    }
+
+    /**
+     * Determines the tenant of a bulk request from the {@code source} of its first event, which ends with the
+     * tenant.
+     */
+    static String tenantOf(JsonNode auditLogEvents) {
+        String source = auditLogEvents.isEmpty() ? "" : auditLogEvents.get(0).path("source").asText();
+        return source.substring(source.lastIndexOf('/') + 1);
+    }
+
+    private static ArrayNode slice(JsonNode auditLogEvents, int from, int to) {
+        ArrayNode slice = JsonNodeFactory.instance.arrayNode(to - from);
+        for (int i = from; i < to; i++) {
+            slice.add(auditLogEvents.get(i));
+        }
+        return slice;
+    }
+
+    private String sendBatch(JsonNode auditLogEvents) throws JsonProcessingException {
+        logger.debug("Sending bulk request to audit log service");
+        Span span = AuditLogNGTracing.start(AuditLogNGTracing.SPAN_SEND);
+        span.setAttribute(AuditLogNGTracing.EVENT_COUNT, (long) auditLogEvents.size());
+        // events sent without a handler, e.g. when replaying dead letters, get the default budget
+        AuditLogNGDeadline deadline = AuditLogNGDeadline.current() != null ? AuditLogNGDeadline.current()
+                : AuditLogNGDeadline.after(defaultBudget);
+        String tenant = tenantOf(auditLogEvents);
+        AuditLogNGRecording.QueueWaitEvent admission = new AuditLogNGRecording.QueueWaitEvent();
+        // threads waiting for the bulkhead do not hold payload memory yet
+        try (Scope scope = span.makeCurrent();
+                Bulkhead.Permit permit = bulkhead.acquire(tenant, deadline.nanoTime());
+                PayloadMemoryBudget.Reservation reservation = memoryBudget.reserve(estimatePayloadBytes(auditLogEvents),
+                        deadline.nanoTime())) {
+            admission.finish(AuditLogNGRecording.QueueWaitEvent.ADMISSION);
+            deadline.check("serialize");
+            byte[] bulkRequestJson = serializeBulkRequest(auditLogEvents);
+            reservation.resize(bulkRequestJson.length);
+            long captureId = capture.sample() ? capture.request(bulkRequestJson) : PayloadCapture.NOT_CAPTURED;
+            span.setAttribute(AuditLogNGTracing.PAYLOAD_BYTES, (long) bulkRequestJson.length);
+            HttpPost request = new HttpPost(serviceUrl + AUDITLOG_EVENTS_ENDPOINT);
+            request.setEntity(new ByteArrayEntity(bulkRequestJson, ContentType.APPLICATION_JSON));
+            // the time limiter may execute attempts on another thread, so the parent is passed explicitly
+            Context parent = Context.current();
+            AtomicInteger attempts = new AtomicInteger();
+            long rateLimitDeadline = rateLimiter.deadline();
+            if (deadline.nanoTime() - rateLimitDeadline < 0) {
+                rateLimitDeadline = deadline.nanoTime();
+            }
+            while (true) {
+                AuditLogNGRecording.QueueWaitEvent rateLimit = new AuditLogNGRecording.QueueWaitEvent();
+                rateLimiter.acquire(tenant, rateLimitDeadline);
+                rateLimit.finish(AuditLogNGRecording.QueueWaitEvent.RATE_LIMIT);
+                try {
+                    String result = ResilienceDecorator.executeCallable(
+                            () -> executeBulkRequest(request, parent, deadline, attempts.incrementAndGet(), captureId),
+                            resilienceConfig);
+                    rateLimiter.onSuccess(tenant);
+                    return result;
+                } catch (Exception e) {
+                    ThrottledException throttled = ThrottledException.of(e);
+                    if (throttled == null) {
+                        throw e;
+                    }
+                    rateLimiter.onThrottled(tenant, throttled.getRetryAfter());
+                }
+            }
+        } catch (PayloadRejectedException pre) {
+            AuditLogNGTracing.fail(span, pre);
+            throw pre;
+        } catch (DeadlineExceededException dee) {
+            logger.error("Deadline of audit log events passed before stage {}", dee.getStage());
+            AuditLogNGTracing.fail(span, dee);
+            throw dee;
         } catch (ErrorStatusException ese) {
             logger.error("Audit Log service returned unexpected HTTP status", ese);
+            AuditLogNGTracing.fail(span, ese);
             throw ese;
         } catch (JsonProcessingException jpe) {
             logger.error("JSON processing error while serializing bulk request object", jpe);
+            AuditLogNGTracing.fail(span, jpe);
             throw jpe;
         } catch (Exception e) {
+            AuditLogNGTracing.fail(span, e);
+            PayloadRejectedException rejected = PayloadRejectedException.of(e);
+            if (rejected != null) {
+                throw rejected;
+            }
+            RequestRefusedException refused = RequestRefusedException.of(e);
+            if (refused != null) {
+                logger.error("Audit Log service refused bulk request with HTTP status {}", refused.getStatusCode());
+                throw refused;
+            }
+            DeadlineExceededException exceeded = DeadlineExceededException.of(e);
+            if (exceeded != null) {
+                logger.error("Deadline of audit log events passed before stage {}", exceeded.getStage());
+                throw exceeded;
+            }
             logger.error("Exception while calling Audit Log service", e);
             throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
+        } finally {
+            span.end();
         }
     }
 
     /**
-     * Serializes the audit log events object to JSON.
+     * Estimates the encoded size of the audit log events before they are encoded. The estimate is a flat size per
+     * event, which is corrected to the encoded size once it is known.
+     */
+    private static long estimatePayloadBytes(JsonNode auditLogEvents) {
+        return (long) Math.max(auditLogEvents.size(), 1) * ESTIMATED_EVENT_BYTES;
+    }
+
+    /**
+     * Serializes the audit log events to UTF-8 encoded JSON with the configured {@link AuditLogNGCodec}.
      */
-    private String serializeBulkRequest(Object auditLogEvents) throws JsonProcessingException {
-        String json = OBJECT_MAPPER.writeValueAsString(auditLogEvents);
-        logger.debug("Bulk request object serialized to JSON: {}", json);
-        return json;
+    private byte[] serializeBulkRequest(JsonNode auditLogEvents) throws JsonProcessingException {
+        Span span = AuditLogNGTracing.start(AuditLogNGTracing.SPAN_SERIALIZE);
+        AuditLogNGRecording.SerializeEvent recording = new AuditLogNGRecording.SerializeEvent();
+        try {
+            byte[] json = codec.encode(auditLogEvents);
+            span.setAttribute(AuditLogNGTracing.PAYLOAD_BYTES, (long) json.length);
+            recording.finish(auditLogEvents.size(), json.length);
+            logger.debug("Serialized {} audit log events to {} bytes", auditLogEvents.size(), json.length);
+            if (logger.isTraceEnabled()) {
+                logger.trace("Bulk request object serialized to JSON: {}", new String(json, StandardCharsets.UTF_8));
+            }
+            return json;
+        } catch (JsonProcessingException | RuntimeException e) {
+            AuditLogNGTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     /**
      * Executes the HTTP POST request to the Audit Log service and handles the
-     * response.
+     * response. Every attempt is traced in its own span, attempts after the first as retries. An attempt is only
+     * made before the deadline, and its timeouts end at the deadline. The responses of captured requests are
+     * captured with the id of their request.
      */
-    private String executeBulkRequest(HttpPost request) throws IOException, ErrorStatusException {
+    private String executeBulkRequest(HttpPost request, Context parent, AuditLogNGDeadline deadline, int attempt,
+            long captureId) throws IOException, ErrorStatusException {
+        deadline.check("http");
+        int timeoutMillis = (int) Math.max(1, Math.min(deadline.remaining().toMillis(), TIMEOUT_DURATION.toMillis()));
+        request.setConfig(RequestConfig.custom().setConnectTimeout(timeoutMillis).setSocketTimeout(timeoutMillis)
+                .setConnectionRequestTimeout(timeoutMillis).build());
+        Span span = AuditLogNGTracing.start(attempt > 1 ? AuditLogNGTracing.SPAN_HTTP_RETRY : AuditLogNGTracing.SPAN_HTTP_ATTEMPT,
+                parent, SpanKind.CLIENT);
+        span.setAttribute(AuditLogNGTracing.ATTEMPT, (long) attempt);
+        AuditLogNGRecording.HttpAttemptEvent recording = new AuditLogNGRecording.HttpAttemptEvent();
+        try (Scope scope = span.makeCurrent()) {
+            return executeBulkRequest(request, span, recording, deadline, captureId);
+        } catch (IOException | RuntimeException e) {
+            AuditLogNGTracing.fail(span, e);
+            throw e;
+        } finally {
+            recording.finish(region + "/" + namespace, attempt);
+            span.end();
+        }
+    }
+
+    private String executeBulkRequest(HttpPost request, Span span, AuditLogNGRecording.HttpAttemptEvent recording,
+            AuditLogNGDeadline deadline, long captureId) throws IOException, ErrorStatusException {
+        if (batchController != null) {
+            batchController.acquire(deadline.nanoTime());
+        }
         HttpResponse response = null;
+        long start = System.nanoTime();
         try {
-            response = certHttpClient.execute(request);
+            response = certHttpClient.get().execute(request);
+            recordLatency(System.nanoTime() - start);
             int statusCode = response.getStatusLine().getStatusCode();
+            span.setAttribute(AuditLogNGTracing.HTTP_STATUS_CODE, (long) statusCode);
+            recording.statusCode = statusCode;
+            if (batchController != null) {
+                batchController.onResponse(statusCode, System.nanoTime() - start);
+            }
             if (statusCode == HttpStatus.SC_OK
                     || statusCode == HttpStatus.SC_CREATED
                     || statusCode == HttpStatus.SC_NO_CONTENT) {
                 String resultBody = EntityUtils.toString(response.getEntity());
                 logger.info("Bulk request to Audit Log service sent successfully. Status: {}", statusCode);
-                logger.debug("Audit Log service response: {}", resultBody);
+                if (captureId != PayloadCapture.NOT_CAPTURED) {
+                    capture.response(captureId, statusCode, resultBody);
+                }
+                logger.trace("Audit Log service response: {}", resultBody);
                 return resultBody;
             } else {
-                handleHttpError(response, statusCode);
+                handleHttpError(response, statusCode, captureId);
                 return null; // unreachable, handleHttpError always throws
             }
         } catch (ErrorStatusException ex) {
@@ -123,6 +461,10 @@ public class AuditLogNGCommunicator {
             logger.error("Exception during HTTP request to Audit Log service", ex);
             throw ex;
         } finally {
+            if (batchController != null && response == null) {
+                // no response received, e.g. due to a timeout
+                batchController.onFailure();
+            }
             if (response != null && response.getEntity() != null) {
                 EntityUtils.consumeQuietly(response.getEntity());
             }
@@ -132,7 +474,7 @@ public class AuditLogNGCommunicator {
     /**
      * Handles HTTP error responses from the Audit Log service.
      */
-    private void handleHttpError(HttpResponse response, int statusCode) throws ErrorStatusException {
+    private void handleHttpError(HttpResponse response, int statusCode, long captureId) throws ErrorStatusException {
         String errorBody = "<no body>";
         try {
             if (response.getEntity() != null) {
@@ -141,10 +483,180 @@ public class AuditLogNGCommunicator {
         } catch (IOException e) {
             logger.warn("Failed to read error response body from Audit Log service", e);
         }
+        if (captureId != PayloadCapture.NOT_CAPTURED) {
+            capture.response(captureId, statusCode, errorBody);
+        }
         logger.error("Unexpected HTTP status from Audit Log service: {}. Response body: {}", statusCode, errorBody);
+        if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
+            throw new ThrottledException(retryAfter(response));
+        }
+        if (isRejection(statusCode)) {
+            throw new PayloadRejectedException(statusCode, errorBody);
+        }
+        if (isRefusal(statusCode)) {
+            throw new RequestRefusedException(statusCode);
+        }
         throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_UNEXPECTED_HTTP_STATUS, statusCode);
     }
 
+    /**
+     * Reads the {@code Retry-After} header, which is either a number of seconds or an HTTP date.
+     *
+     * @return the time to wait, or {@code null} if the header is missing or invalid
+     */
+    static Duration retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null || header.getValue() == null) {
+            return null;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date != null ? Duration.ofMillis(Math.max(0, date.getTime() - System.currentTimeMillis())) : null;
+        }
+    }
+
+    /**
+     * Only a malformed or invalid payload is rejected, which is isolated by bisection.
+     */
+    private static boolean isRejection(int statusCode) {
+        return statusCode == HttpStatus.SC_BAD_REQUEST || statusCode == HttpStatus.SC_UNPROCESSABLE_ENTITY;
+    }
+
+    /**
+     * Other client errors refuse the request regardless of its events, e.g. authentication errors, except for
+     * timeouts and throttling, which are transient.
+     */
+    private static boolean isRefusal(int statusCode) {
+        return statusCode >= HttpStatus.SC_BAD_REQUEST && statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR
+                && statusCode != HttpStatus.SC_REQUEST_TIMEOUT && statusCode != HttpStatus.SC_TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Creates the HTTP client and opens the given number of connections to the Audit Log service concurrently, so
+     * that DNS resolution and the TLS handshake with the client certificate are done before the first request. The
+     * connections are opened with an {@code OPTIONS} request, which sends no events, and stay in the pool.
+     *
+     * @param connections the number of connections to open
+     * @param timeout the maximum time to spend
+     * @return the number of connections opened
+     */
+    int warmUpConnections(int connections, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        CloseableHttpClient client = certHttpClient.get();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, connections), r -> {
+            Thread thread = new Thread(r, "auditlog-ng-warm-up-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Boolean>> opened = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                opened.add(CompletableFuture.supplyAsync(() -> openConnection(client, deadline), executor));
+            }
+            int count = 0;
+            for (CompletableFuture<Boolean> connection : opened) {
+                long remainingNanos = Math.max(0, deadline - System.nanoTime());
+                if (connection.get(remainingNanos, TimeUnit.NANOSECONDS)) {
+                    count++;
+                }
+            }
+            return count;
+        } catch (TimeoutException e) {
+            logger.warn("Opening connections to Audit Log service took longer than {}", timeout);
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            logger.warn("Failed to open connections to Audit Log service", e);
+            return 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean openConnection(CloseableHttpClient client, long deadline) {
+        int timeoutMillis = (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        HttpOptions request = new HttpOptions(serviceUrl + AUDITLOG_EVENTS_ENDPOINT);
+        request.setConfig(RequestConfig.custom().setConnectTimeout(timeoutMillis).setSocketTimeout(timeoutMillis)
+                .setConnectionRequestTimeout(timeoutMillis).build());
+        try (CloseableHttpResponse response = client.execute(request)) {
+            // any status proves the handshake, consuming the entity returns the connection to the pool
+            EntityUtils.consume(response.getEntity());
+            return true;
+        } catch (IOException e) {
+            logger.debug("Failed to open connection to Audit Log service", e);
+            return false;
+        }
+    }
+
+    /**
+     * Reads the binding again and replaces the HTTP client if the certificate, key or passphrase changed. Requests
+     * in flight complete with the previous client.
+     *
+     * @return {@code true}, if the HTTP client has been replaced
+     */
+    public boolean reloadCertificate() {
+        return certHttpClient.reload();
+    }
+
+    /**
+     * Stops reloading the certificate of the binding and closes the HTTP client after the grace period of requests
+     * in flight. The communicator must not be used afterwards.
+     */
+    public void close() {
+        certHttpClient.close();
+        if (batchController != null) {
+            batchController.close();
+        }
+    }
+
+    /**
+     * Returns the smoothed time the Audit Log service of the binding took to respond to a request attempt. Waiting
+     * for admission and encoding the payload are not included.
+     *
+     * @return the latency in nanoseconds, or 0 if no response has been received yet
+     */
+    double getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Forgets the measured latency, e.g. when the binding is taken back into rotation after it has been ejected.
+     */
+    synchronized void resetLatency() {
+        latencyNanos = 0;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencyNanos = latencyNanos == 0 ? nanos : (1 - LATENCY_SMOOTHING) * latencyNanos + LATENCY_SMOOTHING * nanos;
+    }
+
+    /**
+     * @return the capture of the request payloads and responses of the binding
+     */
+    PayloadCapture getCapture() {
+        return capture;
+    }
+
+    /**
+     * @return the bulkhead of the binding
+     */
+    Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * @return the adaptive batch controller, or {@code null} if adaptive batching is disabled
+     */
+    AdaptiveBatchController getBatchController() {
+        return batchController;
+    }
+
     public String getRegion() {
         return region;
     }
@@ -152,4 +664,7 @@ public class AuditLogNGCommunicator {
     public String getNamespace() {
         return namespace;
     }
+
+    private record Rejection(JsonNode event, PayloadRejectedException exception) {
+    }
 }
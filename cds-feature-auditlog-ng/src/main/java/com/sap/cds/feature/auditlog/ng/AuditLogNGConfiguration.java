@@ -3,12 +3,16 @@
  */
 package com.sap.cds.feature.auditlog.ng;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.sap.cds.services.environment.CdsEnvironment;
 import com.sap.cds.services.mt.TenantProviderService;
 import com.sap.cds.services.runtime.CdsRuntime;
 import com.sap.cds.services.runtime.CdsRuntimeConfiguration;
@@ -27,17 +31,23 @@ public class AuditLogNGConfiguration implements CdsRuntimeConfiguration {
     @Override
     public void eventHandlers(CdsRuntimeConfigurer configurer) {
         CdsRuntime runtime = configurer.getCdsRuntime();
-        ServiceBinding binding = runtime
+        List<ServiceBinding> bindings = runtime
             .getEnvironment()
             .getServiceBindings()
             .filter(b -> ServiceBindingUtils.matches(b, AUDITLOG))
-            .findFirst()
-            .orElse(null);
+            .toList();
 
-        if (binding != null) {
-            validateBinding(binding);
-            LOGGER.info("Using Auditlog NG service to register Auditlog NG event handler.");
-            AuditLogNGHandler handler = createHandler(binding, configurer);
+        AuditLogNGProperties.Sink sink = AuditLogNGProperties.from(runtime.getEnvironment()).getSink();
+        if (!sink.isHttp()) {
+            LOGGER.info("Using Auditlog NG sink {} to register Auditlog NG event handler.", sink.getName());
+            AuditLogNGHandler handler = createSinkHandler(bindings, configurer);
+            AuditLogNGHandler.register(runtime, handler);
+            configurer.eventHandler(handler);
+        } else if (!bindings.isEmpty()) {
+            bindings.forEach(this::validateBinding);
+            LOGGER.info("Using {} Auditlog NG service binding(s) to register Auditlog NG event handler.", bindings.size());
+            AuditLogNGHandler handler = createHandler(bindings, configurer);
+            AuditLogNGHandler.register(runtime, handler);
             configurer.eventHandler(handler);
         } else {
             LOGGER.info("No Auditlog NG service binding found, NG handler not registered.");
@@ -46,12 +56,66 @@ public class AuditLogNGConfiguration implements CdsRuntimeConfiguration {
 
     @VisibleForTesting
     AuditLogNGHandler createHandler(ServiceBinding binding, CdsRuntimeConfigurer configurer) {
-        AuditLogNGCommunicator communicator = new AuditLogNGCommunicator(binding);
+        return createHandler(List.of(binding), configurer);
+    }
+
+    @VisibleForTesting
+    AuditLogNGHandler createHandler(List<ServiceBinding> bindings, CdsRuntimeConfigurer configurer) {
+        CdsEnvironment environment = configurer.getCdsRuntime().getEnvironment();
+        AuditLogNGProperties properties = AuditLogNGProperties.from(environment);
+        // all bindings share one memory budget, as it limits the memory of the process
+        PayloadMemoryBudget memoryBudget = new PayloadMemoryBudget(properties.getMemoryBudget());
+        List<AuditLogNGCommunicator> communicators = bindings.stream()
+            .map(binding -> new AuditLogNGCommunicator(binding, properties, memoryBudget, () -> currentBinding(environment, binding)))
+            .toList();
         TenantProviderService tenantService = configurer
             .getCdsRuntime()
             .getServiceCatalog()
             .getService(TenantProviderService.class, TenantProviderService.DEFAULT_NAME);
-        return new AuditLogNGHandler(communicator, tenantService);
+        AuditLogNGHandler handler = new AuditLogNGHandler(communicators, tenantService, properties);
+        if (properties.getWarmUp().isEnabled()) {
+            new AuditLogNGWarmUp(handler, communicators, properties.getWarmUp()).start();
+        }
+        return handler;
+    }
+
+    /**
+     * Creates a handler writing to the configured sink instead of the Audit Log service. The {@code source} of the
+     * events names the region and namespace of the first binding, if there is one.
+     */
+    @VisibleForTesting
+    AuditLogNGHandler createSinkHandler(List<ServiceBinding> bindings, CdsRuntimeConfigurer configurer) {
+        CdsEnvironment environment = configurer.getCdsRuntime().getEnvironment();
+        AuditLogNGProperties properties = AuditLogNGProperties.from(environment);
+        AuditLogNGSink sink = AuditLogNGSinks.load(properties.getSink().getName());
+        try {
+            sink.open(environment, AuditLogNGCodecs.load(properties.getCodec()));
+        } catch (IOException e) {
+            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_CONFIG, AuditLogNGProperties.PREFIX + "sink", e);
+        }
+        Map<String, Object> credentials = bindings.isEmpty() ? Map.of() : bindings.get(0).getCredentials();
+        String region = (String) credentials.getOrDefault("region", properties.getSink().getRegion());
+        String namespace = (String) credentials.getOrDefault("namespace", properties.getSink().getNamespace());
+        TenantProviderService tenantService = configurer
+            .getCdsRuntime()
+            .getServiceCatalog()
+            .getService(TenantProviderService.class, TenantProviderService.DEFAULT_NAME);
+        AuditLogNGHandler handler = new AuditLogNGHandler(sink, region, namespace, tenantService, properties);
+        if (properties.getWarmUp().isEnabled()) {
+            new AuditLogNGWarmUp(handler, List.of(), properties.getWarmUp()).start();
+        }
+        return handler;
+    }
+
+    /**
+     * Reads the given binding again from the environment, to pick up a rotated certificate.
+     */
+    private static ServiceBinding currentBinding(CdsEnvironment environment, ServiceBinding binding) {
+        return environment
+            .getServiceBindings()
+            .filter(b -> ServiceBindingUtils.matches(b, AUDITLOG) && Objects.equals(b.getName(), binding.getName()))
+            .findFirst()
+            .orElse(binding);
     }
 
     private void validateBinding(ServiceBinding binding) {
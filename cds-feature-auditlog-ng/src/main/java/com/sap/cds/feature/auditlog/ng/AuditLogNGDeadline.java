@@ -0,0 +1,99 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.time.Duration;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.Scope;
+
+/**
+ * The point in time until which audit log events have to be built and sent.
+ *
+ * A deadline is bound to the current {@link Context}, so it follows the events to the threads that send them. The
+ * handler limits it by the budget of the event type, so the effective deadline is the earlier one of the caller and
+ * the event type. Building, serialization, waiting for the rate limit, each HTTP attempt and its timeouts check
+ * the remaining time, and no further attempt is made once the deadline has passed.
+ *
+ * Callers set their own budget for the audit log events they produce within a block:
+ *
+ * <pre>
+ * try (Scope scope = AuditLogNGDeadline.withBudget(Duration.ofMillis(200))) {
+ *     auditLogService.logDataAccess(accesses);
+ * }
+ * </pre>
+ */
+public final class AuditLogNGDeadline {
+
+    private static final ContextKey<AuditLogNGDeadline> KEY = ContextKey.named("auditlog-ng-deadline");
+
+    private final long expiresAtNanos;
+
+    private AuditLogNGDeadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * Sets a deadline for the audit log events produced until the returned scope is closed. An enclosing deadline
+     * that expires earlier takes precedence.
+     *
+     * @param budget the time from now within which the events have to be sent
+     * @return the scope, which restores the previous deadline when closed
+     */
+    public static Scope withBudget(Duration budget) {
+        return after(budget).makeCurrent();
+    }
+
+    /**
+     * @param budget the time from now
+     * @return the earlier of the deadline after the budget and the current deadline
+     */
+    static AuditLogNGDeadline after(Duration budget) {
+        AuditLogNGDeadline deadline = new AuditLogNGDeadline(System.nanoTime() + budget.toNanos());
+        AuditLogNGDeadline current = current();
+        return current != null && current.expiresAtNanos - deadline.expiresAtNanos < 0 ? current : deadline;
+    }
+
+    /**
+     * @return the deadline of the current context, or {@code null} if there is none
+     */
+    static AuditLogNGDeadline current() {
+        return Context.current().get(KEY);
+    }
+
+    Scope makeCurrent() {
+        return Context.current().with(KEY, this).makeCurrent();
+    }
+
+    /**
+     * @return the remaining time, which is zero if the deadline has passed
+     */
+    Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    /**
+     * @return the deadline in {@link System#nanoTime()}
+     */
+    long nanoTime() {
+        return expiresAtNanos;
+    }
+
+    boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Fails if the deadline has passed.
+     *
+     * @param stage the stage that is about to start
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
+}
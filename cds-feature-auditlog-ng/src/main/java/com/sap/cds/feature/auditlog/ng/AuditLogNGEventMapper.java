@@ -0,0 +1,49 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sap.cds.services.EventContext;
+
+/**
+ * Service provider interface to map custom events of the {@link com.sap.cds.services.auditlog.AuditLogService} to
+ * audit log events.
+ *
+ * Implementations are discovered with {@link java.util.ServiceLoader} when the handler is created and are looked up
+ * by their event name, so custom events get the same dispatch as the built-in ones. The handler wraps the mapped
+ * data into the event envelope with the metadata of the current user. Events without a mapper are handled as
+ * general events, whose data is read from the {@code event} JSON. Implementations must be thread-safe and have a
+ * public no-argument constructor.
+ */
+public interface AuditLogNGEventMapper {
+
+    /**
+     * Returns the name of the event handled by this mapper. It must not be the name of a built-in event, such as
+     * {@code securityLog} or {@code dataAccessLog}.
+     *
+     * @return the event name
+     */
+    String getEvent();
+
+    /**
+     * Returns the type of the audit log event, defaults to the event name.
+     *
+     * @return the audit log event type
+     */
+    default String getType() {
+        return getEvent();
+    }
+
+    /**
+     * Maps the event context to the data of the audit log event.
+     *
+     * @param context the event context
+     * @return the data of the audit log event
+     * @throws IOException if the data cannot be mapped
+     */
+    JsonNode map(EventContext context) throws IOException;
+
+}
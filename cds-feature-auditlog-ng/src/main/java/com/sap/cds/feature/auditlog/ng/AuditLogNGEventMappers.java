@@ -0,0 +1,26 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Discovers the {@link AuditLogNGEventMapper} implementations with {@link ServiceLoader}.
+ */
+final class AuditLogNGEventMappers {
+
+    private AuditLogNGEventMappers() {
+    }
+
+    /**
+     * Returns all available event mappers.
+     *
+     * @return the event mappers
+     */
+    static List<AuditLogNGEventMapper> all() {
+        return ServiceLoader.load(AuditLogNGEventMapper.class, AuditLogNGEventMapper.class.getClassLoader()).stream()
+                .map(ServiceLoader.Provider::get).toList();
+    }
+}
@@ -6,19 +6,32 @@ package com.sap.cds.feature.auditlog.ng;
 import static java.util.Objects.*;
 import static org.slf4j.LoggerFactory.*;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.cds.CdsData;
+import com.sap.cds.Struct;
 import com.sap.cds.services.EventContext;
+import com.sap.cds.services.application.ApplicationLifecycleService;
+import com.sap.cds.services.application.ApplicationStoppedEventContext;
 import com.sap.cds.services.auditlog.Access;
 import com.sap.cds.services.auditlog.Attachment;
 import com.sap.cds.services.auditlog.Attribute;
@@ -39,13 +52,18 @@ import com.sap.cds.services.auditlog.SecurityLog;
 import com.sap.cds.services.auditlog.SecurityLogContext;
 import com.sap.cds.services.environment.CdsProperties.Security.Mock.User;
 import com.sap.cds.services.handler.EventHandler;
+import com.sap.cds.services.handler.annotations.After;
 import com.sap.cds.services.handler.annotations.On;
 import com.sap.cds.services.handler.annotations.ServiceName;
 import com.sap.cds.services.mt.TenantProviderService;
 import com.sap.cds.services.request.UserInfo;
+import com.sap.cds.services.runtime.CdsRuntime;
 import com.sap.cds.services.utils.CdsErrorStatuses;
 import com.sap.cds.services.utils.ErrorStatusException;
 
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+
 /**
  * Handler that reacts on audit log events to log audit messages with the auditlog NG API.
  */
@@ -53,76 +71,449 @@ import com.sap.cds.services.utils.ErrorStatusException;
 public class AuditLogNGHandler implements EventHandler {
 
     private static final Logger LOGGER = getLogger(AuditLogNGHandler.class);
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
     private static final String LEGACY_SECURITY_WRAPPER = "legacySecurityWrapper";
+    // the handler is referenced weakly as well, as it references the runtime through the tenant provider service
+    private static final Map<CdsRuntime, WeakReference<AuditLogNGHandler>> HANDLERS = Collections.synchronizedMap(new WeakHashMap<>());
 
-    private final AuditLogNGCommunicator communicator;
+    private final String region;
+    private final String namespace;
     private final TenantProviderService tenantService;
+    private final AuditLogNGCodec codec;
+    private final PassthroughEventValidator passthroughValidator;
+    private final ValueTruncator valueTruncator;
+    private final EventSender sender;
+    private final ChangeSetEventAccumulator changeSetAccumulator;
+    private final Map<String, EventDispatcher> dispatchers;
+    private final AsyncEventSender asyncSender;
+    private final AuditLogNGProperties.Deadlines deadlines;
+    private final PipelinedEventSender pipeline;
+    private final AuditLogNGProperties.Subscriber subscriberProperties;
+    private final AuditLogNGSink sink;
+    private volatile boolean closed;
 
     AuditLogNGHandler(AuditLogNGCommunicator communicator, TenantProviderService tenantService) {
-        this.communicator = communicator;
+        this(communicator, tenantService, AuditLogNGProperties.defaults());
+    }
+
+    AuditLogNGHandler(AuditLogNGCommunicator communicator, TenantProviderService tenantService, AuditLogNGProperties properties) {
+        this(List.of(communicator), tenantService, properties);
+    }
+
+    /**
+     * Creates a handler sending to multiple bindings. The first communicator determines the {@code source} of the
+     * built events, which is rewritten if the events are routed to another binding.
+     *
+     * @param communicators the communicators of the bindings
+     * @param tenantService the tenant provider service
+     * @param properties the properties
+     */
+    AuditLogNGHandler(List<AuditLogNGCommunicator> communicators, TenantProviderService tenantService, AuditLogNGProperties properties) {
+        this(new HttpAuditLogNGSink(communicators, properties), communicators.get(0).getRegion(), communicators.get(0).getNamespace(),
+                tenantService, properties);
+    }
+
+    /**
+     * Creates a handler writing to the given sink.
+     *
+     * @param sink the sink of the events
+     * @param region the region in the {@code source} of the events
+     * @param namespace the namespace in the {@code source} of the events
+     * @param tenantService the tenant provider service
+     * @param properties the properties
+     */
+    AuditLogNGHandler(AuditLogNGSink sink, String region, String namespace, TenantProviderService tenantService,
+            AuditLogNGProperties properties) {
+        this.region = region;
+        this.namespace = namespace;
         this.tenantService = tenantService;
+        this.codec = AuditLogNGCodecs.load(properties.getCodec());
+        AuditLogNGProperties.GeneralEvents generalEvents = properties.getGeneralEvents();
+        this.passthroughValidator = generalEvents.isPassthrough() ? new PassthroughEventValidator(generalEvents) : null;
+        this.valueTruncator = new ValueTruncator(properties.getValues().getMaxLength());
+        EventSender target = sink instanceof HttpAuditLogNGSink http ? http::send : events -> send(sink, events);
+        if (properties.getPriorities().isEnabled()) {
+            target = new PrioritizedEventSender(properties.getPriorities(), target);
+        }
+        this.sender = properties.getLanes() > 1 ? new PartitionedEventSender(properties.getLanes(), target) : target;
+        this.changeSetAccumulator = properties.isChangeSetAccumulation() ? new ChangeSetEventAccumulator(sender) : null;
+        this.dispatchers = createDispatchers();
+        this.asyncSender = new AsyncEventSender(properties.getAsync(), sender);
+        this.deadlines = properties.getDeadlines();
+        // the events of a pipelined log are sent before the log is complete, so they cannot be accumulated
+        this.pipeline = properties.getPipelineChunkSize() > 0 && changeSetAccumulator == null
+                ? new PipelinedEventSender(properties.getPipelineChunkSize(), PipelinedEventSender.threads(properties), sender)
+                : null;
+        this.subscriberProperties = properties.getSubscriber();
+        this.sink = sink;
+    }
+
+    /**
+     * Returns the handler the plugin registered in the given runtime, e.g. to {@link #submit(EventContext) submit}
+     * events of batch jobs.
+     *
+     * @param runtime the CDS runtime
+     * @return the handler, or an empty {@link Optional} if no handler is registered, e.g. without an
+     *         {@code auditlog-ng} binding
+     */
+    public static Optional<AuditLogNGHandler> get(CdsRuntime runtime) {
+        WeakReference<AuditLogNGHandler> handler = HANDLERS.get(runtime);
+        return Optional.ofNullable(handler != null ? handler.get() : null);
+    }
+
+    /**
+     * Makes the handler available with {@link #get(CdsRuntime)}.
+     */
+    static void register(CdsRuntime runtime, AuditLogNGHandler handler) {
+        HANDLERS.put(runtime, new WeakReference<>(handler));
+    }
+
+    /**
+     * Creates the dispatchers of the built-in events and of the events of the registered
+     * {@link AuditLogNGEventMapper mappers} by event name.
+     *
+     * @return the dispatchers by event name
+     * @throws ErrorStatusException if a mapper is registered for a built-in event or more than one mapper is
+     *         registered for an event
+     */
+    private Map<String, EventDispatcher> createDispatchers() {
+        Map<String, EventDispatcher> result = new HashMap<>();
+        result.put(SecurityLogContext.CDS_NAME, new EventDispatcher(LEGACY_SECURITY_WRAPPER,
+                context -> buildSecurityEvent(typed(context, SecurityLogContext.class)), false, null));
+        result.put(DataAccessLogContext.CDS_NAME, new EventDispatcher("dppDataAccess",
+                context -> buildDataAccessEvents(typed(context, DataAccessLogContext.class)), true,
+                (context, events) -> streamAlsDataAccessEvents(typed(context, DataAccessLogContext.class), events)));
+        result.put(ConfigChangeLogContext.CDS_NAME, new EventDispatcher("configurationChange",
+                context -> buildConfigChangeEvents(typed(context, ConfigChangeLogContext.class)), true, null));
+        result.put(DataModificationLogContext.CDS_NAME, new EventDispatcher("dppDataModification",
+                context -> buildDataModificationEvents(typed(context, DataModificationLogContext.class)), true,
+                (context, events) -> streamAlsDataModificationEvents(typed(context, DataModificationLogContext.class), events)));
+        for (AuditLogNGEventMapper mapper : AuditLogNGEventMappers.all()) {
+            EventDispatcher dispatcher = new EventDispatcher(mapper.getType(),
+                    context -> traceBuild(mapper.getType(), () -> createMappedEvent(context, mapper)), false, null);
+            if (result.putIfAbsent(mapper.getEvent(), dispatcher) != null) {
+                throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_CONFIG,
+                        AuditLogNGEventMapper.class.getName() + ":" + mapper.getEvent());
+            }
+            LOGGER.debug("Registered audit log event mapper {} for event {}", mapper.getClass().getName(), mapper.getEvent());
+        }
+        return Map.copyOf(result);
+    }
+
+    /**
+     * Returns the context as the given type, only creating a proxy if it is not already of that type.
+     */
+    private static <T extends EventContext> T typed(EventContext context, Class<T> type) {
+        return type.isInstance(context) ? type.cast(context) : context.as(type);
     }
 
     @On
     public void handleGeneralEvent(EventContext context) {
-        try {
-            if (context instanceof SecurityLogContext || context.getEvent().equals("securityLog")) {
-                LOGGER.debug("Handling security log event");
-                handleSecurityEvent(context.as(SecurityLogContext.class));
-                return;
-            } else if (context instanceof DataAccessLogContext || context.getEvent().equals("dataAccessLog")) {
-                LOGGER.debug("Handling data access log event");
-                handleDataAccessEvent(context.as(DataAccessLogContext.class));
-                return;
-            } else if (context instanceof ConfigChangeLogContext || context.getEvent().equals("configChangeLog")) {
-                LOGGER.debug("Handling configuration change log event");
-                handleConfigChangeEvent(context.as(ConfigChangeLogContext.class));
-                return;
-            } else if (context instanceof DataModificationLogContext || context.getEvent().equals("dataModificationLog")) {
-                LOGGER.debug("Handling data modification log event");
-                handleDataModificationEvent(context.as(DataModificationLogContext.class));
+        Span span = AuditLogNGTracing.start(AuditLogNGTracing.SPAN_HANDLE);
+        span.setAttribute(AuditLogNGTracing.EVENT_TYPE, context.getEvent());
+        EventDispatcher dispatcher = dispatchers.get(context.getEvent());
+        try (Scope scope = span.makeCurrent(); Scope deadline = deadlineOf(context, dispatcher).makeCurrent()) {
+            LOGGER.debug("Handling audit log event {}", context.getEvent());
+            if (pipeline != null && dispatcher != null && dispatcher.streamer() != null) {
+                sendPipelined(context, dispatcher);
                 return;
+            }
+            ArrayNode alsEvents = build(context, dispatcher);
+            if (dispatcher != null && dispatcher.accumulate()) {
+                sendOrAccumulate(context, alsEvents);
             } else {
-                ArrayNode alsEvents = createGeneralEvent(context);
-                communicator.sendBulkRequest(alsEvents);
+                sender.send(alsEvents);
             }
-        } catch (JsonProcessingException e) {
+        } catch (Exception e) {
+            AuditLogNGTracing.fail(span, e);
+            throw translate(e);
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Builds the audit log events of the given context on the calling thread and sends them asynchronously.
+     *
+     * The returned future completes when the events have been delivered to the Audit Log service, or stored in
+     * the dead letter store if it rejected them. It completes exceptionally with an {@link ErrorStatusException}
+     * if the events cannot be built or sent. Cancelling the future, or completing it with a timeout, skips sending
+     * the events if they have not been sent yet. Events are not accumulated per ChangeSet. If the queue of pending
+     * events is full, the events are sent on the calling thread.
+     *
+     * @param context the event context of an audit log event
+     * @return the future of the delivery
+     */
+    public CompletableFuture<Void> submit(EventContext context) {
+        Span span = AuditLogNGTracing.start(AuditLogNGTracing.SPAN_HANDLE);
+        span.setAttribute(AuditLogNGTracing.EVENT_TYPE, context.getEvent());
+        EventDispatcher dispatcher = dispatchers.get(context.getEvent());
+        try (Scope scope = span.makeCurrent(); Scope deadline = deadlineOf(context, dispatcher).makeCurrent()) {
+            LOGGER.debug("Submitting audit log event {}", context.getEvent());
+            CompletableFuture<Void> delivery = asyncSender.submit(build(context, dispatcher));
+            delivery.whenComplete((result, e) -> {
+                if (e != null) {
+                    AuditLogNGTracing.fail(span, e);
+                }
+                span.end();
+            });
+            return delivery;
+        } catch (Exception e) {
+            AuditLogNGTracing.fail(span, e);
+            span.end();
+            return CompletableFuture.failedFuture(translate(e));
+        }
+    }
+
+    /**
+     * Creates a subscriber that sends the audit log events of a stream of {@link DataAccessLog} and
+     * {@link DataModificationLog} items with backpressure. The events are sent asynchronously like submitted events
+     * and are not accumulated per ChangeSet.
+     *
+     * @param userInfo the user the items of the stream are logged for
+     * @return the subscriber, which can be subscribed to one publisher
+     */
+    public AuditLogNGSubscriber subscriber(UserInfo userInfo) {
+        requireNonNull(userInfo, "UserInfo of the stream must not be null");
+        return new AuditLogNGSubscriber(subscriberProperties, log -> buildLogEvents(userInfo, log), asyncSender::submit);
+    }
+
+    /**
+     * Sends the events stored in the dead letter files of the bindings again, e.g. after the cause of their rejection
+     * has been fixed. Events that are rejected again are stored again. Other sinks have no dead letters.
+     *
+     * @return the number of events sent
+     * @throws IOException if the events cannot be read or sent
+     */
+    public int replayDeadLetters() throws IOException {
+        return sink instanceof HttpAuditLogNGSink http ? http.replayDeadLetters() : 0;
+    }
+
+    /**
+     * Reads the bindings again and replaces the HTTP client of each binding whose certificate, key or passphrase
+     * changed. Requests in flight complete with the previous client. Other sinks have no certificates.
+     *
+     * @return {@code true}, if the HTTP client of any binding has been replaced
+     */
+    public boolean reloadCertificates() {
+        return sink instanceof HttpAuditLogNGSink http && http.reloadCertificates();
+    }
+
+    /**
+     * Closes the handler when the application stops.
+     *
+     * @param context the event context
+     */
+    @After(service = ApplicationLifecycleService.DEFAULT_NAME, serviceType = ApplicationLifecycleService.class,
+            event = ApplicationLifecycleService.EVENT_APPLICATION_STOPPED)
+    public void applicationStopped(ApplicationStoppedEventContext context) {
+        close();
+    }
+
+    /**
+     * Stops the threads sending pipelined logs, stops reloading the certificates of the bindings and closes their
+     * HTTP clients after the grace period of requests in flight. It is called when the application stops, and should
+     * be called for a handler that is discarded before. Other sinks are not affected.
+     */
+    public void close() {
+        closed = true;
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        if (sink instanceof HttpAuditLogNGSink http) {
+            http.close();
+        }
+    }
+
+    /**
+     * @return {@code true}, if the handler has been closed
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the sink the events are written to
+     */
+    AuditLogNGSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Builds the events of a data access or data modification log item of a stream.
+     */
+    private ArrayNode buildLogEvents(UserInfo userInfo, CdsData log) {
+        if (log instanceof DataAccessLog || log.containsKey(DataAccessLog.ACCESSES)) {
+            DataAccessLog data = log instanceof DataAccessLog access ? access : Struct.access(log).as(DataAccessLog.class);
+            Collection<Access> accesses = requireNonNull(data.getAccesses(), "DataAccessLog.getAccesses() is null");
+            return traceBuild("dppDataAccess", () -> {
+                ArrayNode events = NODES.arrayNode();
+                for (Access access : accesses) {
+                    addAccessEvents(userInfo, events::add, access);
+                }
+                return events;
+            });
+        } else if (log instanceof DataModificationLog || log.containsKey(DataModificationLog.MODIFICATIONS)) {
+            DataModificationLog data = log instanceof DataModificationLog modification ? modification
+                    : Struct.access(log).as(DataModificationLog.class);
+            Collection<DataModification> modifications = requireNonNull(data.getModifications(),
+                    "DataModificationLog.getModifications() is null");
+            return traceBuild("dppDataModification", () -> buildAttributeBasedAlsEvents(userInfo, modifications));
+        }
+        throw new IllegalArgumentException("Item of stream is neither a DataAccessLog nor a DataModificationLog");
+    }
+
+    /**
+     * Builds the events and fails if the deadline passed meanwhile, as there is no time left to send them.
+     */
+    private ArrayNode build(EventContext context, EventDispatcher dispatcher) throws IOException {
+        ArrayNode alsEvents = dispatcher != null ? dispatcher.builder().build(context)
+                : traceBuild(context.getEvent(), () -> createGeneralEvent(context));
+        AuditLogNGDeadline deadline = AuditLogNGDeadline.current();
+        if (deadline != null) {
+            deadline.check("build");
+        }
+        return alsEvents;
+    }
+
+    /**
+     * Builds the events incrementally and sends each full chunk while the next one is being built.
+     */
+    private void sendPipelined(EventContext context, EventDispatcher dispatcher) throws JsonProcessingException {
+        Span span = AuditLogNGTracing.start(AuditLogNGTracing.SPAN_BUILD);
+        span.setAttribute(AuditLogNGTracing.EVENT_TYPE, dispatcher.type());
+        PipelinedEventSender.Pipeline events = pipeline.open();
+        AuditLogNGRecording.BuildEvent recording = new AuditLogNGRecording.BuildEvent();
+        try (Scope scope = span.makeCurrent()) {
+            dispatcher.streamer().stream(context, events::add);
+            events.finish();
+        } catch (JsonProcessingException | RuntimeException e) {
+            events.abort();
+            AuditLogNGTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.setAttribute(AuditLogNGTracing.EVENT_COUNT, (long) events.getCount());
+            recording.finish(dispatcher.type(), events.getCount());
+            span.end();
+        }
+    }
+
+    /**
+     * Builds and encodes one synthetic event of each built-in type without sending it, so that the classes, the
+     * serializers and the codec are loaded and initialized before the first request.
+     *
+     * @throws IOException if the events cannot be encoded
+     */
+    void warmUp() throws IOException {
+        UserInfo userInfo = UserInfo.create().setName("warm-up").setTenant("warm-up");
+        KeyValuePair id = KeyValuePair.create();
+        id.setKeyName("id");
+        id.setValue("warm-up");
+        DataObject dataObject = DataObject.create();
+        dataObject.setType("warm-up");
+        dataObject.setId(List.of(id));
+        DataSubject dataSubject = DataSubject.create();
+        dataSubject.setType("warm-up");
+        dataSubject.setId(List.of(id));
+        Attribute attribute = Attribute.create();
+        attribute.setName("warm-up");
+        ChangedAttribute changedAttribute = ChangedAttribute.create();
+        changedAttribute.setName("warm-up");
+        changedAttribute.setOldValue("old");
+        changedAttribute.setNewValue("new");
+
+        SecurityLog securityLog = SecurityLog.create();
+        securityLog.setAction("warm-up");
+        securityLog.setData("warm-up");
+        ArrayNode events = createSecurityEvent(userInfo, securityLog);
+        Access access = Access.create();
+        access.setDataObject(dataObject);
+        access.setDataSubject(dataSubject);
+        access.setAttributes(List.of(attribute));
+        addAccessEvents(userInfo, events::add, access);
+        ConfigChange configChange = ConfigChange.create();
+        configChange.setDataObject(dataObject);
+        configChange.setAttributes(List.of(changedAttribute));
+        events.add(buildConfigChangeEvent(userInfo, configChange, changedAttribute));
+        DataModification modification = DataModification.create();
+        modification.setDataObject(dataObject);
+        modification.setDataSubject(dataSubject);
+        modification.setAttributes(List.of(changedAttribute));
+        events.add(buildDataModificationAlsEvent(userInfo, modification, changedAttribute));
+        codec.encode(events);
+    }
+
+    /**
+     * Determines the deadline of the event from the budget of its type, unless the caller set an earlier one.
+     */
+    private AuditLogNGDeadline deadlineOf(EventContext context, EventDispatcher dispatcher) {
+        return AuditLogNGDeadline.after(deadlines.getBudget(dispatcher != null ? dispatcher.type() : context.getEvent()));
+    }
+
+    /**
+     * Translates a failure to build or send audit log events into the error of the handler.
+     */
+    static ErrorStatusException translate(Throwable e) {
+        if (e instanceof JsonProcessingException) {
             LOGGER.error("Audit Log write exception occurred", e);
-            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_MESSAGE, e);
-        } catch (ErrorStatusException e) {
+            return new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_MESSAGE, e);
+        } else if (e instanceof ErrorStatusException) {
             LOGGER.error("Audit Log service not available", e);
-            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
-        } catch (Exception e) {
-            LOGGER.error("Unexpected exception", e);
-            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_MESSAGE, e);
+            return new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
         }
+        LOGGER.error("Unexpected exception", e);
+        return new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_MESSAGE, e);
     }
 
-    private ArrayNode createGeneralEvent(EventContext context) throws JsonProcessingException {
+    private ArrayNode createGeneralEvent(EventContext context) throws IOException {
         UserInfo userInfo = requireNonNull(context.getUserInfo(), "UserInfo in EventContext must not be null");
         String eventType = requireNonNull((String) context.getEvent(), "EventType in EventContext must not be null");
         Map<String, Object> data = (Map<String, Object>) context.get("data");
         String eventJson = (String) data.get("event");
 
-        ObjectNode eventEnvelope = buildEventEnvelope(OBJECT_MAPPER, eventType, userInfo);
+        ObjectNode eventEnvelope = buildEventEnvelope(eventType, userInfo);
         ObjectNode metadata = buildEventMetadata(userInfo);
-        ObjectNode parsedEventNode = (ObjectNode) OBJECT_MAPPER.readTree(eventJson);
-        ObjectNode wrappedDataNode = OBJECT_MAPPER.createObjectNode();
-        wrappedDataNode.set(eventType, parsedEventNode);
+        ObjectNode wrappedDataNode = NODES.objectNode();
+        if (passthroughValidator != null) {
+            wrappedDataNode.putRawValue(eventType, passthroughValidator.validate(eventJson));
+        } else {
+            ObjectNode parsedEventNode = (ObjectNode) codec.readTree(eventJson);
+            wrappedDataNode.set(eventType, parsedEventNode);
+        }
         ObjectNode alsData = buildAuditLogEventData(metadata, wrappedDataNode);
         eventEnvelope.set("data", alsData);
 
-        ArrayNode result = OBJECT_MAPPER.createArrayNode();
+        ArrayNode result = NODES.arrayNode();
         result.add(eventEnvelope);
 
-        LOGGER.debug("Created general event for Audit Log NG: {}", result.toString());
+        // the event is only converted to a string if debug logging is enabled
+        LOGGER.debug("Created general event for Audit Log NG: {}", result);
         return result;
     }
 
+    /**
+     * Creates the audit log event of a custom event with the given mapper.
+     *
+     * @param context the event context
+     * @param mapper the mapper of the event
+     * @return an ArrayNode containing the audit log event
+     */
+    private ArrayNode createMappedEvent(EventContext context, AuditLogNGEventMapper mapper) throws IOException {
+        UserInfo userInfo = requireNonNull(context.getUserInfo(), "UserInfo in EventContext must not be null");
+        String eventType = mapper.getType();
+        ObjectNode eventEnvelope = buildEventEnvelope(eventType, userInfo);
+        ObjectNode wrappedDataNode = NODES.objectNode();
+        wrappedDataNode.set(eventType, mapper.map(context));
+        eventEnvelope.set("data", buildAuditLogEventData(buildEventMetadata(userInfo), wrappedDataNode));
+        return NODES.arrayNode().add(eventEnvelope);
+    }
+
     public void handleSecurityEvent(SecurityLogContext context) throws JsonProcessingException {
-        ArrayNode alsEvents = createSecurityEvent(context);
-        communicator.sendBulkRequest(alsEvents);
+        sender.send(buildSecurityEvent(context));
+    }
+
+    private ArrayNode buildSecurityEvent(SecurityLogContext context) {
+        return traceBuild(LEGACY_SECURITY_WRAPPER, () -> createSecurityEvent(context));
     }
 
     /**
@@ -137,7 +528,8 @@ public class AuditLogNGHandler implements EventHandler {
      *   - data: An ObjectNode containing:
      *       - metadata: An ObjectNode with the timestamp of the event
      *       - legacySecurityWrapper: An ObjectNode with:
-     *           - origEvent: A serialized JSON string representing the original security event
+     *           - origEvent: A serialized JSON string representing the original security event, embedded as a
+     *             pre-escaped raw value (see {@link LegacySecurityEventEncoder})
      *
      * @param context the SecurityLogContext containing user and event data
      * @return an ArrayNode representing the security event
@@ -145,52 +537,27 @@ public class AuditLogNGHandler implements EventHandler {
     private ArrayNode createSecurityEvent(SecurityLogContext context) {
         SecurityLog data = requireNonNull(context.getData(), "SecurityLogContext.getData() is null");
         UserInfo userInfo = requireNonNull(context.getUserInfo(), "SecurityLogContext.getUserInfo() is null");
-        ObjectNode alsEvent = buildEventEnvelope(OBJECT_MAPPER, LEGACY_SECURITY_WRAPPER, userInfo);
+        return createSecurityEvent(userInfo, data);
+    }
+
+    private ArrayNode createSecurityEvent(UserInfo userInfo, SecurityLog data) {
+        ObjectNode alsEvent = buildEventEnvelope(LEGACY_SECURITY_WRAPPER, userInfo);
         ObjectNode metadata = buildEventMetadata(userInfo);
-        ObjectNode origEvent = createLegacySecurityOrigEvent(userInfo, data);
-        ObjectNode legacySecurityWrapper = OBJECT_MAPPER.createObjectNode();
-        try {
-            legacySecurityWrapper.put("origEvent", OBJECT_MAPPER.writeValueAsString(origEvent));
-        } catch (JsonProcessingException e) {
-            LOGGER.error("Failed to serialize origEvent: {}", origEvent, e);
-            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_MESSAGE, "Failed to serialize origEvent", e);
-        }
-        ObjectNode dataNode = OBJECT_MAPPER.createObjectNode();
+        ObjectNode legacySecurityWrapper = NODES.objectNode();
+        legacySecurityWrapper.putRawValue("origEvent", LegacySecurityEventEncoder.encode(userInfo, data));
+        ObjectNode dataNode = NODES.objectNode();
         dataNode.set(LEGACY_SECURITY_WRAPPER, legacySecurityWrapper);
         ObjectNode alsData = buildAuditLogEventData(metadata, dataNode);
         alsEvent.set("data", alsData);
-        return OBJECT_MAPPER.createArrayNode().add(alsEvent);
+        return NODES.arrayNode().add(alsEvent);
     }
 
-    /**
-     * Creates a legacy security origin event as an ObjectNode containing audit log information.
-     *
-     * The resulting JSON object includes the following fields:
-     *   - uuid: A randomly generated UUID string for the event
-     *   - user: The name of the user from userInfo, or "unknown" if userInfo is null
-     *   - identityProvider: A constant value "$IDP"
-     *   - time: The current timestamp as an ISO-8601 string
-     *   - data: The data from the SecurityLog object, or an empty string if data is null
-     *
-     * @param userInfo the user information, may be null
-     * @param data the security log data, may be null
-     * @return an ObjectNode representing the legacy security origin event
-     */
-    private ObjectNode createLegacySecurityOrigEvent(UserInfo userInfo, SecurityLog data) {
-        ObjectNode envelop = OBJECT_MAPPER.createObjectNode();
-        String formattedData = "action: %s, data: %s".formatted(data.getAction(), data.getData());
-        formattedData = formattedData.replace("\r\n", "\\n").replace("\n", "\\n");
-        setFieldIfNotNull(envelop, "uuid", UUID.randomUUID().toString());
-        setFieldIfNotNull(envelop, "user", userInfo.getName() != null ? userInfo.getName() : "unknown");
-        setFieldIfNotNull(envelop, "identityProvider", "$IDP");
-        setFieldIfNotNull(envelop, "time", Instant.now().toString());
-        setFieldIfNotNull(envelop, "data", formattedData != null ? formattedData : "");
-        return envelop;
+    public void handleDataAccessEvent(DataAccessLogContext context) throws JsonProcessingException {
+        sendOrAccumulate(context, buildDataAccessEvents(context));
     }
 
-    public void handleDataAccessEvent(DataAccessLogContext context) throws JsonProcessingException {
-        ArrayNode alsEvents = createAlsDataAccessEvents(context);
-        communicator.sendBulkRequest(alsEvents);
+    private ArrayNode buildDataAccessEvents(DataAccessLogContext context) {
+        return traceBuild("dppDataAccess", () -> createAlsDataAccessEvents(context));
     }
 
     /**
@@ -205,27 +572,38 @@ public class AuditLogNGHandler implements EventHandler {
      * @throws IllegalArgumentException if accesses are empty
      */
     private ArrayNode createAlsDataAccessEvents(DataAccessLogContext context) {
+        ArrayNode eventArray = NODES.arrayNode();
+        streamAlsDataAccessEvents(context, eventArray::add);
+        return eventArray;
+    }
+
+    /**
+     * Passes the ALS data access events of the provided DataAccessLogContext one by one to the given sink, so that
+     * they can be sent before all of them are built.
+     *
+     * @param context the DataAccessLogContext containing access data
+     * @param events the sink of the events
+     */
+    private <E extends Exception> void streamAlsDataAccessEvents(DataAccessLogContext context, EventSink<E> events) throws E {
         UserInfo userInfo = requireNonNull(context.getUserInfo(), "DataAccessLogContext.getUserInfo() is null");
         DataAccessLog data = requireNonNull(context.getData(), "DataAccessLogContext.getData() is null");
         Collection<Access> accesses = requireNonNull(data.getAccesses(), "DataAccessLog.getAccesses() is null");
-        ArrayNode eventArray = OBJECT_MAPPER.createArrayNode();
         for (Access access : accesses) {
-            addAccessEvents(userInfo, eventArray, access);
+            addAccessEvents(userInfo, events, access);
         }
-        return eventArray;
     }
 
     /**
-     * Adds access events for each attribute in the given {@link Access} object to the specified event array.
+     * Adds access events for each attribute in the given {@link Access} object to the specified event sink.
      * For each attribute, this method retrieves its name and delegates the creation of the access event
      * to {@code addAttributeAccessEvents}.
      *
      * @param userInfo   the user information associated with the access event
-     * @param eventArray the array to which access events will be added
+     * @param eventArray the sink to which access events will be added
      * @param access     the access object containing the attributes to process
      * @throws NullPointerException if {@code access.getAttributes()} or any attribute name is {@code null}
      */
-    private void addAccessEvents(UserInfo userInfo, ArrayNode eventArray, Access access) {
+    private <E extends Exception> void addAccessEvents(UserInfo userInfo, EventSink<E> eventArray, Access access) throws E {
         Collection<Attribute> attributes = requireNonNull(access.getAttributes(), "Access.getAttributes() is null");
         for (Attribute attribute : attributes) {
             String attributeName = requireNonNull(attribute.getName(), "Attribute.getName() is null");
@@ -234,16 +612,17 @@ public class AuditLogNGHandler implements EventHandler {
     }
 
     /**
-     * Adds attribute access events to the provided event array based on the given access and attribute information.
+     * Adds attribute access events to the provided event sink based on the given access and attribute information.
      * If the {@link Access} object contains attachments, an event is created for each attachment using its name and ID.
      * If there are no attachments, a single event is created without attachment details.
      *
      * @param userInfo      the user information associated with the access event
-     * @param eventArray    the JSON array node to which the generated events will be added
+     * @param eventArray    the sink to which the generated events will be added
      * @param access        the access object containing details about the attribute access and any attachments
      * @param attributeName the name of the attribute being accessed
      */
-    private void addAttributeAccessEvents(UserInfo userInfo, ArrayNode eventArray, Access access, String attributeName) {
+    private <E extends Exception> void addAttributeAccessEvents(UserInfo userInfo, EventSink<E> eventArray, Access access,
+            String attributeName) throws E {
         Collection<Attachment> attachments = access.getAttachments();
         if (attachments == null || attachments.isEmpty()) {
             ObjectNode alsEvent = buildDataAccessAlsEvent(userInfo, access, attributeName, null, null);
@@ -257,8 +636,11 @@ public class AuditLogNGHandler implements EventHandler {
     }
 
     public void handleConfigChangeEvent(ConfigChangeLogContext context) throws JsonProcessingException {
-        ArrayNode alsEvents = createAlsConfigChangeEvents(context);
-        communicator.sendBulkRequest(alsEvents);
+        sendOrAccumulate(context, buildConfigChangeEvents(context));
+    }
+
+    private ArrayNode buildConfigChangeEvents(ConfigChangeLogContext context) {
+        return traceBuild("configurationChange", () -> createAlsConfigChangeEvents(context));
     }
 
     /**
@@ -276,7 +658,7 @@ public class AuditLogNGHandler implements EventHandler {
         ConfigChangeLog data = requireNonNull(context.getData(), "ConfigChangeLogContext.getData() is null");
         UserInfo userInfo = requireNonNull(context.getUserInfo(), "ConfigChangeLogContext.getUserInfo() is null");
         Collection<ConfigChange> configChanges = requireNonNull(data.getConfigurations(), "ConfigChangeLog.getConfigurations() is null");
-        ArrayNode result = OBJECT_MAPPER.createArrayNode();
+        ArrayNode result = NODES.arrayNode();
         configChanges.forEach(cfg -> {
             Collection<ChangedAttribute> attributes = requireNonNull(cfg.getAttributes(), "ConfigChange.getAttributes() is null");
             attributes.stream().map(attribute -> buildConfigChangeEvent(userInfo, cfg, attribute)).forEach(result::add);
@@ -296,7 +678,7 @@ public class AuditLogNGHandler implements EventHandler {
      */
     private ObjectNode buildConfigChangeEvent(UserInfo userInfo, ConfigChange configChanges, ChangedAttribute attribute) {
         ObjectNode metadata = buildEventMetadata(userInfo);
-        ObjectNode changeNode = OBJECT_MAPPER.createObjectNode();
+        ObjectNode changeNode = NODES.objectNode();
         addValueDetails(changeNode, attribute, "propertyName");
         var dataObject = requireNonNull(configChanges.getDataObject(), "ConfigChange.getDataObject() is null");
         addObjectDetails(changeNode, dataObject);
@@ -304,8 +686,11 @@ public class AuditLogNGHandler implements EventHandler {
     }
 
     public void handleDataModificationEvent(DataModificationLogContext context) throws JsonProcessingException {
-        ArrayNode alsEvents = createAlsDataModificationEvents(context);
-        communicator.sendBulkRequest(alsEvents);
+        sendOrAccumulate(context, buildDataModificationEvents(context));
+    }
+
+    private ArrayNode buildDataModificationEvents(DataModificationLogContext context) {
+        return traceBuild("dppDataModification", () -> createAlsDataModificationEvents(context));
     }
 
     /**
@@ -325,6 +710,21 @@ public class AuditLogNGHandler implements EventHandler {
         return buildAttributeBasedAlsEvents(userInfo, modifications);
     }
 
+    /**
+     * Passes the ALS data modification events of the provided context one by one to the given sink, so that they
+     * can be sent before all of them are built.
+     *
+     * @param context the context containing data modification log information; must not be null
+     * @param events the sink of the events
+     */
+    private <E extends Exception> void streamAlsDataModificationEvents(DataModificationLogContext context, EventSink<E> events)
+            throws E {
+        DataModificationLog data = requireNonNull(context.getData(), "DataModificationLogContext.getData() is null");
+        Collection<DataModification> modifications = requireNonNull(data.getModifications(), "DataModificationLog.getModifications() is null");
+        UserInfo userInfo = requireNonNull(context.getUserInfo(), "DataModificationLogContext.getUserInfo() is null");
+        addAttributeBasedAlsEvents(userInfo, modifications, events);
+    }
+
     /**
      * Builds an array of ALS (Audit Log Service) events based on the attributes of the given data modifications.
      * For each {@link DataModification} in the provided collection, this method iterates through its changed attributes
@@ -336,14 +736,19 @@ public class AuditLogNGHandler implements EventHandler {
      * @throws IllegalArgumentException if any {@link DataModification} item has no attributes
      */
     private ArrayNode buildAttributeBasedAlsEvents(UserInfo userInfo, Collection<DataModification> modifications) {
-        ArrayNode eventArray = OBJECT_MAPPER.createArrayNode();
+        ArrayNode eventArray = NODES.arrayNode();
+        addAttributeBasedAlsEvents(userInfo, modifications, eventArray::add);
+        return eventArray;
+    }
+
+    private <E extends Exception> void addAttributeBasedAlsEvents(UserInfo userInfo, Collection<DataModification> modifications,
+            EventSink<E> events) throws E {
         for (DataModification modification : modifications) {
             Collection<ChangedAttribute> attributes = requireNonNull(modification.getAttributes(), "DataModification.getAttributes() is null");
             for (ChangedAttribute attribute : attributes) {
-                eventArray.add(buildDataModificationAlsEvent(userInfo, modification, attribute));
+                events.add(buildDataModificationAlsEvent(userInfo, modification, attribute));
             }
         }
-        return eventArray;
     }
 
     /**
@@ -383,32 +788,81 @@ public class AuditLogNGHandler implements EventHandler {
      * @return an ObjectNode representing the data modification details
      */
     private ObjectNode buildDataModificationNode(ChangedAttribute attribute, DataSubject dataSubject, DataObject dataObject) {
-        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        ObjectNode node = NODES.objectNode();
         addValueDetails(node, attribute, "attribute");
         addObjectDetails(node, dataObject);
         addDataSubjectDetails(node, dataSubject);
         return node;
     }
 
+    /**
+     * Builds the events within an OpenTelemetry span that records the event type and count.
+     *
+     * @param eventType the type of the events
+     * @param builder the builder of the events
+     * @return the events
+     */
+    private static <E extends Exception> ArrayNode traceBuild(String eventType, EventBuilder<E> builder) throws E {
+        Span span = AuditLogNGTracing.start(AuditLogNGTracing.SPAN_BUILD);
+        span.setAttribute(AuditLogNGTracing.EVENT_TYPE, eventType);
+        AuditLogNGRecording.BuildEvent recording = new AuditLogNGRecording.BuildEvent();
+        try (Scope scope = span.makeCurrent()) {
+            ArrayNode alsEvents = builder.build();
+            span.setAttribute(AuditLogNGTracing.EVENT_COUNT, (long) alsEvents.size());
+            recording.finish(eventType, alsEvents.size());
+            return alsEvents;
+        } catch (Exception e) {
+            AuditLogNGTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Writes the events to a sink, whose I/O failures mean that the audit log is not available.
+     */
+    private static void send(AuditLogNGSink sink, ArrayNode events) throws JsonProcessingException {
+        try {
+            sink.send(events);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            LOGGER.error("Failed to write audit log events to sink {}", sink.getName(), e);
+            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
+        }
+    }
+
+    /**
+     * Sends the events, or adds them to the events of the current ChangeSet if ChangeSet accumulation is enabled.
+     *
+     * @param context the event context
+     * @param alsEvents the events to send
+     */
+    private void sendOrAccumulate(EventContext context, ArrayNode alsEvents) throws JsonProcessingException {
+        if (changeSetAccumulator == null || !changeSetAccumulator.accumulate(context.getChangeSetContext(), alsEvents)) {
+            sender.send(alsEvents);
+        }
+    }
+
     /**
      * Builds an event envelope as an ObjectNode for audit logging purposes.
      *
      * The envelope includes a unique event ID, specification version, source,
-     * type, and timestamp. The source is constructed using the communicator's
-     * region, namespace, and the tenant information. If the tenant is not
+     * type, and timestamp. The source is constructed using the region and
+     * namespace of the binding, and the tenant information. If the tenant is not
      * provided in the UserInfo, the provider tenant is used.
      *
-     * @param mapper the ObjectMapper used to create the JSON object node
      * @param type the type of the event to be set in the envelope
      * @param userInfo the user information containing tenant details
      * @return an ObjectNode representing the event envelope
      */
-    private ObjectNode buildEventEnvelope(ObjectMapper mapper, String type, UserInfo userInfo) {
-        ObjectNode alsEvent = mapper.createObjectNode();
+    private ObjectNode buildEventEnvelope(String type, UserInfo userInfo) {
+        ObjectNode alsEvent = NODES.objectNode();
         alsEvent.put("id", UUID.randomUUID().toString());
         alsEvent.put("specversion", "1");
         String tenant = (userInfo.getTenant() == null || userInfo.getTenant().isEmpty()) ? tenantService.readProviderTenant() : userInfo.getTenant();
-        alsEvent.put("source", String.format("/%s/%s/%s", communicator.getRegion(), communicator.getNamespace(), tenant));
+        alsEvent.put("source", String.format("/%s/%s/%s", region, namespace, tenant));
         alsEvent.put("type", type);
         alsEvent.put("time", Instant.now().toString());
         return alsEvent;
@@ -422,7 +876,7 @@ public class AuditLogNGHandler implements EventHandler {
      * @return an {@link ObjectNode} containing the event metadata
      */
     private ObjectNode buildEventMetadata(UserInfo userInfo) {
-        ObjectNode metadata = OBJECT_MAPPER.createObjectNode();
+        ObjectNode metadata = NODES.objectNode();
         metadata.put("ts", Instant.now().toString());
         metadata.put("userInitiatorId", userInfo.getName() != null ? userInfo.getName() : "anonymous");
         ObjectNode infraOther = metadata.putObject("infrastructure").putObject("other");
@@ -460,7 +914,7 @@ public class AuditLogNGHandler implements EventHandler {
      * @return an {@link ObjectNode} containing the structured data access information
      */
     private ObjectNode buildDataAccessNode(Access access, String attribute, String attachmentType, String attachmentId) {
-        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        ObjectNode node = NODES.objectNode();
         node.put("channelType", "not specified");
         node.put("channelId", "not specified");
         DataSubject dataSubject = requireNonNull(access.getDataSubject(), "Access.getDataSubject() is null");
@@ -478,6 +932,7 @@ public class AuditLogNGHandler implements EventHandler {
 
     /**
      * Adds details about a changed value to the given JSON node.
+     * Values exceeding the configured maximum length are truncated, see {@link ValueTruncator}.
      *
      * @param node The JSON node where the value details will be added.
      * @param attribute The changed attribute containing the old and new values.
@@ -486,8 +941,8 @@ public class AuditLogNGHandler implements EventHandler {
     private void addValueDetails(ObjectNode node, ChangedAttribute attribute, String fieldName) {
         String attributeName = requireNonNull(attribute.getName(), "ChangedAttribute.getName() is null");
         node.put(fieldName, attributeName);
-        node.put("newValue", attribute.getNewValue() != null ? attribute.getNewValue() : "null");
-        node.put("oldValue", attribute.getOldValue() != null ? attribute.getOldValue() : "null");
+        node.put("newValue", attribute.getNewValue() != null ? valueTruncator.truncate(attribute.getNewValue()) : "null");
+        node.put("oldValue", attribute.getOldValue() != null ? valueTruncator.truncate(attribute.getOldValue()) : "null");
     }
 
     /**
@@ -539,8 +994,8 @@ public class AuditLogNGHandler implements EventHandler {
      * @return an ObjectNode representing the ALS event
      */
     private ObjectNode buildAlsEvent(String eventType, UserInfo userInfo, ObjectNode metadata, String dataKey, ObjectNode dataValue) {
-        ObjectNode alsEvent = buildEventEnvelope(OBJECT_MAPPER, eventType, userInfo);
-        ObjectNode dataNode = OBJECT_MAPPER.createObjectNode();
+        ObjectNode alsEvent = buildEventEnvelope(eventType, userInfo);
+        ObjectNode dataNode = NODES.objectNode();
         dataNode.set(dataKey, dataValue);
         ObjectNode alsData = buildAuditLogEventData(metadata, dataNode);
         alsEvent.set("data", alsData);
@@ -550,20 +1005,13 @@ public class AuditLogNGHandler implements EventHandler {
     /**
      * Sets a field in the given ObjectNode only if the provided value is not null.
      *
-     * If the value is a String, the field is set using ObjectNode#put(String, String).
-     * For other types, the field is set using ObjectNode#set(String, JsonNode) after converting the value to a JsonNode using ObjectMapper#valueToTree(Object).
-     *
      * @param node the ObjectNode where the field will be set
      * @param field the name of the field to set
      * @param value the value to set; if null, the field will not be set
      */
-    private void setFieldIfNotNull(ObjectNode node, String field, Object value) {
+    private void setFieldIfNotNull(ObjectNode node, String field, String value) {
         if (value != null) {
-            if (value instanceof String str) {
-                node.put(field, str);
-            } else {
-                node.set(field, OBJECT_MAPPER.valueToTree(value));
-            }
+            node.put(field, value);
         }
     }
 
@@ -575,7 +1023,7 @@ public class AuditLogNGHandler implements EventHandler {
      * @return an ObjectNode representing the combined audit log event data with "metadata" and "data" fields
      */
     private ObjectNode buildAuditLogEventData(ObjectNode metadata, ObjectNode dataNode) {
-        ObjectNode alsData = OBJECT_MAPPER.createObjectNode();
+        ObjectNode alsData = NODES.objectNode();
         alsData.set("metadata", metadata);
         alsData.set("data", dataNode);
         return alsData;
@@ -592,4 +1040,30 @@ public class AuditLogNGHandler implements EventHandler {
         return ids.stream().sorted((a, b) -> a.getKeyName().compareToIgnoreCase(b.getKeyName())).map(kv -> kv.getKeyName() + ":" + kv.getValue()).collect(Collectors.joining(" "));
     }
 
+    /**
+     * Builds the audit log events of an event with the given type and tells whether they are accumulated per
+     * ChangeSet. Events of large logs also have a streamer, which builds them one by one for pipelined sending.
+     */
+    private record EventDispatcher(String type, ContextEventBuilder builder, boolean accumulate, ContextEventStreamer streamer) {
+    }
+
+    @FunctionalInterface
+    private interface ContextEventBuilder {
+        ArrayNode build(EventContext context) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ContextEventStreamer {
+        void stream(EventContext context, EventSink<JsonProcessingException> events) throws JsonProcessingException;
+    }
+
+    @FunctionalInterface
+    private interface EventSink<E extends Exception> {
+        void add(JsonNode event) throws E;
+    }
+
+    @FunctionalInterface
+    private interface EventBuilder<E extends Exception> {
+        ArrayNode build() throws E;
+    }
 }
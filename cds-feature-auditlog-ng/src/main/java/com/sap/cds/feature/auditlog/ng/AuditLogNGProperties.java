@@ -0,0 +1,1146 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sap.cds.services.environment.CdsEnvironment;
+
+/**
+ * Configuration properties of the Audit Log NG feature, read from the {@code cds.auditlog.ng} namespace.
+ * Every property is optional and falls back to the default documented on its getter.
+ */
+public class AuditLogNGProperties {
+
+    static final String PREFIX = "cds.auditlog.ng.";
+
+    private final String codec;
+    private final boolean changeSetAccumulation;
+    private final int lanes;
+    private final int pipelineChunkSize;
+    private final GeneralEvents generalEvents;
+    private final Values values;
+    private final MemoryBudget memoryBudget;
+    private final Batching batching;
+    private final Certificate certificate;
+    private final Routing routing;
+    private final DeadLetter deadLetter;
+    private final RateLimit rateLimit;
+    private final Priorities priorities;
+    private final Async async;
+    private final Deadlines deadlines;
+    private final Bulkhead bulkhead;
+    private final Sink sink;
+    private final WarmUp warmUp;
+    private final Capture capture;
+    private final Subscriber subscriber;
+
+    private AuditLogNGProperties(PropertyReader reader) {
+        this.codec = reader.get("codec", String.class, JacksonAuditLogNGCodec.NAME);
+        this.changeSetAccumulation = reader.get("changeset-accumulation", Boolean.class, false);
+        this.lanes = reader.get("lanes", Integer.class, 1);
+        this.pipelineChunkSize = reader.get("pipeline.chunk-size", Integer.class, 0);
+        this.generalEvents = new GeneralEvents(reader);
+        this.values = new Values(reader);
+        this.memoryBudget = new MemoryBudget(reader);
+        this.batching = new Batching(reader);
+        this.certificate = new Certificate(reader);
+        this.routing = new Routing(reader);
+        this.deadLetter = new DeadLetter(reader);
+        this.rateLimit = new RateLimit(reader);
+        this.priorities = new Priorities(reader);
+        this.async = new Async(reader);
+        this.deadlines = new Deadlines(reader);
+        this.bulkhead = new Bulkhead(reader);
+        this.sink = new Sink(reader);
+        this.warmUp = new WarmUp(reader);
+        this.capture = new Capture(reader);
+        this.subscriber = new Subscriber(reader);
+    }
+
+    /**
+     * Returns the properties with all defaults applied.
+     *
+     * @return the default properties
+     */
+    public static AuditLogNGProperties defaults() {
+        return new AuditLogNGProperties(new PropertyReader() {
+            @Override
+            public <T> T get(String key, Class<T> type, T defaultValue) {
+                return defaultValue;
+            }
+        });
+    }
+
+    /**
+     * Reads the properties from the given {@link CdsEnvironment}.
+     *
+     * @param environment the CDS environment
+     * @return the properties
+     */
+    public static AuditLogNGProperties from(CdsEnvironment environment) {
+        return new AuditLogNGProperties(new PropertyReader() {
+            @Override
+            public <T> T get(String key, Class<T> type, T defaultValue) {
+                return environment.getProperty(PREFIX + key, type, defaultValue);
+            }
+        });
+    }
+
+    /**
+     * {@code cds.auditlog.ng.codec}, default {@code jackson}. The name of the {@link AuditLogNGCodec} to use.
+     *
+     * @return the name of the codec
+     */
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * {@code cds.auditlog.ng.changeset-accumulation}, default {@code false}. If enabled, data access, data
+     * modification and configuration change events produced within a ChangeSet are sent as one bulk request when
+     * the ChangeSet is closed.
+     *
+     * @return {@code true}, if ChangeSet accumulation is enabled
+     */
+    public boolean isChangeSetAccumulation() {
+        return changeSetAccumulation;
+    }
+
+    /**
+     * {@code cds.auditlog.ng.lanes}, default 1. The number of parallel lanes to send events on. Events are
+     * partitioned by tenant and data subject, or object if there is no data subject, and keep their order within
+     * a partition. With a single lane, events are sent on the calling thread.
+     *
+     * @return the number of lanes
+     */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * {@code cds.auditlog.ng.pipeline.chunk-size}, default 0 (disabled). The number of events after which the
+     * events of a data access or data modification log are sent while the remaining events are still being built.
+     * Has no effect with ChangeSet accumulation.
+     *
+     * @return the chunk size
+     */
+    public int getPipelineChunkSize() {
+        return pipelineChunkSize;
+    }
+
+    /**
+     * @return the properties of general (custom) events
+     */
+    public GeneralEvents getGeneralEvents() {
+        return generalEvents;
+    }
+
+    /**
+     * @return the properties of changed values
+     */
+    public Values getValues() {
+        return values;
+    }
+
+    /**
+     * @return the properties of the in-flight payload memory budget
+     */
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return the properties of the adaptive batching of bulk requests
+     */
+    public Batching getBatching() {
+        return batching;
+    }
+
+    /**
+     * @return the properties of the client certificate of the binding
+     */
+    public Certificate getCertificate() {
+        return certificate;
+    }
+
+    /**
+     * @return the properties of the routing across multiple bindings
+     */
+    public Routing getRouting() {
+        return routing;
+    }
+
+    /**
+     * @return the properties of the store for rejected events
+     */
+    public DeadLetter getDeadLetter() {
+        return deadLetter;
+    }
+
+    /**
+     * @return the properties of the client-side rate limiting
+     */
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * @return the properties of the priority classes of events
+     */
+    public Priorities getPriorities() {
+        return priorities;
+    }
+
+    /**
+     * @return the properties of the asynchronous submission of events
+     */
+    public Async getAsync() {
+        return async;
+    }
+
+    /**
+     * @return the properties of the deadlines per event type
+     */
+    public Deadlines getDeadlines() {
+        return deadlines;
+    }
+
+    /**
+     * @return the properties of the bulkhead of each binding
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * @return the properties of the sink the events are written to
+     */
+    public Sink getSink() {
+        return sink;
+    }
+
+    /**
+     * @return the properties of the warm-up at startup
+     */
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * @return the properties of the in-memory capture of request payloads and responses
+     */
+    public Capture getCapture() {
+        return capture;
+    }
+
+    /**
+     * @return the properties of the subscribers of streams of audit log items
+     */
+    public Subscriber getSubscriber() {
+        return subscriber;
+    }
+
+    /**
+     * Properties of general events, whose payload is provided by the application as a JSON string.
+     */
+    public static class GeneralEvents {
+
+        private final boolean passthrough;
+        private final int maxSize;
+        private final int maxDepth;
+
+        GeneralEvents(PropertyReader reader) {
+            this.passthrough = reader.get("general-events.passthrough", Boolean.class, false);
+            this.maxSize = reader.get("general-events.max-size", Integer.class, 1024 * 1024);
+            this.maxDepth = reader.get("general-events.max-depth", Integer.class, 64);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.general-events.passthrough}, default {@code false}. If enabled, the event JSON is
+         * only validated by a token scan and embedded verbatim instead of being parsed into a tree.
+         *
+         * @return {@code true}, if passthrough is enabled
+         */
+        public boolean isPassthrough() {
+            return passthrough;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.general-events.max-size}, default 1048576. The maximum length in characters of a
+         * passthrough event JSON.
+         *
+         * @return the maximum size
+         */
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.general-events.max-depth}, default 64. The maximum nesting depth of a passthrough
+         * event JSON.
+         *
+         * @return the maximum depth
+         */
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+    }
+
+    /**
+     * Properties of the {@code oldValue} and {@code newValue} fields of data modification and configuration change
+     * events.
+     */
+    public static class Values {
+
+        private final int maxLength;
+
+        Values(PropertyReader reader) {
+            this.maxLength = reader.get("values.max-length", Integer.class, -1);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.values.max-length}, default -1 (unlimited). The maximum number of characters of each
+         * {@code oldValue} and {@code newValue}. Longer values are truncated and marked with their original length
+         * and SHA-256 digest.
+         *
+         * @return the maximum length
+         */
+        public int getMaxLength() {
+            return maxLength;
+        }
+    }
+
+    /**
+     * Properties of the process-wide budget for audit log payloads held in memory by concurrent sends.
+     */
+    public static class MemoryBudget {
+
+        private final long maxBytes;
+        private final PayloadMemoryBudget.Policy policy;
+        private final Duration maxWait;
+
+        MemoryBudget(PropertyReader reader) {
+            this.maxBytes = reader.get("memory-budget.max-bytes", Long.class, 0L);
+            this.policy = PayloadMemoryBudget.Policy.valueOf(
+                    reader.get("memory-budget.policy", String.class, "block").toUpperCase(Locale.ROOT));
+            this.maxWait = reader.get("memory-budget.max-wait", Duration.class, Duration.ofSeconds(30));
+        }
+
+        /**
+         * {@code cds.auditlog.ng.memory-budget.max-bytes}, default 0. The maximum bytes of encoded payloads in
+         * flight, a value of 0 or less disables the budget.
+         *
+         * @return the maximum bytes
+         */
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.memory-budget.policy}, default {@code block}. Either {@code block} to wait for
+         * budget to become available or {@code fail} to reject the payload immediately.
+         *
+         * @return the policy
+         */
+        PayloadMemoryBudget.Policy getPolicy() {
+            return policy;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.memory-budget.max-wait}, default 30s. The maximum time to wait for budget with the
+         * {@code block} policy.
+         *
+         * @return the maximum wait time
+         */
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+    }
+
+    /**
+     * Properties of the adaptive batching, which splits bulk requests into batches and tunes the batch size and the
+     * number of concurrent requests from the observed latency and errors.
+     */
+    public static class Batching {
+
+        private final boolean adaptive;
+        private final int initialSize;
+        private final int minSize;
+        private final int maxSize;
+        private final int maxConcurrency;
+        private final Duration targetLatency;
+
+        Batching(PropertyReader reader) {
+            this.adaptive = reader.get("batching.adaptive", Boolean.class, false);
+            this.initialSize = reader.get("batching.initial-size", Integer.class, 500);
+            this.minSize = reader.get("batching.min-size", Integer.class, 10);
+            this.maxSize = reader.get("batching.max-size", Integer.class, 5000);
+            this.maxConcurrency = reader.get("batching.max-concurrency", Integer.class, 16);
+            this.targetLatency = reader.get("batching.target-latency", Duration.class, Duration.ofSeconds(2));
+        }
+
+        /**
+         * {@code cds.auditlog.ng.batching.adaptive}, default {@code false}. If enabled, bulk requests are split into
+         * batches of adaptive size and the number of concurrent requests is limited adaptively.
+         *
+         * @return {@code true}, if adaptive batching is enabled
+         */
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.batching.initial-size}, default 500. The number of events per batch at startup.
+         *
+         * @return the initial batch size
+         */
+        public int getInitialSize() {
+            return initialSize;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.batching.min-size}, default 10. The lower bound of the batch size, which is also the
+         * step by which the batch size grows after a fast request.
+         *
+         * @return the minimum batch size
+         */
+        public int getMinSize() {
+            return minSize;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.batching.max-size}, default 5000. The upper bound of the batch size.
+         *
+         * @return the maximum batch size
+         */
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.batching.max-concurrency}, default 16. The upper bound of concurrent requests.
+         *
+         * @return the maximum concurrency
+         */
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.batching.target-latency}, default 2s. Requests slower than this decrease the batch
+         * size and the concurrency limit.
+         *
+         * @return the target latency
+         */
+        public Duration getTargetLatency() {
+            return targetLatency;
+        }
+    }
+
+    /**
+     * Properties of the client certificate, which authenticates the requests to the Audit Log service.
+     */
+    public static class Certificate {
+
+        private final boolean warmUp;
+        private final Duration refreshInterval;
+
+        Certificate(PropertyReader reader) {
+            this.warmUp = reader.get("certificate.warm-up", Boolean.class, true);
+            this.refreshInterval = reader.get("certificate.refresh-interval", Duration.class, Duration.ZERO);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.certificate.warm-up}, default {@code true}. If enabled, the HTTP client is created
+         * in the background at startup, otherwise on the first request.
+         *
+         * @return {@code true}, if the HTTP client is created in the background
+         */
+        public boolean isWarmUp() {
+            return warmUp;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.certificate.refresh-interval}, default 0 (disabled). The interval in which the
+         * binding is read again to pick up a rotated certificate without restart.
+         *
+         * @return the refresh interval
+         */
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+    }
+
+    /**
+     * Properties of the routing of bulk requests, if multiple Audit Log service bindings are available.
+     */
+    public static class Routing {
+
+        private final RoutingEventSender.Policy policy;
+        private final int ejectionFailures;
+        private final Duration ejectionLatency;
+        private final Duration ejectionDuration;
+
+        Routing(PropertyReader reader) {
+            this.policy = RoutingEventSender.Policy.valueOf(reader.get("routing.policy", String.class, "least-outstanding")
+                    .toUpperCase(Locale.ROOT).replace('-', '_'));
+            this.ejectionFailures = reader.get("routing.ejection.failures", Integer.class, 3);
+            this.ejectionLatency = reader.get("routing.ejection.latency", Duration.class, Duration.ofSeconds(10));
+            this.ejectionDuration = reader.get("routing.ejection.duration", Duration.class, Duration.ofSeconds(30));
+        }
+
+        /**
+         * {@code cds.auditlog.ng.routing.policy}, default {@code least-outstanding}. Either
+         * {@code least-outstanding}, {@code latency-weighted} or {@code tenant}.
+         *
+         * @return the routing policy
+         */
+        RoutingEventSender.Policy getPolicy() {
+            return policy;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.routing.ejection.failures}, default 3. The number of consecutive failed bulk
+         * requests after which a binding is ejected from the rotation.
+         *
+         * @return the number of failures
+         */
+        public int getEjectionFailures() {
+            return ejectionFailures;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.routing.ejection.latency}, default 10s. The average latency above which a binding is
+         * ejected from the rotation.
+         *
+         * @return the latency threshold
+         */
+        public Duration getEjectionLatency() {
+            return ejectionLatency;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.routing.ejection.duration}, default 30s. The time a binding stays ejected.
+         *
+         * @return the ejection duration
+         */
+        public Duration getEjectionDuration() {
+            return ejectionDuration;
+        }
+    }
+
+    /**
+     * Properties of the local store for events that were rejected by the Audit Log service.
+     */
+    public static class DeadLetter {
+
+        private final String file;
+
+        DeadLetter(PropertyReader reader) {
+            this.file = reader.get("dead-letter.file", String.class, "");
+        }
+
+        /**
+         * {@code cds.auditlog.ng.dead-letter.file}, default empty (disabled). The file to store rejected events in,
+         * one JSON record per line. If not set, rejected events fail the request instead.
+         *
+         * @return the file, or an empty string
+         */
+        public String getFile() {
+            return file;
+        }
+
+        /**
+         * @return {@code true}, if rejected events are stored
+         */
+        public boolean isEnabled() {
+            return file != null && !file.isBlank();
+        }
+    }
+
+    /**
+     * Properties of the client-side rate limiting of bulk requests, which also paces the requests after the Audit
+     * Log service throttled them.
+     */
+    public static class RateLimit {
+
+        private final double requestsPerSecond;
+        private final double tenantRequestsPerSecond;
+        private final int burst;
+        private final Duration throttleBackoff;
+        private final Duration maxWait;
+
+        RateLimit(PropertyReader reader) {
+            this.requestsPerSecond = reader.get("rate-limit.requests-per-second", Double.class, 0.0);
+            this.tenantRequestsPerSecond = reader.get("rate-limit.tenant-requests-per-second", Double.class, 0.0);
+            this.burst = reader.get("rate-limit.burst", Integer.class, 10);
+            this.throttleBackoff = reader.get("rate-limit.throttle-backoff", Duration.class, Duration.ofSeconds(1));
+            this.maxWait = reader.get("rate-limit.max-wait", Duration.class, Duration.ofSeconds(30));
+        }
+
+        /**
+         * {@code cds.auditlog.ng.rate-limit.requests-per-second}, default 0 (unlimited). The maximum rate of bulk
+         * requests of all tenants.
+         *
+         * @return the rate
+         */
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.rate-limit.tenant-requests-per-second}, default 0 (unlimited). The maximum rate of
+         * bulk requests of each tenant.
+         *
+         * @return the rate
+         */
+        public double getTenantRequestsPerSecond() {
+            return tenantRequestsPerSecond;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.rate-limit.burst}, default 10. The number of requests that may be sent at once
+         * after a period of inactivity.
+         *
+         * @return the burst size
+         */
+        public int getBurst() {
+            return burst;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.rate-limit.throttle-backoff}, default 1s. The time requests are paused after
+         * HTTP 429, if the response has no {@code Retry-After} header.
+         *
+         * @return the backoff
+         */
+        public Duration getThrottleBackoff() {
+            return throttleBackoff;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.rate-limit.max-wait}, default 30s. The maximum time a bulk request waits for
+         * permission, including the pauses after throttling.
+         *
+         * @return the maximum wait time
+         */
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+    }
+
+    /**
+     * Properties of the priority classes, which send the events of different types on separate queues with their own
+     * batch size and share of connections.
+     */
+    public static class Priorities {
+
+        private final boolean enabled;
+        private final PriorityClass high;
+        private final PriorityClass normal;
+        private final PriorityClass bulk;
+
+        Priorities(PropertyReader reader) {
+            this.enabled = reader.get("priority.enabled", Boolean.class, false);
+            this.high = new PriorityClass(reader, "high", "legacySecurityWrapper", 0, 2);
+            this.normal = new PriorityClass(reader, "normal", "", 0, 4);
+            this.bulk = new PriorityClass(reader, "bulk", "dppDataAccess", 1000, 2);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.priority.enabled}, default {@code false}. If enabled, events are sent on the queue
+         * of their priority class, so that latency sensitive events do not wait behind large bulks.
+         *
+         * @return {@code true}, if priority classes are enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.priority.high.*}, by default security events, sent without splitting on 2
+         * connections.
+         *
+         * @return the high priority class
+         */
+        public PriorityClass getHigh() {
+            return high;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.priority.normal.*}, by default all events not assigned to another class, sent without
+         * splitting on 4 connections.
+         *
+         * @return the normal priority class
+         */
+        public PriorityClass getNormal() {
+            return normal;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.priority.bulk.*}, by default data access events, sent in batches of 1000 events on 2
+         * connections.
+         *
+         * @return the bulk priority class
+         */
+        public PriorityClass getBulk() {
+            return bulk;
+        }
+
+        /**
+         * @return the number of connections of all priority classes
+         */
+        public int getConnections() {
+            return high.getConnections() + normal.getConnections() + bulk.getConnections();
+        }
+    }
+
+    /**
+     * Properties of a priority class.
+     */
+    public static class PriorityClass {
+
+        private final List<String> eventTypes;
+        private final int batchSize;
+        private final int connections;
+
+        PriorityClass(PropertyReader reader, String name, String eventTypes, int batchSize, int connections) {
+            String prefix = "priority." + name + ".";
+            this.eventTypes = Arrays.stream(reader.get(prefix + "event-types", String.class, eventTypes).split(","))
+                    .map(String::trim).filter(type -> !type.isEmpty()).toList();
+            this.batchSize = reader.get(prefix + "batch-size", Integer.class, batchSize);
+            this.connections = reader.get(prefix + "connections", Integer.class, connections);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.priority.<class>.event-types}. The comma separated {@code type} values of the events
+         * of this class.
+         *
+         * @return the event types
+         */
+        public List<String> getEventTypes() {
+            return eventTypes;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.priority.<class>.batch-size}. The maximum number of events per request, 0 or less
+         * sends the events of a bulk in one request.
+         *
+         * @return the batch size
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.priority.<class>.connections}. The number of requests of this class that are sent
+         * concurrently.
+         *
+         * @return the number of connections
+         */
+        public int getConnections() {
+            return connections;
+        }
+    }
+
+    /**
+     * Properties of the asynchronous submission of events with {@link AuditLogNGHandler#submit}.
+     */
+    public static class Async {
+
+        private final int threads;
+        private final int queueCapacity;
+
+        Async(PropertyReader reader) {
+            this.threads = reader.get("async.threads", Integer.class, 4);
+            this.queueCapacity = reader.get("async.queue-capacity", Integer.class, 1000);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.async.threads}, default 4. The number of threads sending submitted events.
+         *
+         * @return the number of threads
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.async.queue-capacity}, default 1000. The number of submitted bulks waiting for a
+         * thread. If the queue is full, further bulks are sent on the submitting thread.
+         *
+         * @return the queue capacity
+         */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+    }
+
+    /**
+     * Properties of the time budgets within which audit log events are built and sent, including all retries.
+     */
+    public static class Deadlines {
+
+        private final PropertyReader reader;
+        private final Duration defaultBudget;
+        private final Map<String, Duration> budgets = new ConcurrentHashMap<>();
+
+        Deadlines(PropertyReader reader) {
+            this.reader = reader;
+            this.defaultBudget = reader.get("deadline.default", Duration.class, Duration.ofMinutes(2));
+        }
+
+        /**
+         * {@code cds.auditlog.ng.deadline.default}, default 2m. The budget of event types without their own budget.
+         *
+         * @return the default budget
+         */
+        public Duration getDefault() {
+            return defaultBudget;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.deadline.event-types.<type>}, default {@link #getDefault()}. The budget of the
+         * events with the given {@code type}, e.g. {@code legacySecurityWrapper} or {@code dppDataAccess}.
+         *
+         * @param eventType the event type
+         * @return the budget
+         */
+        public Duration getBudget(String eventType) {
+            if (eventType == null) {
+                return defaultBudget;
+            }
+            return budgets.computeIfAbsent(eventType,
+                    type -> reader.get("deadline.event-types." + type, Duration.class, defaultBudget));
+        }
+    }
+
+    /**
+     * Properties of the bulkhead limiting the threads that concurrently send to the Audit Log service of a binding.
+     */
+    public static class Bulkhead {
+
+        private final int maxConcurrentCalls;
+        private final int tenantMaxConcurrentCalls;
+        private final Duration maxWait;
+
+        Bulkhead(PropertyReader reader) {
+            this.maxConcurrentCalls = reader.get("bulkhead.max-concurrent-calls", Integer.class, 0);
+            this.tenantMaxConcurrentCalls = reader.get("bulkhead.tenant-max-concurrent-calls", Integer.class, 0);
+            this.maxWait = reader.get("bulkhead.max-wait", Duration.class, Duration.ofSeconds(5));
+        }
+
+        /**
+         * {@code cds.auditlog.ng.bulkhead.max-concurrent-calls}, default 0 (no limit). The maximum number of threads
+         * sending to the Audit Log service of a binding at the same time.
+         *
+         * @return the maximum number of concurrent calls
+         */
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.bulkhead.tenant-max-concurrent-calls}, default 0 (no limit per tenant). The maximum
+         * number of threads sending the events of a tenant at the same time.
+         *
+         * @return the maximum number of concurrent calls per tenant
+         */
+        public int getTenantMaxConcurrentCalls() {
+            return tenantMaxConcurrentCalls;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.bulkhead.max-wait}, default 5s. The maximum time a thread waits to be admitted
+         * before the bulk request is rejected.
+         *
+         * @return the maximum wait time
+         */
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+    }
+
+    /**
+     * Properties of the {@link AuditLogNGSink} the events are written to.
+     */
+    public static class Sink {
+
+        /** The name of the sink sending events to the Audit Log service. */
+        public static final String HTTP = "http";
+
+        private final String name;
+        private final String region;
+        private final String namespace;
+        private final int memoryMaxEvents;
+        private final FileSink file;
+
+        Sink(PropertyReader reader) {
+            this.name = reader.get("sink.name", String.class, HTTP);
+            this.region = reader.get("sink.region", String.class, "local");
+            this.namespace = reader.get("sink.namespace", String.class, "local");
+            this.memoryMaxEvents = reader.get("sink.memory.max-events", Integer.class, 10000);
+            this.file = new FileSink(reader);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.name}, default {@code http}. The name of the {@link AuditLogNGSink}, e.g.
+         * {@code memory} or {@code file}.
+         *
+         * @return the name of the sink
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return {@code true}, if events are sent to the Audit Log service
+         */
+        public boolean isHttp() {
+            return HTTP.equals(name);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.region}, default {@code local}. The region in the {@code source} of events
+         * written to another sink than {@code http} without an Audit Log service binding.
+         *
+         * @return the region
+         */
+        public String getRegion() {
+            return region;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.namespace}, default {@code local}. The namespace in the {@code source} of
+         * events written to another sink than {@code http} without an Audit Log service binding.
+         *
+         * @return the namespace
+         */
+        public String getNamespace() {
+            return namespace;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.memory.max-events}, default 10000. The number of events the {@code memory}
+         * sink keeps, dropping the oldest ones.
+         *
+         * @return the maximum number of events
+         */
+        public int getMemoryMaxEvents() {
+            return memoryMaxEvents;
+        }
+
+        /**
+         * @return the properties of the {@code file} sink
+         */
+        public FileSink getFile() {
+            return file;
+        }
+    }
+
+    /**
+     * Properties of the {@code file} sink, which appends the events as NDJSON to a local file.
+     */
+    public static class FileSink {
+
+        private final String path;
+        private final long maxSize;
+        private final int maxFiles;
+        private final boolean fsync;
+        private final Duration syncInterval;
+
+        FileSink(PropertyReader reader) {
+            this.path = reader.get("sink.file.path", String.class, "auditlog-ng.ndjson");
+            this.maxSize = reader.get("sink.file.max-size", Long.class, 104857600L);
+            this.maxFiles = reader.get("sink.file.max-files", Integer.class, 10);
+            this.fsync = reader.get("sink.file.fsync", Boolean.class, true);
+            this.syncInterval = reader.get("sink.file.sync-interval", Duration.class, Duration.ofMillis(10));
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.file.path}, default {@code auditlog-ng.ndjson}. The file the events are
+         * appended to.
+         *
+         * @return the path of the file
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.file.max-size}, default 104857600. The size in bytes after which the file is
+         * rotated. {@code 0} disables the rotation.
+         *
+         * @return the maximum size of the file
+         */
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.file.max-files}, default 10. The number of rotated files that are kept, as
+         * {@code <path>.1} (the most recent) to {@code <path>.<max-files>}.
+         *
+         * @return the number of rotated files
+         */
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.file.fsync}, default {@code true}. Whether a write only completes once the
+         * events are synced to the storage device.
+         *
+         * @return {@code true}, if writes are synced
+         */
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.sink.file.sync-interval}, default 10ms. The time a sync waits for further writes,
+         * which are then synced together.
+         *
+         * @return the sync interval
+         */
+        public Duration getSyncInterval() {
+            return syncInterval;
+        }
+    }
+
+    /**
+     * Properties of the warm-up at startup, which prepares the first request in the background.
+     */
+    public static class WarmUp {
+
+        private final boolean enabled;
+        private final int connections;
+        private final Duration timeout;
+
+        WarmUp(PropertyReader reader) {
+            this.enabled = reader.get("warm-up.enabled", Boolean.class, false);
+            this.connections = reader.get("warm-up.connections", Integer.class, 2);
+            this.timeout = reader.get("warm-up.timeout", Duration.class, Duration.ofSeconds(10));
+        }
+
+        /**
+         * {@code cds.auditlog.ng.warm-up.enabled}, default {@code false}. If enabled, events are built and encoded
+         * once on synthetic data and connections to the Audit Log service are opened in the background at startup.
+         *
+         * @return {@code true}, if the warm-up is enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.warm-up.connections}, default 2. The number of connections opened to the Audit Log
+         * service of each binding.
+         *
+         * @return the number of connections
+         */
+        public int getConnections() {
+            return connections;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.warm-up.timeout}, default 10s. The maximum time the warm-up takes.
+         *
+         * @return the timeout
+         */
+        public Duration getTimeout() {
+            return timeout;
+        }
+    }
+
+    /**
+     * Properties of the in-memory capture of the last request payloads and responses, see {@link PayloadCapture}.
+     */
+    public static class Capture {
+
+        private final int size;
+        private final double sampleRate;
+        private final int maxBytes;
+
+        Capture(PropertyReader reader) {
+            this.size = reader.get("capture.size", Integer.class, 0);
+            this.sampleRate = reader.get("capture.sample-rate", Double.class, 1.0);
+            this.maxBytes = reader.get("capture.max-bytes", Integer.class, 4096);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.capture.size}, default 0 (disabled). The number of request payloads and responses
+         * kept per binding.
+         *
+         * @return the number of entries
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.capture.sample-rate}, default 1.0. The fraction of requests that are captured
+         * together with their response.
+         *
+         * @return the sample rate
+         */
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.capture.max-bytes}, default 4096. The maximum number of bytes kept of each payload,
+         * longer payloads are truncated.
+         *
+         * @return the maximum number of bytes
+         */
+        public int getMaxBytes() {
+            return maxBytes;
+        }
+    }
+
+    /**
+     * Properties of the subscribers of streams of audit log items, see {@link AuditLogNGSubscriber}.
+     */
+    public static class Subscriber {
+
+        private final int batchSize;
+        private final int maxInFlight;
+
+        Subscriber(PropertyReader reader) {
+            this.batchSize = reader.get("subscriber.batch-size", Integer.class, 100);
+            this.maxInFlight = reader.get("subscriber.max-in-flight", Integer.class, 2);
+        }
+
+        /**
+         * {@code cds.auditlog.ng.subscriber.batch-size}, default 100. The number of items whose events are sent as
+         * one bulk.
+         *
+         * @return the batch size
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * {@code cds.auditlog.ng.subscriber.max-in-flight}, default 2. The number of batches requested from the
+         * publisher before one of them has been sent. With 1, the batches are delivered in order.
+         *
+         * @return the maximum number of batches in flight
+         */
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+    }
+
+    interface PropertyReader {
+        <T> T get(String key, Class<T> type, T defaultValue);
+    }
+}
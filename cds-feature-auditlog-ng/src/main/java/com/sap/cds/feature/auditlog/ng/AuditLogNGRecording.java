@@ -0,0 +1,178 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of building and sending audit log events, so that the time spent on audit logging
+ * can be correlated with GC pauses and thread stalls in a recording.
+ *
+ * An event is created and begun before a stage and finished after it. If the event is not enabled in the running
+ * recording, or no recording is running, finishing it does nothing, so the events cost close to nothing outside of
+ * a recording. The events are named {@code com.sap.cds.auditlog.ng.*}.
+ */
+final class AuditLogNGRecording {
+
+    private static final String PREFIX = "com.sap.cds.auditlog.ng.";
+    private static final String CATEGORY = "SAP CAP";
+    private static final String SUBCATEGORY = "Audit Log NG";
+
+    private AuditLogNGRecording() {
+    }
+
+    @Name(PREFIX + "Build")
+    @Label("Audit Log Build")
+    @Description("Building of the audit log events of an event context")
+    @Category({ CATEGORY, SUBCATEGORY })
+    @StackTrace(false)
+    static final class BuildEvent extends Event {
+
+        @Label("Event Type")
+        String eventType;
+
+        @Label("Event Count")
+        int eventCount;
+
+        BuildEvent() {
+            begin();
+        }
+
+        void finish(String eventType, int eventCount) {
+            end();
+            if (shouldCommit()) {
+                this.eventType = eventType;
+                this.eventCount = eventCount;
+                commit();
+            }
+        }
+    }
+
+    @Name(PREFIX + "Serialize")
+    @Label("Audit Log Serialize")
+    @Description("Serialization of a bulk request to the Audit Log service")
+    @Category({ CATEGORY, SUBCATEGORY })
+    @StackTrace(false)
+    static final class SerializeEvent extends Event {
+
+        @Label("Event Count")
+        int eventCount;
+
+        @Label("Payload Size")
+        @DataAmount
+        long bytes;
+
+        SerializeEvent() {
+            begin();
+        }
+
+        void finish(int eventCount, long bytes) {
+            end();
+            if (shouldCommit()) {
+                this.eventCount = eventCount;
+                this.bytes = bytes;
+                commit();
+            }
+        }
+    }
+
+    @Name(PREFIX + "HttpAttempt")
+    @Label("Audit Log HTTP Attempt")
+    @Description("An attempt to send a bulk request to the Audit Log service, 0 as status if no response was received")
+    @Category({ CATEGORY, SUBCATEGORY })
+    @StackTrace(false)
+    static final class HttpAttemptEvent extends Event {
+
+        @Label("Binding")
+        String binding;
+
+        @Label("Attempt")
+        @Description("1 for the first attempt, higher for retries")
+        int attempt;
+
+        @Label("Status Code")
+        int statusCode;
+
+        HttpAttemptEvent() {
+            begin();
+        }
+
+        void finish(String binding, int attempt) {
+            end();
+            if (shouldCommit()) {
+                this.binding = binding;
+                this.attempt = attempt;
+                commit();
+            }
+        }
+    }
+
+    @Name(PREFIX + "QueueWait")
+    @Label("Audit Log Queue Wait")
+    @Description("Time audit log events waited before being sent")
+    @Category({ CATEGORY, SUBCATEGORY })
+    @StackTrace(false)
+    static final class QueueWaitEvent extends Event {
+
+        /** Waiting for the bulkhead and the payload memory budget. */
+        static final String ADMISSION = "admission";
+        /** Waiting for the rate limiter. */
+        static final String RATE_LIMIT = "rate-limit";
+        /** Waiting for a thread of the asynchronous sender. */
+        static final String ASYNC = "async";
+
+        @Label("Queue")
+        String queue;
+
+        QueueWaitEvent() {
+            begin();
+        }
+
+        void finish(String queue) {
+            end();
+            if (shouldCommit()) {
+                this.queue = queue;
+                commit();
+            }
+        }
+    }
+
+    @Name(PREFIX + "SpoolWrite")
+    @Label("Audit Log Spool Write")
+    @Description("Write of audit log events to a local file")
+    @Category({ CATEGORY, SUBCATEGORY })
+    @StackTrace(false)
+    static final class SpoolWriteEvent extends Event {
+
+        @Label("File")
+        String file;
+
+        @Label("Event Count")
+        int eventCount;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+        SpoolWriteEvent() {
+            begin();
+        }
+
+        void finish(String file, int eventCount, long bytes) {
+            end();
+            if (shouldCommit()) {
+                this.file = file;
+                this.eventCount = eventCount;
+                this.bytes = bytes;
+                commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.cds.services.environment.CdsEnvironment;
+
+/**
+ * Service provider interface for the transport the audit log events are written to.
+ *
+ * By default, events are sent to the Audit Log service of the {@code auditlog-ng} bindings. Other implementations
+ * are discovered with {@link java.util.ServiceLoader} and selected by their name with the
+ * {@code cds.auditlog.ng.sink.name} property, e.g. the {@code memory} sink of {@link InMemoryAuditLogNGSink} or the
+ * {@code file} sink of {@link FileAuditLogNGSink}. With another sink than {@code http}, the handler is registered
+ * without a binding as well. Implementations must be thread-safe and have a public no-argument constructor.
+ */
+public interface AuditLogNGSink {
+
+    /**
+     * Returns the name of this sink, which is used to select it with {@code cds.auditlog.ng.sink.name}.
+     *
+     * @return the name of the sink
+     */
+    String getName();
+
+    /**
+     * Prepares the sink before the first events are written. Properties of the sink are read from the environment.
+     *
+     * @param environment the CDS environment
+     * @param codec the configured codec to encode the events with
+     * @throws IOException if the sink cannot be prepared
+     */
+    void open(CdsEnvironment environment, AuditLogNGCodec codec) throws IOException;
+
+    /**
+     * Writes a bulk of audit log events. The events must have been written when this method returns.
+     *
+     * @param events the array of events
+     * @throws IOException if the events cannot be written
+     */
+    void send(ArrayNode events) throws IOException;
+
+}
@@ -0,0 +1,44 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.List;
+import java.util.ServiceLoader;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Discovers the {@link AuditLogNGSink} implementations with {@link ServiceLoader}.
+ */
+final class AuditLogNGSinks {
+
+    private AuditLogNGSinks() {
+    }
+
+    /**
+     * Returns all available sinks, except for the {@code http} sink, which is created from the bindings.
+     *
+     * @return the sinks
+     */
+    static List<AuditLogNGSink> all() {
+        return ServiceLoader.load(AuditLogNGSink.class, AuditLogNGSink.class.getClassLoader()).stream()
+                .map(ServiceLoader.Provider::get).toList();
+    }
+
+    /**
+     * Returns a new instance of the sink with the given name.
+     *
+     * @param name the name of the sink
+     * @return the sink
+     * @throws ErrorStatusException if no sink with the given name is available
+     */
+    static AuditLogNGSink load(String name) {
+        return all().stream()
+                .filter(sink -> name.equals(sink.getName()))
+                .findFirst()
+                .orElseThrow(() -> new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_CONFIG,
+                        AuditLogNGProperties.PREFIX + "sink.name"));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.cds.CdsData;
+import com.sap.cds.services.auditlog.DataAccessLog;
+import com.sap.cds.services.auditlog.DataModificationLog;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * A {@link Flow.Subscriber} that sends the audit log events of a stream of {@link DataAccessLog} and
+ * {@link DataModificationLog} items, e.g. from a message consumer or a streaming query. It is created with
+ * {@link AuditLogNGHandler#subscriber}.
+ *
+ * The items are collected into batches, whose events are sent in the background as one bulk. The subscriber
+ * requests the items of at most the configured number of batches in flight, and requests the items of a further
+ * batch only once a batch has been sent. A producer that is faster than the Audit Log service is therefore slowed
+ * down instead of the items being buffered without limit. The last partial batch is sent when the stream completes,
+ * or fails. If a batch cannot be built or sent, the subscription is cancelled.
+ *
+ * With more than one batch in flight, batches may be delivered out of order.
+ */
+public class AuditLogNGSubscriber implements Flow.Subscriber<CdsData> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogNGSubscriber.class);
+
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Function<CdsData, ArrayNode> builder;
+    private final Function<ArrayNode, CompletableFuture<Void>> sender;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Flow.Subscription subscription;
+    private ArrayNode batch = JsonNodeFactory.instance.arrayNode();
+    private int items;
+    private volatile boolean done;
+    private volatile Throwable upstreamFailure;
+
+    /**
+     * @param properties the properties
+     * @param builder builds the audit log events of an item
+     * @param sender sends a batch of events and completes the future once they are sent
+     */
+    AuditLogNGSubscriber(AuditLogNGProperties.Subscriber properties, Function<CdsData, ArrayNode> builder,
+            Function<ArrayNode, CompletableFuture<Void>> sender) {
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.maxInFlight = Math.max(1, properties.getMaxInFlight());
+        this.builder = builder;
+        this.sender = sender;
+    }
+
+    /**
+     * Returns the future of the stream, which completes once the stream completed and all batches have been sent.
+     * It fails with an {@link ErrorStatusException} if a batch could not be built or sent, or with the failure of
+     * the stream.
+     *
+     * @return the future of the stream
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            // a subscriber must not be subscribed twice
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request((long) batchSize * maxInFlight);
+    }
+
+    @Override
+    public void onNext(CdsData item) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            batch.addAll(builder.apply(item));
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+        if (++items >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        // the items received before are audit relevant nevertheless
+        upstreamFailure = throwable;
+        finish();
+    }
+
+    @Override
+    public void onComplete() {
+        finish();
+    }
+
+    private void finish() {
+        if (items > 0 && !completion.isDone()) {
+            flush();
+        }
+        done = true;
+        tryComplete();
+    }
+
+    /**
+     * Sends the current batch and requests the items of a further batch once it has been sent.
+     */
+    private void flush() {
+        ArrayNode events = batch;
+        int count = items;
+        batch = JsonNodeFactory.instance.arrayNode();
+        items = 0;
+        inFlight.incrementAndGet();
+        CompletableFuture<Void> delivery = events.isEmpty() ? CompletableFuture.completedFuture(null) : sender.apply(events);
+        delivery.whenComplete((result, e) -> {
+            if (e != null) {
+                fail(e);
+            } else if (!done) {
+                subscription.request(count);
+            }
+            inFlight.decrementAndGet();
+            tryComplete();
+        });
+    }
+
+    private void fail(Throwable e) {
+        // failures of sent batches are already translated by the sender
+        ErrorStatusException failure = e instanceof ErrorStatusException ese ? ese : AuditLogNGHandler.translate(e);
+        if (completion.completeExceptionally(failure)) {
+            logger.warn("Failed to send audit log events of stream, cancelling the subscription");
+            subscription.cancel();
+        }
+    }
+
+    private void tryComplete() {
+        if (done && inFlight.get() == 0) {
+            Throwable failure = upstreamFailure;
+            if (failure != null) {
+                completion.completeExceptionally(failure);
+            } else {
+                completion.complete(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import com.sap.cds.services.utils.OpenTelemetryUtils;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+
+/**
+ * OpenTelemetry spans of building and sending audit log events.
+ *
+ * The spans are created with the global {@link io.opentelemetry.api.OpenTelemetry} instance and are therefore
+ * no-op if no OpenTelemetry SDK is configured.
+ */
+final class AuditLogNGTracing {
+
+    static final String SPAN_HANDLE = "auditlog.ng.handle";
+    static final String SPAN_BUILD = "auditlog.ng.build";
+    static final String SPAN_SEND = "auditlog.ng.send";
+    static final String SPAN_SERIALIZE = "auditlog.ng.serialize";
+    static final String SPAN_HTTP_ATTEMPT = "auditlog.ng.http.attempt";
+    static final String SPAN_HTTP_RETRY = "auditlog.ng.http.retry";
+
+    static final AttributeKey<String> EVENT_TYPE = AttributeKey.stringKey("auditlog.ng.event.type");
+    static final AttributeKey<Long> EVENT_COUNT = AttributeKey.longKey("auditlog.ng.event.count");
+    static final AttributeKey<Long> PAYLOAD_BYTES = AttributeKey.longKey("auditlog.ng.payload.bytes");
+    static final AttributeKey<Long> ATTEMPT = AttributeKey.longKey("auditlog.ng.attempt");
+    static final AttributeKey<Long> HTTP_STATUS_CODE = OpenTelemetryUtils.HTTP_STATUS_CODE;
+
+    private static final String INSTRUMENTATION_SCOPE = AuditLogNGTracing.class.getPackageName();
+
+    private AuditLogNGTracing() {
+    }
+
+    /**
+     * Starts an internal span as child of the current span.
+     *
+     * @param name the span name
+     * @return the started span
+     */
+    static Span start(String name) {
+        return start(name, Context.current(), SpanKind.INTERNAL);
+    }
+
+    /**
+     * Starts a span with an explicit parent, e.g. for work that is executed on another thread.
+     *
+     * @param name the span name
+     * @param parent the parent context
+     * @param kind the span kind
+     * @return the started span
+     */
+    static Span start(String name, Context parent, SpanKind kind) {
+        return GlobalOpenTelemetry.getTracer(INSTRUMENTATION_SCOPE).spanBuilder(name).setParent(parent)
+                .setSpanKind(kind).startSpan();
+    }
+
+    /**
+     * Marks the span as failed with the given exception.
+     *
+     * @param span the span
+     * @param e the exception
+     */
+    static void fail(Span span, Throwable e) {
+        span.recordException(e);
+        span.setStatus(StatusCode.ERROR);
+    }
+}
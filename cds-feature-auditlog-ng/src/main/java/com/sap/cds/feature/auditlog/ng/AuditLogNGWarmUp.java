@@ -0,0 +1,83 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prepares the first audit log request in the background at startup.
+ *
+ * The handler builds and encodes one synthetic event of each type, which loads the classes of the builders and
+ * initializes the serializers. Then the HTTP client of each binding is created, which loads the security providers,
+ * and connections to the Audit Log service are opened, which resolves its address and completes the TLS handshake
+ * with the client certificate. The warm-up ends after the configured time at the latest, and failures are only
+ * logged, as the first request then simply pays the remaining cost.
+ */
+class AuditLogNGWarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogNGWarmUp.class);
+
+    private final AuditLogNGHandler handler;
+    private final List<AuditLogNGCommunicator> communicators;
+    private final int connections;
+    private final Duration timeout;
+
+    AuditLogNGWarmUp(AuditLogNGHandler handler, List<AuditLogNGCommunicator> communicators,
+            AuditLogNGProperties.WarmUp properties) {
+        this.handler = handler;
+        this.communicators = communicators;
+        this.connections = properties.getConnections();
+        this.timeout = properties.getTimeout();
+    }
+
+    /**
+     * Starts the warm-up on a background thread.
+     *
+     * @return the future completed when the warm-up has ended
+     */
+    CompletableFuture<Void> start() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                run();
+            } finally {
+                done.complete(null);
+            }
+        }, "auditlog-ng-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+        return done;
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        try {
+            handler.warmUp();
+        } catch (Exception e) {
+            logger.warn("Failed to warm up building audit log events", e);
+        }
+        int opened = 0;
+        for (AuditLogNGCommunicator communicator : communicators) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                logger.warn("Warm-up of Audit Log service connections stopped after {}", timeout);
+                break;
+            }
+            try {
+                opened += communicator.warmUpConnections(connections, Duration.ofNanos(remainingNanos));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to warm up connections to Audit Log service in region {} and namespace {}",
+                        communicator.getRegion(), communicator.getNamespace(), e);
+            }
+        }
+        logger.info("Warmed up audit logging with {} connection(s) in {} ms", opened,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+}
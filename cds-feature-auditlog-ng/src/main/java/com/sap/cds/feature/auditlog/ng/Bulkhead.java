@@ -0,0 +1,198 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+import com.sap.cds.services.utils.OpenTelemetryUtils;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * Limits the threads that concurrently send audit log events to the Audit Log service of a binding, and optionally
+ * those of each tenant.
+ *
+ * If the Audit Log service slows down, further callers wait for a permit at most the configured time and are then
+ * rejected, so that a degraded Audit Log service cannot block all threads of the application. The permits of a
+ * tenant are dropped once no caller of the tenant holds or waits for one, so that they do not accumulate for every
+ * tenant ever seen. The permits in use, the waiting callers and the rejections are reported as OpenTelemetry
+ * metrics.
+ */
+class Bulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(Bulkhead.class);
+    private static final AttributeKey<String> BINDING = AttributeKey.stringKey("auditlog.ng.binding");
+
+    private final int maxConcurrentCalls;
+    private final int tenantMaxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final Map<String, TenantPermits> tenantPermits = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    Bulkhead(AuditLogNGProperties.Bulkhead properties, String binding) {
+        this.maxConcurrentCalls = properties.getMaxConcurrentCalls();
+        this.tenantMaxConcurrentCalls = properties.getTenantMaxConcurrentCalls();
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.permits = new Semaphore(Math.max(maxConcurrentCalls, 1), true);
+        if (isEnabled()) {
+            registerMetrics(binding);
+        }
+    }
+
+    /**
+     * Acquires a permit of the binding and of the tenant.
+     *
+     * @param tenant the tenant of the events
+     * @param deadlineNanos the point in time in {@link System#nanoTime()} after which the caller gives up waiting,
+     *        if it is earlier than the maximum wait time
+     * @return the permit, which must be closed after the events have been sent
+     * @throws ErrorStatusException if no permit is available in time
+     */
+    Permit acquire(String tenant, long deadlineNanos) {
+        if (!isEnabled()) {
+            return () -> {
+            };
+        }
+        long start = System.nanoTime();
+        long waitUntil = deadlineNanos - (start + maxWaitNanos) < 0 ? deadlineNanos : start + maxWaitNanos;
+        Semaphore tenantSemaphore = tenantMaxConcurrentCalls > 0 ? enter(tenant) : null;
+        waiting.incrementAndGet();
+        try {
+            // the tenant permit is acquired first, so that a tenant at its limit does not hold permits of others
+            if (tenantSemaphore != null && !tryAcquire(tenantSemaphore, waitUntil)) {
+                throw reject("tenant " + tenant, tenantMaxConcurrentCalls);
+            }
+            if (maxConcurrentCalls > 0 && !tryAcquire(permits, waitUntil)) {
+                if (tenantSemaphore != null) {
+                    tenantSemaphore.release();
+                }
+                throw reject("binding", maxConcurrentCalls);
+            }
+        } catch (RuntimeException e) {
+            if (tenantSemaphore != null) {
+                leave(tenant);
+            }
+            throw e;
+        } finally {
+            waiting.decrementAndGet();
+        }
+        return () -> {
+            if (maxConcurrentCalls > 0) {
+                permits.release();
+            }
+            if (tenantSemaphore != null) {
+                tenantSemaphore.release();
+                leave(tenant);
+            }
+        };
+    }
+
+    /**
+     * Returns the permits of the tenant and registers the caller as their user.
+     */
+    private Semaphore enter(String tenant) {
+        return tenantPermits.compute(tenant, (t, permits) -> {
+            TenantPermits entered = permits != null ? permits : new TenantPermits(new Semaphore(tenantMaxConcurrentCalls, true));
+            entered.users++;
+            return entered;
+        }).semaphore();
+    }
+
+    /**
+     * Unregisters a caller of the tenant, dropping the permits of the tenant if it was the last one.
+     */
+    private void leave(String tenant) {
+        tenantPermits.computeIfPresent(tenant, (t, permits) -> --permits.users == 0 ? null : permits);
+    }
+
+    private static boolean tryAcquire(Semaphore semaphore, long waitUntil) {
+        try {
+            return semaphore.tryAcquire(Math.max(0, waitUntil - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
+        }
+    }
+
+    private ErrorStatusException reject(String scope, int limit) {
+        rejected.incrementAndGet();
+        logger.warn("Audit Log service bulkhead of the {} exhausted with {} concurrent calls, rejecting bulk request", scope, limit);
+        return new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE);
+    }
+
+    boolean isEnabled() {
+        return maxConcurrentCalls > 0 || tenantMaxConcurrentCalls > 0;
+    }
+
+    int getInUse() {
+        return maxConcurrentCalls > 0 ? maxConcurrentCalls - permits.availablePermits() : 0;
+    }
+
+    int getTenantCount() {
+        return tenantPermits.size();
+    }
+
+    int getWaiting() {
+        return waiting.get();
+    }
+
+    long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private void registerMetrics(String binding) {
+        Attributes attributes = Attributes.of(BINDING, binding);
+        Meter meter = OpenTelemetryUtils.getMeter(AuditLogNGCommunicator.class.getPackageName());
+        meter.gaugeBuilder("auditlog.ng.bulkhead.in_use").ofLongs()
+                .setDescription("Threads currently sending audit log events to the Audit Log service")
+                .buildWithCallback(m -> m.record(getInUse(), attributes));
+        meter.gaugeBuilder("auditlog.ng.bulkhead.waiting").ofLongs()
+                .setDescription("Threads currently waiting to send audit log events to the Audit Log service")
+                .buildWithCallback(m -> m.record(getWaiting(), attributes));
+        meter.counterBuilder("auditlog.ng.bulkhead.rejected")
+                .setDescription("Bulk requests rejected because the bulkhead was exhausted")
+                .buildWithCallback(m -> m.record(getRejectedCount(), attributes));
+    }
+
+    /**
+     * The permits of a tenant and the number of callers holding or waiting for one. The count is only changed while
+     * the map holds the lock of the tenant.
+     */
+    private static final class TenantPermits {
+
+        private final Semaphore semaphore;
+        private int users;
+
+        TenantPermits(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        Semaphore semaphore() {
+            return semaphore;
+        }
+    }
+
+    /**
+     * A permit of the bulkhead.
+     */
+    interface Permit extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -3,27 +3,35 @@ package com.sap.cds.feature.auditlog.ng;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.KeyStore;
 import java.security.PrivateKey;
+import java.security.Provider;
 import java.security.SecureRandom;
-import java.security.Security;
-import java.security.cert.Certificate;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import javax.crypto.Cipher;
+import javax.crypto.EncryptedPrivateKeyInfo;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
-import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMParser;
 import org.bouncycastle.openssl.jcajce.JceOpenSSLPKCS8DecryptorProviderBuilder;
@@ -46,23 +54,26 @@ import org.slf4j.LoggerFactory;
  * 
  * This class supports both encrypted and unencrypted PKCS#8 private keys. If the key is encrypted,
  * a passphrase must be provided. If the key is unencrypted, passphrase can be null or empty.
+ *
+ * Certificates, unencrypted keys and keys encrypted with an algorithm of the JDK, e.g. PBES2 as created by
+ * {@code openssl pkcs8}, are read with the JDK only. BouncyCastle is only loaded for keys the JDK cannot decrypt.
  */
 public class CertificateHttpClientConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(CertificateHttpClientConfig.class);
 
-    static {
-        // Register BouncyCastle provider if not already present
-        if (Security.getProvider("BC") == null) {
-            Security.addProvider(new BouncyCastleProvider());
-        }
-    }
+    private static final Pattern PEM_BLOCK = Pattern.compile("-----BEGIN ([A-Z0-9 ]+)-----(.*?)-----END \\1-----", Pattern.DOTALL);
+    private static final String CERTIFICATE = "CERTIFICATE";
+    private static final String PRIVATE_KEY = "PRIVATE KEY";
+    private static final String ENCRYPTED_PRIVATE_KEY = "ENCRYPTED PRIVATE KEY";
+    private static final String PBES2 = "PBES2";
 
     private final String certPem;
     private final String keyPem;
     private final String keyPassphrase;
     private final int maxRetries;
     private final int timeoutMillis;
+    private final int maxConnections;
     private final CloseableHttpClient httpClient;
 
     CertificateHttpClientConfig(Builder builder) {
@@ -71,6 +82,7 @@ public class CertificateHttpClientConfig {
         this.keyPassphrase = builder.keyPassphrase;
         this.maxRetries = builder.maxRetries;
         this.timeoutMillis = builder.timeoutMillis;
+        this.maxConnections = builder.maxConnections;
         this.httpClient = createHttpClient();
     }
 
@@ -105,6 +117,7 @@ public class CertificateHttpClientConfig {
         private String keyPassphrase;
         private int maxRetries = 3;
         private int timeoutMillis = 30000;
+        private int maxConnections;
 
         /**
          * Sets the PEM-encoded certificate chain.
@@ -151,6 +164,15 @@ public class CertificateHttpClientConfig {
             this.timeoutMillis = timeoutMillis;
             return this;
         }
+        /**
+         * Sets the maximum number of pooled connections to the Audit Log service.
+         * @param maxConnections number of connections, 0 or less for the defaults of the HTTP client
+         * @return this builder
+         */
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
         /**
          * Builds the {@link CertificateHttpClientConfig} instance.
          * @return a configured CertificateHttpClientConfig
@@ -184,10 +206,19 @@ public class CertificateHttpClientConfig {
             SSLContext sslContext = SSLContext.getInstance("TLS");
             sslContext.init(kmf.getKeyManagers(), null, new SecureRandom());
 
-            return HttpClients.custom()
+            HttpClientBuilder builder = HttpClients.custom()
                     .setSSLContext(sslContext)
                     .setRetryHandler(new DefaultHttpRequestRetryHandler(maxRetries, true))
-                    .build();
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectTimeout(timeoutMillis)
+                            .setSocketTimeout(timeoutMillis)
+                            .setConnectionRequestTimeout(timeoutMillis)
+                            .build());
+            if (maxConnections > 0) {
+                // all requests go to the same route
+                builder.setMaxConnTotal(maxConnections).setMaxConnPerRoute(maxConnections);
+            }
+            return builder.build();
         } catch (Exception e) {
             logger.error("Failed to create HttpClient with certificate/key", e);
             throw new RuntimeException("Failed to create HttpClient with certificate/key: " + e.getMessage(), e);
@@ -205,20 +236,15 @@ public class CertificateHttpClientConfig {
      * @return array of X509Certificate
      * @throws Exception if parsing fails
      */
-    private static X509Certificate[] parseCertificateChain(String certPem) throws Exception {
-        try (PEMParser pemParser = new PEMParser(new StringReader(certPem))) {
-            List<X509Certificate> certList = new ArrayList<>();
-            CertificateFactory cf = CertificateFactory.getInstance("X.509");
-            Object object;
-            while ((object = pemParser.readObject()) != null) {
-                if (object instanceof X509CertificateHolder holder) {
-                    Certificate cert = cf.generateCertificate(
-                            new ByteArrayInputStream(holder.getEncoded()));
-                    certList.add((X509Certificate) cert);
-                }
+    static X509Certificate[] parseCertificateChain(String certPem) throws Exception {
+        List<X509Certificate> certList = new ArrayList<>();
+        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+        for (PemBlock block : readPemBlocks(certPem)) {
+            if (CERTIFICATE.equals(block.label()) && block.der() != null) {
+                certList.add((X509Certificate) cf.generateCertificate(new ByteArrayInputStream(block.der())));
             }
-            return certList.toArray(new X509Certificate[0]);
         }
+        return certList.toArray(new X509Certificate[0]);
     }
 
     /**
@@ -228,25 +254,92 @@ public class CertificateHttpClientConfig {
      * @return the PrivateKey
      * @throws Exception if parsing or decryption fails
      */
-    private static PrivateKey parsePrivateKey(String keyPem, char[] passphrase) throws Exception {
+    static PrivateKey parsePrivateKey(String keyPem, char[] passphrase) throws Exception {
         char[] effectivePassphrase = (passphrase != null) ? passphrase : new char[0];
-        try (PEMParser pemParser = new PEMParser(new StringReader(keyPem))) {
-            Object object = pemParser.readObject();
-            if (object instanceof PrivateKeyInfo keyInfo) {
-                PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(keyInfo.getEncoded());
-                return KeyFactory.getInstance("RSA").generatePrivate(keySpec);
-            } else if (object instanceof PKCS8EncryptedPrivateKeyInfo encInfo) {
-                try {
-                    InputDecryptorProvider decryptorProvider = new JceOpenSSLPKCS8DecryptorProviderBuilder().build(effectivePassphrase);
-                    PrivateKeyInfo keyInfo = encInfo.decryptPrivateKeyInfo(decryptorProvider);
+        List<PemBlock> blocks = readPemBlocks(keyPem);
+        PemBlock block = blocks.isEmpty() ? null : blocks.get(0);
+        if (block != null && block.der() != null) {
+            if (PRIVATE_KEY.equals(block.label())) {
+                return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(block.der()));
+            } else if (ENCRYPTED_PRIVATE_KEY.equals(block.label())) {
+                PrivateKey privateKey = decryptPrivateKey(block.der(), effectivePassphrase);
+                if (privateKey != null) {
+                    return privateKey;
+                }
+            }
+        }
+        return BouncyCastlePem.parsePrivateKey(keyPem, effectivePassphrase);
+    }
+
+    /**
+     * Decrypts an encrypted PKCS#8 private key with the algorithms of the JDK.
+     *
+     * @return the private key, or {@code null} if the JDK does not support its encryption or the passphrase is wrong
+     */
+    static PrivateKey decryptPrivateKey(byte[] der, char[] passphrase) {
+        PBEKeySpec pbeKeySpec = new PBEKeySpec(passphrase);
+        try {
+            EncryptedPrivateKeyInfo encInfo = new EncryptedPrivateKeyInfo(der);
+            // the JDK names the cipher of PBES2 only in its parameters, e.g. PBEWithHmacSHA256AndAES_256
+            String algorithm = PBES2.equals(encInfo.getAlgName()) ? encInfo.getAlgParameters().toString() : encInfo.getAlgName();
+            SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(algorithm);
+            Cipher cipher = Cipher.getInstance(algorithm);
+            cipher.init(Cipher.DECRYPT_MODE, keyFactory.generateSecret(pbeKeySpec), encInfo.getAlgParameters());
+            return KeyFactory.getInstance("RSA").generatePrivate(encInfo.getKeySpec(cipher));
+        } catch (IOException | GeneralSecurityException e) {
+            logger.debug("Failed to decrypt private key with the JDK, falling back to BouncyCastle", e);
+            return null;
+        } finally {
+            pbeKeySpec.clearPassword();
+        }
+    }
+
+    /**
+     * Reads the blocks of a PEM string. The content of blocks with headers, e.g. legacy OpenSSL encryption, is not
+     * decoded, as it is no plain Base64 DER.
+     */
+    private static List<PemBlock> readPemBlocks(String pem) {
+        List<PemBlock> blocks = new ArrayList<>();
+        Matcher matcher = PEM_BLOCK.matcher(pem);
+        while (matcher.find()) {
+            String content = matcher.group(2);
+            byte[] der = content.indexOf(':') < 0 ? Base64.getMimeDecoder().decode(content) : null;
+            blocks.add(new PemBlock(matcher.group(1), der));
+        }
+        return blocks;
+    }
+
+    private record PemBlock(String label, byte[] der) {
+    }
+
+    /**
+     * Reads private keys with BouncyCastle. It is a separate class, so that BouncyCastle is only loaded for keys the
+     * JDK cannot read. The provider is used directly instead of being registered globally.
+     */
+    private static final class BouncyCastlePem {
+
+        private static final Provider PROVIDER = new BouncyCastleProvider();
+
+        private static PrivateKey parsePrivateKey(String keyPem, char[] passphrase) throws Exception {
+            try (PEMParser pemParser = new PEMParser(new StringReader(keyPem))) {
+                Object object = pemParser.readObject();
+                if (object instanceof PrivateKeyInfo keyInfo) {
                     PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(keyInfo.getEncoded());
                     return KeyFactory.getInstance("RSA").generatePrivate(keySpec);
-                } catch (IOException e) {
-                    throw new RuntimeException("Failed to decrypt private key. Check that the passphrase is correct and the key is compatible. Original error: " + e.getMessage(), e);
+                } else if (object instanceof PKCS8EncryptedPrivateKeyInfo encInfo) {
+                    try {
+                        InputDecryptorProvider decryptorProvider = new JceOpenSSLPKCS8DecryptorProviderBuilder()
+                                .setProvider(PROVIDER).build(passphrase);
+                        PrivateKeyInfo keyInfo = encInfo.decryptPrivateKeyInfo(decryptorProvider);
+                        PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(keyInfo.getEncoded());
+                        return KeyFactory.getInstance("RSA").generatePrivate(keySpec);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to decrypt private key. Check that the passphrase is correct and the key is compatible. Original error: " + e.getMessage(), e);
+                    }
+                } else {
+                    throw new IllegalArgumentException("Invalid private key format: "
+                            + (object != null ? object.getClass().getName() : "null"));
                 }
-            } else {
-                throw new IllegalArgumentException("Invalid private key format: "
-                        + (object != null ? object.getClass().getName() : "null"));
             }
         }
     }
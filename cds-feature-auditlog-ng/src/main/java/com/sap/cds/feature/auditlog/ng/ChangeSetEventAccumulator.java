@@ -0,0 +1,138 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.cds.services.changeset.ChangeSetContext;
+import com.sap.cds.services.changeset.ChangeSetListener;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Collects the audit log events produced within a ChangeSet and sends them as one bulk request when the ChangeSet
+ * is closed.
+ *
+ * If the ChangeSet completes, all collected events are sent before it is closed. If sending fails, the exception
+ * cancels the ChangeSet, so that no change is committed without its audit log events, and the request fails
+ * without disclosing the accessed data. If the ChangeSet is cancelled otherwise, the events describing changes that
+ * have been rolled back (data modifications and configuration changes) are discarded, while data access events are
+ * still sent after it is closed, as the data has been disclosed regardless of the outcome. A failure to send these
+ * is logged, as the ChangeSet is already closed.
+ */
+class ChangeSetEventAccumulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeSetEventAccumulator.class);
+    private static final Set<String> TRANSACTIONAL_TYPES = Set.of("dppDataModification", "configurationChange");
+
+    private final Map<ChangeSetContext, ArrayNode> pending = new ConcurrentHashMap<>();
+    private final EventSender sender;
+
+    ChangeSetEventAccumulator(EventSender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Adds the events to the pending events of the given ChangeSet.
+     *
+     * @param changeSet the current ChangeSet, may be {@code null}
+     * @param events the events
+     * @return {@code true}, if the events have been accumulated, {@code false} if there is no ChangeSet and the
+     *         events need to be sent immediately
+     */
+    boolean accumulate(ChangeSetContext changeSet, ArrayNode events) {
+        if (changeSet == null) {
+            return false;
+        }
+        ArrayNode collected = pending.computeIfAbsent(changeSet, cs -> {
+            cs.register(new Listener(cs));
+            return JsonNodeFactory.instance.arrayNode();
+        });
+        synchronized (collected) {
+            collected.addAll(events);
+        }
+        return true;
+    }
+
+    int getPendingChangeSets() {
+        return pending.size();
+    }
+
+    private class Listener implements ChangeSetListener {
+
+        private final ChangeSetContext changeSet;
+
+        Listener(ChangeSetContext changeSet) {
+            this.changeSet = changeSet;
+        }
+
+        @Override
+        public void beforeClose() {
+            if (changeSet.isMarkedForCancel()) {
+                return;
+            }
+            ArrayNode collected = pending.remove(changeSet);
+            if (collected == null) {
+                return;
+            }
+            ArrayNode events;
+            synchronized (collected) {
+                events = collected;
+            }
+            LOGGER.debug("Sending {} audit log events of ChangeSet {}", events.size(), changeSet.getId());
+            try {
+                sender.send(events);
+            } catch (JsonProcessingException e) {
+                LOGGER.error("Audit Log write exception occurred", e);
+                throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_MESSAGE, e);
+            }
+        }
+
+        @Override
+        public void afterClose(boolean completed) {
+            // the events are still pending, if the ChangeSet is cancelled before or by sending them
+            ArrayNode collected = pending.remove(changeSet);
+            if (collected == null) {
+                return;
+            }
+            ArrayNode events;
+            synchronized (collected) {
+                events = completed ? collected : withoutTransactionalEvents(collected);
+            }
+            if (!completed) {
+                LOGGER.debug("ChangeSet {} cancelled, discarded {} audit log events", changeSet.getId(),
+                        collected.size() - events.size());
+            }
+            if (!events.isEmpty()) {
+                LOGGER.debug("Sending {} audit log events of ChangeSet {}", events.size(), changeSet.getId());
+                try {
+                    sender.send(events);
+                } catch (JsonProcessingException | RuntimeException e) {
+                    // throwing would not undo the closed ChangeSet
+                    LOGGER.error("Failed to send {} audit log events of closed ChangeSet {}", events.size(),
+                            changeSet.getId(), e);
+                }
+            }
+        }
+
+        private ArrayNode withoutTransactionalEvents(ArrayNode collected) {
+            ArrayNode events = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode event : collected) {
+                if (!TRANSACTIONAL_TYPES.contains(event.path("type").asText())) {
+                    events.add(event);
+                }
+            }
+            return events;
+        }
+    }
+}
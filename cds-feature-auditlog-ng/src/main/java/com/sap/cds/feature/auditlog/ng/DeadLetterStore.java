@@ -0,0 +1,137 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Stores audit log events that were rejected by the Audit Log service in a local file, so that they can be
+ * inspected and replayed later.
+ *
+ * The file contains one JSON record per line with the rejected event, the HTTP status code and the response body
+ * of the rejection. There is one store per file in the process, so that communicators of multiple bindings can
+ * share a file. A replay moves the file aside, sends its events and deletes it once all of them have been
+ * delivered or rejected again. If the replay fails, the events are kept and sent again by the next replay.
+ */
+class DeadLetterStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterStore.class);
+    private static final Map<Path, DeadLetterStore> STORES = new ConcurrentHashMap<>();
+    private static final byte[] NEWLINE = { '\n' };
+
+    private final Path file;
+    private final Path pending;
+    private final AuditLogNGCodec codec;
+    private final Object replayLock = new Object();
+
+    private DeadLetterStore(Path file, AuditLogNGCodec codec) {
+        this.file = file;
+        this.pending = file.resolveSibling(file.getFileName() + ".replay");
+        this.codec = codec;
+    }
+
+    /**
+     * Returns the store of the given file.
+     *
+     * @param file the file
+     * @param codec the codec to encode and decode the records with
+     * @return the store
+     */
+    static DeadLetterStore of(Path file, AuditLogNGCodec codec) {
+        return STORES.computeIfAbsent(file.toAbsolutePath().normalize(), f -> new DeadLetterStore(f, codec));
+    }
+
+    /**
+     * Appends a rejected event to the file.
+     *
+     * @param event the event
+     * @param statusCode the HTTP status code of the rejection
+     * @param responseBody the response body of the rejection
+     * @throws IOException if the event cannot be written
+     */
+    void store(JsonNode event, int statusCode, String responseBody) throws IOException {
+        ObjectNode record = JsonNodeFactory.instance.objectNode();
+        record.put("timestamp", Instant.now().toString());
+        record.put("status", statusCode);
+        record.put("response", responseBody);
+        record.set("event", event);
+        byte[] line = codec.encode(record);
+        AuditLogNGRecording.SpoolWriteEvent recording = new AuditLogNGRecording.SpoolWriteEvent();
+        synchronized (this) {
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(line);
+                out.write(NEWLINE);
+            }
+        }
+        recording.finish(file.toString(), 1, line.length + 1L);
+        logger.warn("Stored audit log event rejected with HTTP status {} in {}", statusCode, file);
+    }
+
+    /**
+     * Sends the stored events again.
+     *
+     * @param sender the sender
+     * @return the number of events sent
+     * @throws IOException if the events cannot be read or sent
+     */
+    int replay(EventSender sender) throws IOException {
+        synchronized (replayLock) {
+            synchronized (this) {
+                if (Files.exists(file)) {
+                    // appends to the events of a previous, failed replay
+                    Files.write(pending, Files.readAllBytes(file), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    Files.delete(file);
+                }
+            }
+            if (!Files.exists(pending)) {
+                return 0;
+            }
+            ArrayNode events = read(pending);
+            if (!events.isEmpty()) {
+                logger.info("Replaying {} rejected audit log events from {}", events.size(), file);
+                sender.send(events);
+            }
+            Files.delete(pending);
+            return events.size();
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    private ArrayNode read(Path path) throws IOException {
+        ArrayNode events = JsonNodeFactory.instance.arrayNode();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    events.add(codec.readTree(line).get("event"));
+                }
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Signals that the {@link AuditLogNGDeadline} of audit log events passed before they were sent. The request is not
+ * retried.
+ */
+class DeadlineExceededException extends ErrorStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String stage;
+
+    DeadlineExceededException(String stage) {
+        super(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE);
+        this.stage = stage;
+    }
+
+    /**
+     * @return the stage that was not started anymore, e.g. {@code http}
+     */
+    String getStage() {
+        return stage;
+    }
+
+    /**
+     * Finds the exceeded deadline in the causes of the given exception, which may have been wrapped by the
+     * resilience layer.
+     *
+     * @param e the exception
+     * @return the exceeded deadline, or {@code null} if the exception was not caused by an exceeded deadline
+     */
+    static DeadlineExceededException of(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException exceeded) {
+                return exceeded;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+/**
+ * Sends a bulk of audit log events to the Audit Log service.
+ */
+@FunctionalInterface
+interface EventSender {
+
+    /**
+     * Sends the events.
+     *
+     * @param events the events
+     * @throws JsonProcessingException if the events cannot be encoded
+     */
+    void send(ArrayNode events) throws JsonProcessingException;
+}
@@ -0,0 +1,246 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.cds.services.environment.CdsEnvironment;
+
+/**
+ * An {@link AuditLogNGSink} that appends the events to a local file, one JSON event per line (NDJSON). It is
+ * selected with {@code cds.auditlog.ng.sink.name: file}, e.g. for air-gapped environments, load tests, or to capture
+ * traffic for a later replay.
+ *
+ * Each bulk is encoded into one buffer and written with a single {@link FileChannel#write} call, so the events of
+ * concurrent bulks are never interleaved. Once the file exceeds the maximum size, it is rotated to
+ * {@code <path>.1}, shifting older files up to the maximum number of files. With fsync enabled, a write completes
+ * once the file has been synced. Syncs are done by a background thread that waits the sync interval for further
+ * writes and then syncs all of them at once (group commit), so concurrent writers share the cost of a sync.
+ */
+public class FileAuditLogNGSink implements AuditLogNGSink {
+
+    /** The name of this sink. */
+    public static final String NAME = "file";
+
+    private static final Logger logger = LoggerFactory.getLogger(FileAuditLogNGSink.class);
+    private static final byte NEWLINE = '\n';
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final Condition written = lock.newCondition();
+    private AuditLogNGCodec codec;
+    private Path file;
+    private long maxSize;
+    private int maxFiles;
+    private boolean fsync;
+    private long syncIntervalNanos;
+    private FileChannel channel;
+    private long size;
+    private long writeSequence;
+    private long syncedSequence;
+    private IOException syncFailure;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void open(CdsEnvironment environment, AuditLogNGCodec codec) throws IOException {
+        open(AuditLogNGProperties.from(environment).getSink().getFile(), codec);
+    }
+
+    void open(AuditLogNGProperties.FileSink properties, AuditLogNGCodec codec) throws IOException {
+        this.codec = codec;
+        this.file = Path.of(properties.getPath()).toAbsolutePath().normalize();
+        this.maxSize = properties.getMaxSize();
+        this.maxFiles = properties.getMaxFiles();
+        this.fsync = properties.isFsync();
+        this.syncIntervalNanos = properties.getSyncInterval().toNanos();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        lock.lock();
+        try {
+            openChannel();
+        } finally {
+            lock.unlock();
+        }
+        if (fsync) {
+            Thread syncer = new Thread(this::syncLoop, "auditlog-ng-file-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+        logger.info("Writing audit log events to {}", file);
+    }
+
+    @Override
+    public void send(ArrayNode events) throws IOException {
+        AuditLogNGRecording.SpoolWriteEvent recording = new AuditLogNGRecording.SpoolWriteEvent();
+        ByteBuffer buffer = encode(events);
+        int bytes = buffer.remaining();
+        long sequence;
+        lock.lock();
+        try {
+            if (maxSize > 0 && size > 0 && size + buffer.remaining() > maxSize) {
+                rotate();
+            }
+            while (buffer.hasRemaining()) {
+                size += channel.write(buffer);
+            }
+            sequence = ++writeSequence;
+            if (fsync) {
+                written.signal();
+                awaitSync(sequence);
+            }
+        } finally {
+            lock.unlock();
+        }
+        recording.finish(file.toString(), events.size(), bytes);
+    }
+
+    /**
+     * @return the file the events are appended to
+     */
+    Path getFile() {
+        return file;
+    }
+
+    private ByteBuffer encode(ArrayNode events) throws IOException {
+        byte[][] lines = new byte[events.size()][];
+        int length = 0;
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode event = events.get(i);
+            lines[i] = codec.encode(event);
+            length += lines[i].length + 1;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] line : lines) {
+            buffer.put(line).put(NEWLINE);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Waits until a sync covered the write with the given sequence. The lock is held by the caller and released
+     * while waiting, so that further writers join the next sync.
+     */
+    private void awaitSync(long sequence) throws IOException {
+        while (syncedSequence < sequence) {
+            if (syncFailure != null) {
+                throw new IOException("Failed to sync " + file, syncFailure);
+            }
+            try {
+                synced.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while syncing " + file);
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            FileChannel current;
+            long sequence;
+            lock.lock();
+            try {
+                while (syncedSequence == writeSequence) {
+                    written.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+            // gather the writes of further writers into this sync
+            if (syncIntervalNanos > 0) {
+                sleepNanos(syncIntervalNanos);
+            }
+            lock.lock();
+            try {
+                current = channel;
+                sequence = writeSequence;
+            } finally {
+                lock.unlock();
+            }
+            IOException failure = null;
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // rotated meanwhile, the rotation synced the file before closing it
+            } catch (IOException e) {
+                logger.error("Failed to sync {}", file, e);
+                failure = e;
+            }
+            lock.lock();
+            try {
+                syncFailure = failure;
+                if (failure == null) {
+                    syncedSequence = Math.max(syncedSequence, sequence);
+                }
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void sleepNanos(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            try {
+                Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+            } catch (InterruptedException e) {
+                // the sync thread runs as long as the application, keep the interval
+            }
+        }
+    }
+
+    /**
+     * Closes the current file and shifts it and the older files by one. Called with the lock held.
+     */
+    private void rotate() throws IOException {
+        if (fsync) {
+            channel.force(false);
+            syncedSequence = writeSequence;
+            synced.signalAll();
+        }
+        channel.close();
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(file);
+        }
+        openChannel();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+}
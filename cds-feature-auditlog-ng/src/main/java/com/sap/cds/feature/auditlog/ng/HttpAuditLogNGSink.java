@@ -0,0 +1,79 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.cds.services.environment.CdsEnvironment;
+
+/**
+ * The default {@link AuditLogNGSink}, which sends the events to the Audit Log service of the {@code auditlog-ng}
+ * bindings. With multiple bindings, the events are routed by a {@link RoutingEventSender}.
+ *
+ * As it depends on the bindings, it is created by the configuration instead of being discovered.
+ */
+class HttpAuditLogNGSink implements AuditLogNGSink {
+
+    private final List<AuditLogNGCommunicator> communicators;
+    private final EventSender sender;
+
+    HttpAuditLogNGSink(List<AuditLogNGCommunicator> communicators, AuditLogNGProperties properties) {
+        this.communicators = communicators;
+        AuditLogNGCommunicator communicator = communicators.get(0);
+        this.sender = communicators.size() > 1 ? new RoutingEventSender(communicators, properties.getRouting())
+                : communicator::sendBulkRequest;
+    }
+
+    @Override
+    public String getName() {
+        return AuditLogNGProperties.Sink.HTTP;
+    }
+
+    @Override
+    public void open(CdsEnvironment environment, AuditLogNGCodec codec) {
+        // the communicators are ready when they are created
+    }
+
+    @Override
+    public void send(ArrayNode events) throws JsonProcessingException {
+        sender.send(events);
+    }
+
+    /**
+     * Sends the dead letters of all bindings again.
+     *
+     * @return the number of events sent
+     * @throws IOException if the events cannot be read or sent
+     */
+    int replayDeadLetters() throws IOException {
+        int count = 0;
+        for (AuditLogNGCommunicator communicator : communicators) {
+            count += communicator.replayDeadLetters();
+        }
+        return count;
+    }
+
+    /**
+     * Reloads the certificates of all bindings.
+     *
+     * @return {@code true}, if the HTTP client of any binding has been replaced
+     */
+    boolean reloadCertificates() {
+        boolean reloaded = false;
+        for (AuditLogNGCommunicator communicator : communicators) {
+            reloaded |= communicator.reloadCertificate();
+        }
+        return reloaded;
+    }
+
+    /**
+     * Closes the communicators of the bindings.
+     */
+    void close() {
+        communicators.forEach(AuditLogNGCommunicator::close);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.cds.services.environment.CdsEnvironment;
+
+/**
+ * An {@link AuditLogNGSink} that keeps the most recent events in memory, for tests and for benchmarks of the build
+ * path without network I/O. It is selected with {@code cds.auditlog.ng.sink.name: memory}.
+ *
+ * Each instance keeps its events in its own buffer, which holds at most
+ * {@code cds.auditlog.ng.sink.memory.max-events} events and drops the oldest ones. As the sink is created by the
+ * plugin, the opened instances are returned by {@link #getInstances()}. They are held weakly, so that discarded
+ * sinks are not kept.
+ */
+public class InMemoryAuditLogNGSink implements AuditLogNGSink {
+
+    /** The name of this sink. */
+    public static final String NAME = "memory";
+
+    private static final Set<InMemoryAuditLogNGSink> INSTANCES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final Deque<JsonNode> events = new ArrayDeque<>();
+    private int maxEvents = AuditLogNGProperties.defaults().getSink().getMemoryMaxEvents();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void open(CdsEnvironment environment, AuditLogNGCodec codec) {
+        synchronized (events) {
+            maxEvents = AuditLogNGProperties.from(environment).getSink().getMemoryMaxEvents();
+        }
+        INSTANCES.add(this);
+    }
+
+    @Override
+    public void send(ArrayNode events) {
+        synchronized (this.events) {
+            for (JsonNode event : events) {
+                this.events.addLast(event);
+                if (this.events.size() > maxEvents) {
+                    this.events.removeFirst();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the opened sinks
+     */
+    public static List<InMemoryAuditLogNGSink> getInstances() {
+        synchronized (INSTANCES) {
+            return new ArrayList<>(INSTANCES);
+        }
+    }
+
+    /**
+     * @return the events written to this sink so far, the oldest first
+     */
+    public List<JsonNode> getEvents() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+
+    /**
+     * Removes all events written to this sink so far.
+     */
+    public void clear() {
+        synchronized (events) {
+            events.clear();
+        }
+    }
+}
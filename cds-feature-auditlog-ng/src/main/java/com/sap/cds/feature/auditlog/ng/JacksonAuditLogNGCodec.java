@@ -0,0 +1,51 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * The default {@link AuditLogNGCodec} based on Jackson.
+ *
+ * Events are written by a streaming generator directly into recycled UTF-8 byte buffers, without an intermediate
+ * {@link String}.
+ */
+public class JacksonAuditLogNGCodec implements AuditLogNGCodec {
+
+    static final String NAME = "jackson";
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+
+    public JacksonAuditLogNGCodec() {
+        this.mapper = JsonMapper.builder(JsonFactory.builder().build())
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                .build();
+        this.writer = mapper.writer();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public JsonNode readTree(String json) throws JsonProcessingException {
+        return mapper.readTree(json);
+    }
+
+    @Override
+    public byte[] encode(JsonNode events) throws JsonProcessingException {
+        return writer.writeValueAsBytes(events);
+    }
+}
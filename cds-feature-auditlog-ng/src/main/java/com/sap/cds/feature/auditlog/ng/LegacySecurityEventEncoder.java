@@ -0,0 +1,124 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.sap.cds.services.auditlog.SecurityLog;
+import com.sap.cds.services.request.UserInfo;
+
+/**
+ * Encodes the {@code origEvent} of a {@code legacySecurityWrapper} event.
+ *
+ * The legacy wrapper expects the original security event as a JSON document embedded as a string. Instead of
+ * building a tree, serializing it and letting the outer serialization escape the result again, this encoder
+ * writes the final, already escaped JSON string literal in a single pass into a per-thread buffer. The result is
+ * embedded as a {@link RawValue} and copied verbatim by the outer serialization.
+ */
+final class LegacySecurityEventEncoder {
+
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private LegacySecurityEventEncoder() {
+    }
+
+    /**
+     * Encodes the legacy security origin event as a quoted JSON string literal.
+     *
+     * The encoded JSON object contains the following fields:
+     *   - uuid: A randomly generated UUID string for the event
+     *   - user: The name of the user from userInfo, or "unknown" if the name is null
+     *   - identityProvider: A constant value "$IDP"
+     *   - time: The current timestamp as an ISO-8601 string
+     *   - data: "action: ..., data: ..." with line breaks replaced by a literal "\n"
+     *
+     * @param userInfo the user information
+     * @param data the security log data
+     * @return the raw value holding the escaped {@code origEvent} string literal
+     */
+    static RawValue encode(UserInfo userInfo, SecurityLog data) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        try {
+            out.append('"');
+            appendOpen(out, "uuid", true);
+            appendEscaped(out, UUID.randomUUID().toString(), false);
+            appendClose(out);
+            appendOpen(out, "user", false);
+            appendEscaped(out, userInfo.getName() != null ? userInfo.getName() : "unknown", false);
+            appendClose(out);
+            appendOpen(out, "identityProvider", false);
+            appendEscaped(out, "$IDP", false);
+            appendClose(out);
+            appendOpen(out, "time", false);
+            appendEscaped(out, Instant.now().toString(), false);
+            appendClose(out);
+            appendOpen(out, "data", false);
+            appendEscaped(out, "action: ", false);
+            appendEscaped(out, String.valueOf(data.getAction()), true);
+            appendEscaped(out, ", data: ", false);
+            appendEscaped(out, String.valueOf(data.getData()), true);
+            appendClose(out);
+            out.append("}\"");
+            return new RawValue(out.toString());
+        } finally {
+            if (out.capacity() > MAX_RETAINED_CAPACITY) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /** Appends {@code ,"name":"} (or {@code {"name":"} for the first field) in its escaped form. */
+    private static void appendOpen(StringBuilder out, String name, boolean first) {
+        out.append(first ? "{\\\"" : ",\\\"");
+        appendEscaped(out, name, false);
+        out.append("\\\":\\\"");
+    }
+
+    private static void appendClose(StringBuilder out) {
+        out.append("\\\"");
+    }
+
+    /**
+     * Appends the value escaped twice: once as a string inside the {@code origEvent} document and once more for
+     * the {@code origEvent} string literal itself. If {@code flattenLineBreaks} is set, {@code \r\n} and {@code \n}
+     * are replaced by a literal backslash followed by {@code n}.
+     */
+    private static void appendEscaped(StringBuilder out, String value, boolean flattenLineBreaks) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (flattenLineBreaks && (c == '\n' || (c == '\r' && i + 1 < length && value.charAt(i + 1) == '\n'))) {
+                if (c == '\r') {
+                    i++;
+                }
+                out.append("\\\\\\\\n");
+            } else if (c == '"') {
+                out.append("\\\\\\\"");
+            } else if (c == '\\') {
+                out.append("\\\\\\\\");
+            } else if (c < 0x20) {
+                appendEscapedControl(out, c);
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static void appendEscapedControl(StringBuilder out, char c) {
+        out.append("\\\\");
+        switch (c) {
+            case '\n' -> out.append('n');
+            case '\r' -> out.append('r');
+            case '\t' -> out.append('t');
+            case '\b' -> out.append('b');
+            case '\f' -> out.append('f');
+            default -> out.append("u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+        }
+    }
+}
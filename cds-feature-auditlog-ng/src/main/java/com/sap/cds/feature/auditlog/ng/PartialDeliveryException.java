@@ -0,0 +1,46 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Signals that some events of a bulk request have been delivered before sending the remaining ones failed, e.g.
+ * when the events were sent in batches. Only the undelivered events may be sent again, to not duplicate events.
+ */
+class PartialDeliveryException extends ErrorStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ArrayNode undelivered;
+
+    PartialDeliveryException(ArrayNode undelivered, Throwable cause) {
+        super(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, cause);
+        this.undelivered = undelivered;
+    }
+
+    /**
+     * @return the events that have not been delivered
+     */
+    ArrayNode getUndelivered() {
+        return undelivered;
+    }
+
+    /**
+     * Finds the partial delivery in the causes of the given exception.
+     *
+     * @param e the exception
+     * @return the partial delivery, or {@code null} if no event had been delivered
+     */
+    static PartialDeliveryException of(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PartialDeliveryException partial) {
+                return partial;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+import io.opentelemetry.context.Context;
+
+/**
+ * Sends audit log events on a fixed number of parallel lanes while preserving the order of the events of each
+ * partition.
+ *
+ * Events are partitioned by their source, which contains the tenant, and their data subject. Events without a
+ * data subject, such as configuration changes, are partitioned by their object instead. Each lane is a single
+ * thread that sends its bulks in submission order, so the history of a data subject or object is never reordered,
+ * while events of different partitions are sent in parallel. The caller waits until all its events are sent. Idle
+ * lane threads are stopped and started again for the next events of the lane.
+ */
+class PartitionedEventSender implements EventSender {
+
+    private static final String NULL = "null";
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final EventSender delegate;
+    private final ThreadPoolExecutor[] lanes;
+
+    PartitionedEventSender(int laneCount, EventSender delegate) {
+        this.delegate = delegate;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "auditlog-ng-lane-" + i;
+            // a single thread with an unbounded queue keeps the submission order of the lane
+            lanes[i] = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    r -> {
+                        Thread thread = new Thread(r, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            lanes[i].allowCoreThreadTimeOut(true);
+        }
+    }
+
+    @Override
+    public void send(ArrayNode events) throws JsonProcessingException {
+        ArrayNode[] partitions = new ArrayNode[lanes.length];
+        for (JsonNode event : events) {
+            int lane = laneOf(event);
+            if (partitions[lane] == null) {
+                partitions[lane] = JsonNodeFactory.instance.arrayNode();
+            }
+            partitions[lane].add(event);
+        }
+        List<CompletableFuture<Void>> sent = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            ArrayNode partition = partitions[i];
+            if (partition != null) {
+                // the current context is propagated to keep the spans of the lanes within the trace of the caller
+                sent.add(CompletableFuture.runAsync(Context.current().wrap(() -> {
+                    try {
+                        delegate.send(partition);
+                    } catch (JsonProcessingException e) {
+                        throw new CompletionException(e);
+                    }
+                }), lanes[i]));
+            }
+        }
+        await(sent);
+    }
+
+    int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Determines the lane of an event from the hash of its source and its data subject or object.
+     */
+    int laneOf(JsonNode event) {
+        JsonNode data = firstValue(event.path("data").path("data"));
+        String dataSubjectId = data.path("dataSubjectId").asText(NULL);
+        int hash = event.path("source").asText().hashCode();
+        if (!NULL.equals(dataSubjectId)) {
+            hash = 31 * (31 * hash + data.path("dataSubjectType").asText().hashCode()) + dataSubjectId.hashCode();
+        } else {
+            hash = 31 * (31 * hash + data.path("objectType").asText().hashCode()) + data.path("objectId").asText().hashCode();
+        }
+        // spread the higher bits, as the lane count is usually small
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    private static JsonNode firstValue(JsonNode node) {
+        return node.isObject() && !node.isEmpty() ? node.elements().next() : node;
+    }
+
+    /**
+     * Waits until all sends completed and rethrows the failure of the first failed one.
+     */
+    static void await(List<CompletableFuture<Void>> sent) throws JsonProcessingException {
+        try {
+            CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof JsonProcessingException jpe) {
+                throw jpe;
+            } else if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, cause);
+        }
+    }
+}
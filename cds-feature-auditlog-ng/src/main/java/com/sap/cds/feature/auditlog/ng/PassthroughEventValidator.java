@@ -0,0 +1,70 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+/**
+ * Validates pre-serialized general event JSON without building a tree.
+ *
+ * The JSON is only tokenized, token values are never materialized. A valid event is a single JSON object within
+ * the configured size and nesting depth limits and can be embedded as a {@link RawValue} into the outgoing events.
+ */
+final class PassthroughEventValidator {
+
+    private final JsonFactory factory;
+    private final int maxSize;
+
+    PassthroughEventValidator(AuditLogNGProperties.GeneralEvents properties) {
+        this.maxSize = properties.getMaxSize();
+        this.factory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder()
+                        .maxNestingDepth(properties.getMaxDepth())
+                        .maxDocumentLength(properties.getMaxSize())
+                        .build())
+                .build();
+    }
+
+    /**
+     * Validates the given event JSON and returns it as raw value.
+     *
+     * @param eventJson the event JSON
+     * @return the raw value to embed
+     * @throws IOException if the JSON is malformed, not an object or exceeds the limits
+     */
+    RawValue validate(String eventJson) throws IOException {
+        if (eventJson.length() > maxSize) {
+            throw new StreamConstraintsException("Event JSON length (%d) exceeds the maximum allowed (%d)"
+                    .formatted(eventJson.length(), maxSize));
+        }
+        try (JsonParser parser = factory.createParser(eventJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Event JSON must be an object");
+            }
+            int depth = 1;
+            while (depth > 0) {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of event JSON");
+                } else if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Unexpected content after event JSON object");
+            }
+        }
+        return new RawValue(eventJson);
+    }
+}
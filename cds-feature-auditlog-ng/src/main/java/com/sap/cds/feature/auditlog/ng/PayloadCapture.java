@@ -0,0 +1,148 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the last request payloads sent to the Audit Log service and its responses in memory, to diagnose rejected
+ * or malformed events in production without enabling debug logging.
+ *
+ * The entries are held in a fixed-size ring, which is written without locks: a writer claims the next slot with an
+ * atomic counter and overwrites the oldest entry. Only a sample of the requests is captured, and each payload is
+ * capped to a maximum size, so that the capture neither slows down sending nor holds large payloads. A response is
+ * captured with the id of its request, so that concurrent requests and their responses, including the responses of
+ * retries, can be matched. The captured entries of all bindings are returned by {@link #dump()}.
+ */
+public final class PayloadCapture {
+
+    /** The direction of a captured request payload. */
+    public static final String REQUEST = "request";
+
+    /** The direction of a captured response body. */
+    public static final String RESPONSE = "response";
+
+    /** The id of a request that is not captured. */
+    static final long NOT_CAPTURED = -1;
+
+    private static final Set<PayloadCapture> CAPTURES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final String binding;
+    private final double sampleRate;
+    private final int maxBytes;
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLong sequence = new AtomicLong();
+
+    PayloadCapture(AuditLogNGProperties.Capture properties, String binding) {
+        this.binding = binding;
+        this.sampleRate = properties.getSampleRate();
+        this.maxBytes = properties.getMaxBytes();
+        this.entries = new AtomicReferenceArray<>(Math.max(properties.getSize(), 0));
+        if (isEnabled()) {
+            CAPTURES.add(this);
+        }
+    }
+
+    /**
+     * Returns the captured entries of all bindings, oldest first.
+     *
+     * @return the captured entries
+     */
+    public static List<Entry> dump() {
+        List<Entry> all = new ArrayList<>();
+        synchronized (CAPTURES) {
+            for (PayloadCapture capture : CAPTURES) {
+                all.addAll(capture.getEntries());
+            }
+        }
+        all.sort(Comparator.comparing(Entry::time).thenComparingLong(Entry::sequence));
+        return all;
+    }
+
+    boolean isEnabled() {
+        return entries.length() > 0 && sampleRate > 0;
+    }
+
+    /**
+     * Decides whether a request and its response are captured.
+     *
+     * @return {@code true}, if the request is sampled
+     */
+    boolean sample() {
+        return isEnabled() && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Captures the payload of a request.
+     *
+     * @param payload the UTF-8 encoded payload
+     * @return the id of the request, to capture its responses with
+     */
+    long request(byte[] payload) {
+        long next = sequence.getAndIncrement();
+        add(next, next, REQUEST, 0, payload);
+        return next;
+    }
+
+    /**
+     * Captures the body of a response.
+     *
+     * @param requestId the id of the request
+     * @param status the HTTP status
+     * @param body the response body, may be {@code null}
+     */
+    void response(long requestId, int status, String body) {
+        add(sequence.getAndIncrement(), requestId, RESPONSE, status,
+                body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+    }
+
+    /**
+     * @return the captured entries of this binding, oldest first
+     */
+    List<Entry> getEntries() {
+        List<Entry> result = new ArrayList<>(entries.length());
+        for (int i = 0; i < entries.length(); i++) {
+            Entry entry = entries.get(i);
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        result.sort(Comparator.comparingLong(Entry::sequence));
+        return result;
+    }
+
+    private void add(long next, long requestId, String direction, int status, byte[] payload) {
+        // only the capped prefix is decoded, a character cut in half is replaced
+        String text = new String(payload, 0, Math.min(payload.length, maxBytes), StandardCharsets.UTF_8);
+        entries.set((int) (next % entries.length()), new Entry(next, requestId, Instant.now(), binding, direction, status,
+                payload.length, payload.length > maxBytes, text));
+    }
+
+    /**
+     * A captured request payload or response body.
+     *
+     * @param sequence the sequence of the entry within its binding
+     * @param requestId the sequence of the request entry, the same for a request and its responses
+     * @param time the time the entry was captured
+     * @param binding the region and namespace of the binding
+     * @param direction {@link #REQUEST} or {@link #RESPONSE}
+     * @param status the HTTP status of a response, 0 for a request
+     * @param bytes the size of the complete payload in bytes
+     * @param truncated {@code true}, if the payload was truncated to the maximum size
+     * @param payload the payload, truncated to the maximum size
+     */
+    public record Entry(long sequence, long requestId, Instant time, String binding, String direction, int status, int bytes,
+            boolean truncated, String payload) {
+    }
+}
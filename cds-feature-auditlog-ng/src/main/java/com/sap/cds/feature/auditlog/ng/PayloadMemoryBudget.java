@@ -0,0 +1,258 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+import com.sap.cds.services.utils.OpenTelemetryUtils;
+
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * Limits the bytes of audit log payloads that are held in memory by concurrent sends.
+ *
+ * Senders reserve the estimated payload size before the payload is encoded, adjust the reservation to the actual
+ * size once it is known and release it after the HTTP exchange. The budget therefore bounds the encoded payloads
+ * only. The event trees are built before the events are sent and are not covered, and the estimate is no bound
+ * until it has been adjusted to the encoded size.
+ *
+ * If the budget is exhausted the configured {@link Policy} applies. Waiting senders are admitted in the order in
+ * which they arrived, so that a payload larger than the whole budget is admitted once it is the first in line and
+ * no other payload is in flight, instead of being overtaken by smaller payloads. The usage of all budgets is
+ * reported as OpenTelemetry gauges, which are registered once.
+ */
+class PayloadMemoryBudget {
+
+    /**
+     * The behavior if a reservation exceeds the remaining budget.
+     */
+    enum Policy {
+        /** Wait until enough budget is released, but at most the configured maximum wait time or until the deadline. */
+        BLOCK,
+        /** Reject the payload immediately. */
+        FAIL
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(PayloadMemoryBudget.class);
+    private static final Map<Key, PayloadMemoryBudget> SHARED = new ConcurrentHashMap<>();
+
+    private final long maxBytes;
+    private final Policy policy;
+    private final long maxWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Deque<Object> waiters = new ArrayDeque<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private long usedBytes;
+    private long peakBytes;
+
+    PayloadMemoryBudget(AuditLogNGProperties.MemoryBudget properties) {
+        this(properties.getMaxBytes(), properties.getPolicy(), properties.getMaxWait());
+    }
+
+    PayloadMemoryBudget(long maxBytes, Policy policy, Duration maxWait) {
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+        this.maxWaitNanos = maxWait.toNanos();
+        if (isEnabled()) {
+            Metrics.register(this);
+        }
+    }
+
+    /**
+     * Returns the budget shared by all communicators created with the same properties, so that communicators
+     * created without an explicit budget do not multiply the memory limit.
+     *
+     * @param properties the properties
+     * @return the shared budget
+     */
+    static PayloadMemoryBudget shared(AuditLogNGProperties.MemoryBudget properties) {
+        Key key = new Key(properties.getMaxBytes(), properties.getPolicy(), properties.getMaxWait());
+        return SHARED.computeIfAbsent(key, k -> new PayloadMemoryBudget(k.maxBytes(), k.policy(), k.maxWait()));
+    }
+
+    /**
+     * Reserves the given number of bytes.
+     *
+     * @param estimatedBytes the estimated size of the payload
+     * @param deadlineNanos the point in time in {@link System#nanoTime()} after which the caller gives up waiting,
+     *        if it is earlier than the maximum wait time
+     * @return the reservation, which must be closed after the payload has been sent
+     * @throws ErrorStatusException if the budget is exhausted and the policy rejects the payload
+     */
+    Reservation reserve(long estimatedBytes, long deadlineNanos) {
+        if (!isEnabled()) {
+            return new Reservation(0);
+        }
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && fits(estimatedBytes)) {
+                add(estimatedBytes);
+                return new Reservation(estimatedBytes);
+            }
+            long maxRemainingNanos = policy == Policy.BLOCK ? maxWaitNanos : 0;
+            long remainingNanos = Math.min(maxRemainingNanos, deadlineNanos - System.nanoTime());
+            Object waiter = new Object();
+            waiters.addLast(waiter);
+            try {
+                while (waiters.peekFirst() != waiter || !fits(estimatedBytes)) {
+                    if (remainingNanos <= 0) {
+                        rejected.incrementAndGet();
+                        Metrics.REJECTED.increment();
+                        logger.warn("Audit log payload memory budget of {} bytes exhausted, {} bytes in use, rejecting payload of {} bytes",
+                                maxBytes, usedBytes, estimatedBytes);
+                        throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE);
+                    }
+                    remainingNanos = released.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
+            } finally {
+                waiters.remove(waiter);
+                // the next waiter is first in line now, and may fit as well
+                released.signalAll();
+            }
+            add(estimatedBytes);
+            return new Reservation(estimatedBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    long getUsedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getPeakBytes() {
+        lock.lock();
+        try {
+            return peakBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private boolean fits(long bytes) {
+        return usedBytes == 0 || usedBytes + bytes <= maxBytes;
+    }
+
+    private void add(long bytes) {
+        usedBytes += bytes;
+        peakBytes = Math.max(peakBytes, usedBytes);
+        if (bytes < 0) {
+            released.signalAll();
+        }
+    }
+
+    private record Key(long maxBytes, Policy policy, Duration maxWait) {
+    }
+
+    /**
+     * The instruments of all live budgets. They are registered with the first enabled budget and aggregate the
+     * budgets, which are held weakly, so that discarded budgets neither leak nor register further callbacks.
+     */
+    private static final class Metrics {
+
+        private static final Set<PayloadMemoryBudget> BUDGETS = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        private static final LongAdder REJECTED = new LongAdder();
+        private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+
+        private Metrics() {
+        }
+
+        static void register(PayloadMemoryBudget budget) {
+            BUDGETS.add(budget);
+            if (REGISTERED.compareAndSet(false, true)) {
+                Meter meter = OpenTelemetryUtils.getMeter(AuditLogNGCommunicator.class.getPackageName());
+                meter.gaugeBuilder("auditlog.ng.memory.budget.used").ofLongs().setUnit("By")
+                        .setDescription("Bytes of audit log payloads currently held in memory")
+                        .buildWithCallback(m -> m.record(sum(PayloadMemoryBudget::getUsedBytes)));
+                meter.gaugeBuilder("auditlog.ng.memory.budget.limit").ofLongs().setUnit("By")
+                        .setDescription("Maximum bytes of audit log payloads held in memory")
+                        .buildWithCallback(m -> m.record(sum(PayloadMemoryBudget::getMaxBytes)));
+                meter.counterBuilder("auditlog.ng.memory.budget.rejected")
+                        .setDescription("Audit log payloads rejected because the memory budget was exhausted")
+                        .buildWithCallback(m -> m.record(REJECTED.sum()));
+            }
+        }
+
+        static long sum(ToLongFunction<PayloadMemoryBudget> value) {
+            synchronized (BUDGETS) {
+                return BUDGETS.stream().mapToLong(value).sum();
+            }
+        }
+    }
+
+    /**
+     * A reservation of the memory budget.
+     */
+    class Reservation implements AutoCloseable {
+
+        private long bytes;
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Adjusts the reservation to the actual payload size. As the payload is already materialized at this point,
+         * this never blocks, even if the budget is exceeded.
+         *
+         * @param actualBytes the actual size of the payload
+         */
+        void resize(long actualBytes) {
+            if (!isEnabled()) {
+                return;
+            }
+            lock.lock();
+            try {
+                add(actualBytes - bytes);
+                bytes = actualBytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            resize(0);
+        }
+    }
+}
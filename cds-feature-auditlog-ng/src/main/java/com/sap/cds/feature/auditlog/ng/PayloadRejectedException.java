@@ -0,0 +1,48 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Signals that the Audit Log service rejected the payload of a bulk request with a client error. Sending the same
+ * payload again does not succeed, so the request is not retried.
+ */
+class PayloadRejectedException extends ErrorStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final String responseBody;
+
+    PayloadRejectedException(int statusCode, String responseBody) {
+        super(CdsErrorStatuses.AUDITLOG_UNEXPECTED_HTTP_STATUS, statusCode);
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    String getResponseBody() {
+        return responseBody;
+    }
+
+    /**
+     * Finds the rejection in the causes of the given exception, which may have been wrapped by the resilience layer.
+     *
+     * @param e the exception
+     * @return the rejection, or {@code null} if the exception was not caused by a rejection
+     */
+    static PayloadRejectedException of(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PayloadRejectedException rejected) {
+                return rejected;
+            }
+        }
+        return null;
+    }
+}
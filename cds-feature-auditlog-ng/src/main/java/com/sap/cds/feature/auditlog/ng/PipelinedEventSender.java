@@ -0,0 +1,162 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import io.opentelemetry.context.Context;
+
+/**
+ * Sends the audit log events of a large log in chunks while they are still being built.
+ *
+ * The builder adds the events one by one to a {@link Pipeline}. Each full chunk is sent in the background while the
+ * builder continues with the next chunk. At most one chunk is in flight, so the chunks are sent in order and at most
+ * two chunks are held in memory, regardless of the size of the log. If a chunk cannot be sent, the builder is
+ * stopped with the failure. Chunks sent before are not revoked.
+ *
+ * The chunks of all logs are sent by a bounded number of threads, sized like the concurrent calls to the Audit Log
+ * service. If all threads are busy, the builder sends its chunk itself, which also applies after {@link #close()}.
+ * Idle threads are stopped.
+ */
+class PipelinedEventSender {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    // the connections per route of the HTTP client, if neither the bulkhead nor priority classes limit the calls
+    private static final int DEFAULT_THREADS = 2;
+
+    private final int chunkSize;
+    private final EventSender delegate;
+    private final ThreadPoolExecutor executor;
+
+    PipelinedEventSender(int chunkSize, int threads, EventSender delegate) {
+        this.chunkSize = chunkSize;
+        this.delegate = delegate;
+        AtomicInteger count = new AtomicInteger();
+        // chunks are handed over to idle threads only, so that waiting chunks are not buffered
+        this.executor = new ThreadPoolExecutor(0, Math.max(1, threads), KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread thread = new Thread(r, "auditlog-ng-pipeline-" + count.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (r, e) -> r.run());
+    }
+
+    /**
+     * Determines the threads sending chunks from the limit of concurrent calls to the Audit Log service.
+     *
+     * @param properties the properties
+     * @return the number of threads
+     */
+    static int threads(AuditLogNGProperties properties) {
+        if (properties.getBulkhead().getMaxConcurrentCalls() > 0) {
+            return properties.getBulkhead().getMaxConcurrentCalls();
+        }
+        return properties.getPriorities().isEnabled() ? properties.getPriorities().getConnections() : DEFAULT_THREADS;
+    }
+
+    /**
+     * Stops the threads once their chunks are sent. Chunks of pipelines still in use are sent by their builders.
+     */
+    void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return a new pipeline for the events of one log
+     */
+    Pipeline open() {
+        return new Pipeline();
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * The events of one log, which are sent in chunks as they are added.
+     */
+    final class Pipeline {
+
+        private ArrayNode chunk = JsonNodeFactory.instance.arrayNode();
+        private CompletableFuture<Void> inFlight;
+        private int count;
+
+        private Pipeline() {
+        }
+
+        /**
+         * Adds an event and sends the chunk in the background once it is full.
+         *
+         * @param event the event
+         * @throws JsonProcessingException if the previous chunk could not be serialized
+         */
+        void add(JsonNode event) throws JsonProcessingException {
+            chunk.add(event);
+            count++;
+            if (chunk.size() >= chunkSize) {
+                awaitInFlight();
+                ArrayNode full = chunk;
+                chunk = JsonNodeFactory.instance.arrayNode();
+                // the current context is propagated to keep the deadline and the spans of the caller
+                inFlight = CompletableFuture.runAsync(Context.current().wrap(() -> {
+                    try {
+                        delegate.send(full);
+                    } catch (JsonProcessingException e) {
+                        throw new CompletionException(e);
+                    }
+                }), executor);
+            }
+        }
+
+        /**
+         * Sends the last chunk on the calling thread and waits until all chunks are sent.
+         *
+         * @throws JsonProcessingException if a chunk could not be serialized
+         */
+        void finish() throws JsonProcessingException {
+            awaitInFlight();
+            if (!chunk.isEmpty()) {
+                delegate.send(chunk);
+                chunk = JsonNodeFactory.instance.arrayNode();
+            }
+        }
+
+        /**
+         * Discards the events not sent yet after the builder failed, waiting for the chunk in flight.
+         */
+        void abort() {
+            chunk = JsonNodeFactory.instance.arrayNode();
+            if (inFlight != null) {
+                inFlight.exceptionally(e -> null).join();
+                inFlight = null;
+            }
+        }
+
+        /**
+         * @return the number of events added
+         */
+        int getCount() {
+            return count;
+        }
+
+        private void awaitInFlight() throws JsonProcessingException {
+            if (inFlight != null) {
+                CompletableFuture<Void> previous = inFlight;
+                inFlight = null;
+                PartitionedEventSender.await(List.of(previous));
+            }
+        }
+    }
+}
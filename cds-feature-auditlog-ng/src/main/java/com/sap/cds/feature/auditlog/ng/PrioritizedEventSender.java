@@ -0,0 +1,175 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+import io.opentelemetry.context.Context;
+
+/**
+ * Sends audit log events on separate queues per priority class, so that latency sensitive events, such as
+ * security events, never wait behind large bulks of data access events.
+ *
+ * Each event is assigned to a class by its {@code type}. Each class has its own queue, served by as many threads
+ * as it has connections, and splits its bulks into batches of its batch size, which are sent in order. The caller
+ * waits until all its events are sent. If some of them have been delivered before sending the others failed, the
+ * failure is a {@link PartialDeliveryException} with the undelivered events. Idle threads are stopped.
+ */
+class PrioritizedEventSender implements EventSender {
+
+    /**
+     * The priority class of an event.
+     */
+    enum Priority {
+        HIGH, NORMAL, BULK
+    }
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final EventSender delegate;
+    private final Map<String, Priority> priorities = new HashMap<>();
+    private final Map<Priority, Queue> queues = new EnumMap<>(Priority.class);
+
+    PrioritizedEventSender(AuditLogNGProperties.Priorities properties, EventSender delegate) {
+        this.delegate = delegate;
+        register(Priority.HIGH, properties.getHigh());
+        register(Priority.NORMAL, properties.getNormal());
+        register(Priority.BULK, properties.getBulk());
+    }
+
+    private void register(Priority priority, AuditLogNGProperties.PriorityClass properties) {
+        for (String type : properties.getEventTypes()) {
+            if (priorities.putIfAbsent(type, priority) != null) {
+                throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_CONFIG,
+                        AuditLogNGProperties.PREFIX + "priority:" + type);
+            }
+        }
+        queues.put(priority, new Queue(priority, properties));
+    }
+
+    @Override
+    public void send(ArrayNode events) throws JsonProcessingException {
+        Map<Priority, ArrayNode> classified = new EnumMap<>(Priority.class);
+        for (JsonNode event : events) {
+            classified.computeIfAbsent(priorityOf(event), p -> JsonNodeFactory.instance.arrayNode()).add(event);
+        }
+        List<ArrayNode> classes = new ArrayList<>(classified.values());
+        List<CompletableFuture<Void>> sent = new ArrayList<>(classes.size());
+        classified.forEach((priority, classEvents) -> sent.add(queues.get(priority).submit(classEvents)));
+        try {
+            PartitionedEventSender.await(sent);
+        } catch (JsonProcessingException | RuntimeException e) {
+            PartialDeliveryException partial = partialDelivery(classes, sent, e);
+            if (partial != null) {
+                throw partial;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Collects the undelivered events of the failed classes, if events of any class have been delivered.
+     *
+     * @return the partial delivery, or {@code null} if no event has been delivered
+     */
+    private static PartialDeliveryException partialDelivery(List<ArrayNode> classes, List<CompletableFuture<Void>> sent,
+            Exception e) {
+        ArrayNode undelivered = JsonNodeFactory.instance.arrayNode();
+        boolean delivered = false;
+        for (int i = 0; i < classes.size(); i++) {
+            try {
+                sent.get(i).join();
+                delivered = true;
+            } catch (CompletionException | CancellationException failure) {
+                PartialDeliveryException partial = PartialDeliveryException.of(failure);
+                delivered |= partial != null;
+                undelivered.addAll(partial != null ? partial.getUndelivered() : classes.get(i));
+            }
+        }
+        return delivered ? new PartialDeliveryException(undelivered, e) : null;
+    }
+
+    Priority priorityOf(JsonNode event) {
+        return priorities.getOrDefault(event.path("type").asText(), Priority.NORMAL);
+    }
+
+    private final class Queue {
+
+        private final ThreadPoolExecutor executor;
+        private final int batchSize;
+
+        private Queue(Priority priority, AuditLogNGProperties.PriorityClass properties) {
+            String name = "auditlog-ng-" + priority.name().toLowerCase(Locale.ROOT) + "-";
+            AtomicInteger threads = new AtomicInteger();
+            int connections = Math.max(1, properties.getConnections());
+            this.executor = new ThreadPoolExecutor(connections, connections, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, name + threads.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.executor.allowCoreThreadTimeOut(true);
+            this.batchSize = properties.getBatchSize();
+        }
+
+        private CompletableFuture<Void> submit(ArrayNode events) {
+            // the current context is propagated to keep the spans of the queue within the trace of the caller
+            return CompletableFuture.runAsync(Context.current().wrap(() -> {
+                try {
+                    send(events);
+                } catch (JsonProcessingException e) {
+                    throw new CompletionException(e);
+                }
+            }), executor);
+        }
+
+        private void send(ArrayNode events) throws JsonProcessingException {
+            if (batchSize <= 0 || events.size() <= batchSize) {
+                delegate.send(events);
+                return;
+            }
+            for (int offset = 0; offset < events.size(); offset += batchSize) {
+                int end = Math.min(events.size(), offset + batchSize);
+                ArrayNode batch = JsonNodeFactory.instance.arrayNode(end - offset);
+                for (int i = offset; i < end; i++) {
+                    batch.add(events.get(i));
+                }
+                try {
+                    delegate.send(batch);
+                } catch (JsonProcessingException | RuntimeException e) {
+                    PartialDeliveryException partial = PartialDeliveryException.of(e);
+                    if (offset == 0 && partial == null) {
+                        throw e;
+                    }
+                    // the previous batches have been delivered and must not be sent again
+                    ArrayNode undelivered = JsonNodeFactory.instance.arrayNode(events.size() - offset);
+                    undelivered.addAll(partial != null ? partial.getUndelivered() : batch);
+                    for (int i = end; i < events.size(); i++) {
+                        undelivered.add(events.get(i));
+                    }
+                    throw new PartialDeliveryException(undelivered, e);
+                }
+            }
+        }
+    }
+}
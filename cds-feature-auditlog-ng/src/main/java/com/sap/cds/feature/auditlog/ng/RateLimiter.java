@@ -0,0 +1,258 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Paces the bulk requests to the Audit Log service with token buckets, one for all requests and one per tenant.
+ *
+ * Each request takes a token from the global bucket and from the bucket of its tenant, waiting until both have
+ * refilled if needed. If the service throttles a request with HTTP 429, all requests are paused for the duration
+ * of its {@code Retry-After} header, or a default backoff without the header, and the rates of both buckets are
+ * halved. Successful requests restore the configured rates gradually. A bucket with a rate of 0 is unlimited, but
+ * requests are paused after throttling nevertheless. A request that is not permitted before its deadline takes no
+ * token. The buckets of tenants that have been idle long enough to be full again at their configured rate are
+ * evicted, as a new bucket behaves the same.
+ */
+class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+    private static final double THROTTLE_RATIO = 0.5;
+    private static final double RECOVERY_STEP = 0.05;
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final TokenBucket global;
+    private final double tenantRate;
+    private final int burst;
+    private final long throttleBackoffNanos;
+    private final long maxWaitNanos;
+    private final Map<String, TokenBucket> tenants = new ConcurrentHashMap<>();
+    private final AtomicLong evictedAtNanos = new AtomicLong(System.nanoTime());
+    private volatile long pausedUntilNanos;
+
+    RateLimiter(AuditLogNGProperties.RateLimit properties) {
+        this.burst = Math.max(1, properties.getBurst());
+        this.global = properties.getRequestsPerSecond() > 0 ? new TokenBucket(properties.getRequestsPerSecond(), burst) : null;
+        this.tenantRate = properties.getTenantRequestsPerSecond();
+        this.throttleBackoffNanos = properties.getThrottleBackoff().toNanos();
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+    }
+
+    /**
+     * Starts the time frame within which a bulk request and the repetitions after throttling have to be sent.
+     *
+     * @return the deadline in {@link System#nanoTime()}
+     */
+    long deadline() {
+        return System.nanoTime() + maxWaitNanos;
+    }
+
+    /**
+     * Waits until a request of the given tenant is permitted.
+     *
+     * @param tenant the tenant
+     * @param deadline the deadline in {@link System#nanoTime()}
+     * @throws ErrorStatusException if the request is not permitted before the deadline
+     */
+    void acquire(String tenant, long deadline) {
+        long now = System.nanoTime();
+        evictIdleTenants(now);
+        long permittedAt = now + Math.max(0, pausedUntilNanos - now);
+        if (permittedAt - deadline > 0) {
+            throw notPermitted(tenant);
+        }
+        if (global != null) {
+            permittedAt = latest(permittedAt, global.reserve(permittedAt, deadline));
+            if (permittedAt - deadline > 0) {
+                throw notPermitted(tenant);
+            }
+        }
+        TokenBucket bucket = tenantBucket(tenant);
+        if (bucket != null) {
+            permittedAt = latest(permittedAt, bucket.reserve(permittedAt, deadline));
+            if (permittedAt - deadline > 0) {
+                // the request is rejected, so it does not consume the capacity of other tenants
+                if (global != null) {
+                    global.refund();
+                }
+                throw notPermitted(tenant);
+            }
+        }
+        long waitNanos = permittedAt - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e);
+            }
+        }
+    }
+
+    /**
+     * Reports a successful request, which restores the rates gradually.
+     *
+     * @param tenant the tenant
+     */
+    void onSuccess(String tenant) {
+        if (global != null) {
+            global.recover();
+        }
+        TokenBucket bucket = tenantBucket(tenant);
+        if (bucket != null) {
+            bucket.recover();
+        }
+    }
+
+    /**
+     * Reports a throttled request, which pauses all requests and reduces the rates.
+     *
+     * @param tenant the tenant
+     * @param retryAfter the time requested by the {@code Retry-After} header, or {@code null}
+     */
+    void onThrottled(String tenant, Duration retryAfter) {
+        long pauseNanos = retryAfter != null ? retryAfter.toNanos() : throttleBackoffNanos;
+        long until = System.nanoTime() + pauseNanos;
+        synchronized (this) {
+            if (until - pausedUntilNanos > 0) {
+                pausedUntilNanos = until;
+            }
+        }
+        if (global != null) {
+            global.throttle();
+        }
+        TokenBucket bucket = tenantBucket(tenant);
+        if (bucket != null) {
+            bucket.throttle();
+        }
+        logger.warn("Audit Log service throttled requests of tenant {}, pausing for {} ms", tenant,
+                Duration.ofNanos(pauseNanos).toMillis());
+    }
+
+    /**
+     * @return the current rate of the global bucket in requests per second, or 0 if unlimited
+     */
+    double getRate() {
+        return global != null ? global.getRate() : 0;
+    }
+
+    /**
+     * @return the current rate of the bucket of the tenant in requests per second, or 0 if unlimited
+     */
+    double getRate(String tenant) {
+        TokenBucket bucket = tenantBucket(tenant);
+        return bucket != null ? bucket.getRate() : 0;
+    }
+
+    int getTenantCount() {
+        return tenants.size();
+    }
+
+    private ErrorStatusException notPermitted(String tenant) {
+        logger.warn("No request to Audit Log service permitted for tenant {} within {} ms", tenant,
+                Duration.ofNanos(maxWaitNanos).toMillis());
+        return new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE);
+    }
+
+    private static long latest(long a, long b) {
+        return a - b >= 0 ? a : b;
+    }
+
+    /**
+     * Removes the buckets of tenants that are full again at their configured rate, at most once per interval.
+     *
+     * @param now the current time in {@link System#nanoTime()}
+     */
+    void evictIdleTenants(long now) {
+        long evictedAt = evictedAtNanos.get();
+        if (now - evictedAt >= EVICTION_INTERVAL_NANOS && evictedAtNanos.compareAndSet(evictedAt, now)) {
+            tenants.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+    }
+
+    private TokenBucket tenantBucket(String tenant) {
+        return tenantRate > 0 ? tenants.computeIfAbsent(tenant, t -> new TokenBucket(tenantRate, burst)) : null;
+    }
+
+    /**
+     * A token bucket whose tokens may become negative, so that a request reserves its token immediately and waits
+     * until the bucket has refilled.
+     */
+    private static final class TokenBucket {
+
+        private final double maxRate;
+        private final int capacity;
+        private double rate;
+        private double tokens;
+        private long refilledAtNanos;
+
+        private TokenBucket(double rate, int capacity) {
+            this.maxRate = rate;
+            this.rate = rate;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.refilledAtNanos = System.nanoTime();
+        }
+
+        /**
+         * Reserves a token at the given time.
+         *
+         * @return the time in {@link System#nanoTime()} the token is available, a token is only reserved if it is
+         *         not after the deadline
+         */
+        private synchronized long reserve(long at, long deadline) {
+            refill(latest(at, refilledAtNanos));
+            long waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1));
+            long permittedAt = refilledAtNanos + waitNanos;
+            if (permittedAt - deadline <= 0) {
+                tokens -= 1;
+            }
+            return permittedAt;
+        }
+
+        /**
+         * Returns the token of a request that has not been permitted after all.
+         */
+        private synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        private synchronized boolean isIdle(long now) {
+            refill(now);
+            return tokens >= capacity && rate >= maxRate;
+        }
+
+        private synchronized void throttle() {
+            rate = Math.max(maxRate * RECOVERY_STEP, rate * THROTTLE_RATIO);
+            // drop the burst, so that the next requests are paced with the reduced rate
+            tokens = Math.min(tokens, 0);
+        }
+
+        private synchronized void recover() {
+            rate = Math.min(maxRate, rate + maxRate * RECOVERY_STEP);
+        }
+
+        private synchronized double getRate() {
+            return rate;
+        }
+
+        private void refill(long now) {
+            if (now - refilledAtNanos > 0) {
+                tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * rate / TimeUnit.SECONDS.toNanos(1));
+                refilledAtNanos = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sap.cloud.environment.servicebinding.api.ServiceBinding;
+
+/**
+ * Holds the certificate authenticated HTTP client of a binding, which is created lazily and can be replaced at
+ * runtime when the certificate of the binding is rotated.
+ *
+ * The client is created on first use or in the background by {@link #warmUp()}. {@link #reload()} reads the
+ * binding again and, if the certificate, key or passphrase changed, creates a new client and swaps it in
+ * atomically. Requests that already obtained the previous client complete on it, as it is only closed after a
+ * grace period. Reloads can be triggered periodically with {@link #watch(Duration)} until {@link #close()}.
+ */
+class ReloadableHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReloadableHttpClient.class);
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "auditlog-ng-certificate");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Supplier<ServiceBinding> binding;
+    private final Function<ServiceBinding, CloseableHttpClient> factory;
+    private final Duration closeDelay;
+    private volatile Holder current;
+    private CompletableFuture<Holder> warmUp;
+    private ScheduledFuture<?> watcher;
+    private boolean closed;
+
+    /**
+     * @param binding supplies the current state of the binding
+     * @param factory creates the client from the binding
+     * @param closeDelay the time after which a replaced client is closed
+     */
+    ReloadableHttpClient(Supplier<ServiceBinding> binding, Function<ServiceBinding, CloseableHttpClient> factory,
+            Duration closeDelay) {
+        this.binding = binding;
+        this.factory = factory;
+        this.closeDelay = closeDelay;
+    }
+
+    /**
+     * Returns the current client, creating it if needed.
+     *
+     * @return the client
+     * @throws IllegalStateException if the client has been closed
+     */
+    CloseableHttpClient get() {
+        Holder holder = current;
+        if (holder == null) {
+            holder = initialize();
+        }
+        return holder.client();
+    }
+
+    /**
+     * Creates the client in the background, so that the first request does not pay for parsing the certificate and
+     * initializing the SSL context.
+     */
+    synchronized void warmUp() {
+        if (current == null && warmUp == null && !closed) {
+            warmUp = CompletableFuture.supplyAsync(() -> create(binding.get()));
+            warmUp.whenComplete((holder, e) -> {
+                if (e != null) {
+                    logger.warn("Failed to create Audit Log HTTP client in the background", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads the binding again and replaces the client if its credentials changed.
+     *
+     * @return {@code true}, if the client has been replaced
+     */
+    boolean reload() {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+        }
+        ServiceBinding reloaded = binding.get();
+        List<Object> credentials = credentialsOf(reloaded);
+        Holder previous = current;
+        if (previous != null && previous.credentials().equals(credentials)) {
+            return false;
+        }
+        // the new client is created before taking the lock, so requests continue on the previous client meanwhile
+        Holder created = create(reloaded);
+        synchronized (this) {
+            previous = current;
+            // a reload running while the client is closed must not install a new client
+            if (closed || previous != null && previous.credentials().equals(credentials)) {
+                closeLater(created.client());
+                return false;
+            }
+            current = created;
+            if (warmUp != null) {
+                warmUp.thenAccept(superseded -> closeLater(superseded.client()));
+                warmUp = null;
+            }
+        }
+        if (previous != null) {
+            logger.info("Reloaded certificate of Audit Log service binding");
+            closeLater(previous.client());
+        }
+        return true;
+    }
+
+    /**
+     * Periodically reloads the binding.
+     *
+     * @param interval the interval
+     */
+    synchronized void watch(Duration interval) {
+        if (watcher != null) {
+            watcher.cancel(false);
+        }
+        watcher = SCHEDULER.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to reload certificate of Audit Log service binding", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops reloading the binding and closes the current client after the grace period, so that requests in flight
+     * complete. Afterwards, {@link #get()} fails.
+     */
+    synchronized void close() {
+        closed = true;
+        if (watcher != null) {
+            watcher.cancel(false);
+            watcher = null;
+        }
+        if (warmUp != null) {
+            warmUp.thenAccept(created -> closeLater(created.client()));
+            warmUp = null;
+        }
+        if (current != null) {
+            closeLater(current.client());
+            current = null;
+        }
+    }
+
+    private synchronized Holder initialize() {
+        if (closed) {
+            throw new IllegalStateException("The HTTP client of the Audit Log service binding has been closed");
+        }
+        if (current == null) {
+            Holder created = null;
+            if (warmUp != null) {
+                try {
+                    created = warmUp.join();
+                } catch (RuntimeException e) {
+                    // the failure has been logged, try again on the calling thread
+                }
+                warmUp = null;
+            }
+            current = created != null ? created : create(binding.get());
+        }
+        return current;
+    }
+
+    private Holder create(ServiceBinding binding) {
+        return new Holder(credentialsOf(binding), factory.apply(binding));
+    }
+
+    private void closeLater(CloseableHttpClient client) {
+        SCHEDULER.schedule(() -> {
+            try {
+                client.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close replaced Audit Log HTTP client", e);
+            }
+        }, closeDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static List<Object> credentialsOf(ServiceBinding binding) {
+        Map<String, Object> credentials = binding.getCredentials();
+        return Arrays.asList(credentials.get("cert"), credentials.get("key"), credentials.get("passphrase"));
+    }
+
+    private record Holder(List<Object> credentials, CloseableHttpClient client) {
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Signals that the Audit Log service refused a bulk request with a client error that is not about its payload,
+ * e.g. an expired certificate (401, 403), a wrong URL (404) or a request that is too large (413). Sending the request
+ * again or splitting it does not succeed, so it is neither retried nor bisected.
+ */
+class RequestRefusedException extends ErrorStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    RequestRefusedException(int statusCode) {
+        super(CdsErrorStatuses.AUDITLOG_UNEXPECTED_HTTP_STATUS, statusCode);
+        this.statusCode = statusCode;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Finds the refusal in the causes of the given exception, which may have been wrapped by the resilience layer.
+     *
+     * @param e the exception
+     * @return the refusal, or {@code null} if the exception was not caused by a refusal
+     */
+    static RequestRefusedException of(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RequestRefusedException refused) {
+                return refused;
+            }
+        }
+        return null;
+    }
+}
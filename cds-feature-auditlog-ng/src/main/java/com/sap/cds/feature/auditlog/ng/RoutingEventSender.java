@@ -0,0 +1,224 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Distributes audit log events across the communicators of multiple Audit Log service bindings and fails over to
+ * the next binding if a bulk request fails.
+ *
+ * The binding is selected by the configured {@link Policy}. Bindings whose requests fail repeatedly, or whose
+ * average response time exceeds the configured threshold, are ejected from the rotation for a while. The response
+ * time is measured by the communicator around the HTTP exchange only, so that waiting for local limits does not
+ * eject a healthy binding. If all bindings are
+ * ejected, all of them are used again. As the {@code source} of an event names the region and namespace of the
+ * binding, it is rewritten for the selected binding before sending.
+ */
+class RoutingEventSender implements EventSender {
+
+    /**
+     * The policy selecting the binding of a bulk request.
+     */
+    enum Policy {
+        /** The binding with the fewest requests in flight. */
+        LEAST_OUTSTANDING,
+        /** A random binding, weighted by the inverse of its average latency. */
+        LATENCY_WEIGHTED,
+        /** A binding determined by the hash of the tenant, so that the events of a tenant stay together. */
+        TENANT
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingEventSender.class);
+
+    private final List<Endpoint> endpoints;
+    private final Policy policy;
+    private final int ejectionFailures;
+    private final long ejectionLatencyNanos;
+    private final long ejectionDurationNanos;
+
+    RoutingEventSender(List<AuditLogNGCommunicator> communicators, AuditLogNGProperties.Routing properties) {
+        this.endpoints = IntStream.range(0, communicators.size()).mapToObj(i -> new Endpoint(communicators.get(i), i)).toList();
+        this.policy = properties.getPolicy();
+        this.ejectionFailures = properties.getEjectionFailures();
+        this.ejectionLatencyNanos = properties.getEjectionLatency().toNanos();
+        this.ejectionDurationNanos = properties.getEjectionDuration().toNanos();
+    }
+
+    @Override
+    public void send(ArrayNode events) throws JsonProcessingException {
+        RuntimeException failure = null;
+        ArrayNode pending = events;
+        for (Endpoint endpoint : select(events)) {
+            rewriteSource(pending, endpoint.communicator);
+            endpoint.outstanding.incrementAndGet();
+            try {
+                endpoint.communicator.sendBulkRequest(pending);
+                onSuccess(endpoint);
+                return;
+            } catch (RuntimeException e) {
+                if (!isEndpointFailure(e)) {
+                    throw e;
+                }
+                PartialDeliveryException partial = PartialDeliveryException.of(e);
+                if (partial != null) {
+                    // the delivered events must not be sent to another binding again
+                    pending = partial.getUndelivered();
+                }
+                onFailure(endpoint);
+                logger.warn("Bulk request to Audit Log service in region {} and namespace {} failed", endpoint.communicator.getRegion(),
+                        endpoint.communicator.getNamespace(), e);
+                failure = e;
+            } finally {
+                endpoint.outstanding.decrementAndGet();
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Only transport errors and server errors are failures of the binding. Rejected payloads, refused requests and
+     * passed deadlines fail the same way on any binding.
+     */
+    private static boolean isEndpointFailure(RuntimeException e) {
+        return PayloadRejectedException.of(e) == null && RequestRefusedException.of(e) == null
+                && DeadlineExceededException.of(e) == null;
+    }
+
+    /**
+     * Orders the bindings in which they are tried for the given events.
+     */
+    private List<Endpoint> select(ArrayNode events) {
+        long now = System.nanoTime();
+        List<Endpoint> healthy = new ArrayList<>(endpoints.size());
+        List<Endpoint> ejected = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            (endpoint.isEjected(now) ? ejected : healthy).add(endpoint);
+        }
+        switch (policy) {
+        case TENANT -> {
+            int first = Math.floorMod(AuditLogNGCommunicator.tenantOf(events).hashCode(), endpoints.size());
+            healthy.sort(Comparator.comparingInt(e -> Math.floorMod(e.index - first, endpoints.size())));
+        }
+        case LATENCY_WEIGHTED -> {
+            healthy.sort(Comparator.comparingDouble(e -> e.communicator.getLatencyNanos()));
+            if (healthy.size() > 1) {
+                healthy.add(0, healthy.remove(weightedRandom(healthy)));
+            }
+        }
+        default -> healthy.sort(Comparator.comparingInt((Endpoint e) -> e.outstanding.get())
+                .thenComparingDouble(e -> e.communicator.getLatencyNanos()));
+        }
+        // ejected bindings are the last resort
+        healthy.addAll(ejected);
+        return healthy;
+    }
+
+    List<AuditLogNGCommunicator> getCommunicators() {
+        return endpoints.stream().map(e -> e.communicator).toList();
+    }
+
+    boolean isEjected(AuditLogNGCommunicator communicator) {
+        long now = System.nanoTime();
+        return endpoints.stream().anyMatch(e -> e.communicator == communicator && e.isEjected(now));
+    }
+
+    private void onSuccess(Endpoint endpoint) {
+        synchronized (endpoint) {
+            endpoint.consecutiveFailures = 0;
+            if (endpoints.size() > 1 && endpoint.communicator.getLatencyNanos() > ejectionLatencyNanos) {
+                logger.warn("Ejecting slow Audit Log service in region {} and namespace {}", endpoint.communicator.getRegion(),
+                        endpoint.communicator.getNamespace());
+                eject(endpoint);
+            }
+        }
+    }
+
+    private void onFailure(Endpoint endpoint) {
+        synchronized (endpoint) {
+            if (++endpoint.consecutiveFailures >= ejectionFailures && endpoints.size() > 1) {
+                logger.warn("Ejecting failing Audit Log service in region {} and namespace {}", endpoint.communicator.getRegion(),
+                        endpoint.communicator.getNamespace());
+                eject(endpoint);
+            }
+        }
+    }
+
+    private void eject(Endpoint endpoint) {
+        endpoint.ejectedUntilNanos = System.nanoTime() + ejectionDurationNanos;
+        endpoint.consecutiveFailures = 0;
+        // the binding starts over once it is back in rotation
+        endpoint.communicator.resetLatency();
+    }
+
+    private static int weightedRandom(List<Endpoint> endpoints) {
+        double[] weights = new double[endpoints.size()];
+        double maxWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double latency = endpoints.get(i).communicator.getLatencyNanos();
+            weights[i] = latency > 0 ? 1 / latency : 0;
+            maxWeight = Math.max(maxWeight, weights[i]);
+        }
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            // bindings without measurement yet get the weight of the fastest one, so that they are tried soon
+            if (weights[i] == 0) {
+                weights[i] = maxWeight > 0 ? maxWeight : 1;
+            }
+            total += weights[i];
+        }
+        double pick = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Replaces the region and namespace in the {@code source} of the events, keeping the tenant.
+     */
+    private static void rewriteSource(ArrayNode events, AuditLogNGCommunicator communicator) {
+        String prefix = "/" + communicator.getRegion() + "/" + communicator.getNamespace() + "/";
+        for (JsonNode event : events) {
+            String source = event.path("source").asText();
+            if (!source.startsWith(prefix) && event instanceof ObjectNode node) {
+                node.put("source", prefix + source.substring(source.lastIndexOf('/') + 1));
+            }
+        }
+    }
+
+    private final class Endpoint {
+
+        private final AuditLogNGCommunicator communicator;
+        private final int index;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile long ejectedUntilNanos;
+        private int consecutiveFailures;
+
+        private Endpoint(AuditLogNGCommunicator communicator, int index) {
+            this.communicator = communicator;
+            this.index = index;
+        }
+
+        private boolean isEjected(long now) {
+            return ejectedUntilNanos != 0 && now - ejectedUntilNanos < 0;
+        }
+    }
+}
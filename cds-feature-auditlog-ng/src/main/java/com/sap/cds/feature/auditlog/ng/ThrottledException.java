@@ -0,0 +1,53 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.time.Duration;
+
+import org.apache.http.HttpStatus;
+
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Signals that the Audit Log service throttled a bulk request with HTTP 429. The request is sent again once the
+ * {@link RateLimiter} permits it, instead of being retried immediately.
+ */
+class ThrottledException extends ErrorStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Duration retryAfter;
+
+    /**
+     * @param retryAfter the time to wait as requested by the {@code Retry-After} header, or {@code null}
+     */
+    ThrottledException(Duration retryAfter) {
+        super(CdsErrorStatuses.AUDITLOG_UNEXPECTED_HTTP_STATUS, HttpStatus.SC_TOO_MANY_REQUESTS);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return the time to wait as requested by the {@code Retry-After} header, or {@code null}
+     */
+    Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Finds the throttling in the causes of the given exception, which may have been wrapped by the resilience
+     * layer.
+     *
+     * @param e the exception
+     * @return the throttling, or {@code null} if the exception was not caused by throttling
+     */
+    static ThrottledException of(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ThrottledException throttled) {
+                return throttled;
+            }
+        }
+        return null;
+    }
+}
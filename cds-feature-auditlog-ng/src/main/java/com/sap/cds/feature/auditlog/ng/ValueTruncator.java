@@ -0,0 +1,98 @@
+/*
+ * © 2026 SAP SE or an SAP affiliate company. All rights reserved.
+ */
+package com.sap.cds.feature.auditlog.ng;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Caps the length of changed values written to data modification and configuration change events.
+ *
+ * A value exceeding the maximum length is cut after the maximum length and a marker with the original length and
+ * the SHA-256 digest of the complete UTF-8 encoded value is appended. The digest is computed by streaming the value
+ * through a small per-thread buffer, so the value is never copied as a whole.
+ */
+final class ValueTruncator {
+
+    static final String MARKER = "...[truncated, length=%d, sha256=%s]";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final ThreadLocal<Sha256> SHA256 = ThreadLocal.withInitial(Sha256::new);
+
+    private final int maxLength;
+
+    /**
+     * @param maxLength the maximum number of characters kept, a negative value disables truncation
+     */
+    ValueTruncator(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the value, truncated and marked if it exceeds the maximum length.
+     *
+     * @param value the value, not {@code null}
+     * @return the value or its truncated form
+     */
+    String truncate(String value) {
+        if (maxLength < 0 || value.length() <= maxLength) {
+            return value;
+        }
+        int end = maxLength;
+        if (end > 0 && Character.isHighSurrogate(value.charAt(end - 1))) {
+            end--; // don't split a surrogate pair
+        }
+        String digest = SHA256.get().digest(value);
+        return new StringBuilder(end + MARKER.length() + 64)
+                .append(value, 0, end)
+                .append(MARKER.formatted(value.length(), digest))
+                .toString();
+    }
+
+    private static final class Sha256 {
+
+        private final MessageDigest digest;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Sha256() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not supported", e);
+            }
+        }
+
+        String digest(CharSequence value) {
+            CharBuffer in = CharBuffer.wrap(value);
+            encoder.reset();
+            digest.reset();
+            CoderResult result;
+            do {
+                result = encoder.encode(in, buffer, true);
+                drain();
+            } while (result.isOverflow());
+            while (encoder.flush(buffer).isOverflow()) {
+                drain();
+            }
+            drain();
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private void drain() {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+    }
+}
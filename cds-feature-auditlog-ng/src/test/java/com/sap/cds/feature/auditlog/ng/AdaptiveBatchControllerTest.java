@@ -0,0 +1,99 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.cds.services.utils.ErrorStatusException;
+
+public class AdaptiveBatchControllerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+    private static final long NO_DEADLINE = System.nanoTime() + Duration.ofHours(1).toNanos();
+
+    private static AdaptiveBatchController controller(Duration maxWait) {
+        AuditLogNGProperties properties = AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.batching.adaptive", true,
+                "cds.auditlog.ng.batching.initial-size", 100,
+                "cds.auditlog.ng.batching.min-size", 10,
+                "cds.auditlog.ng.batching.max-size", 200,
+                "cds.auditlog.ng.batching.max-concurrency", 4,
+                "cds.auditlog.ng.batching.target-latency", Duration.ofSeconds(1)));
+        return new AdaptiveBatchController(properties.getBatching(), maxWait, "eu10/sap.test");
+    }
+
+    @Test
+    public void testAdditiveIncreaseOnFastResponses() {
+        AdaptiveBatchController controller = controller(Duration.ZERO);
+        assertEquals(100, controller.getBatchSize());
+        assertEquals(1, controller.getConcurrencyLimit());
+        for (int i = 0; i < 20; i++) {
+            controller.acquire(NO_DEADLINE);
+            assertEquals(1, controller.getInFlight());
+            controller.onResponse(201, FAST);
+        }
+        assertEquals(200, controller.getBatchSize());
+        assertEquals(4, controller.getConcurrencyLimit());
+        assertEquals(0, controller.getInFlight());
+    }
+
+    @Test
+    public void testMultiplicativeDecreaseOnThrottling() {
+        AdaptiveBatchController controller = controller(Duration.ZERO);
+        controller.acquire(NO_DEADLINE);
+        controller.onResponse(429, FAST);
+        assertEquals(50, controller.getBatchSize());
+        for (int i = 0; i < 5; i++) {
+            controller.acquire(NO_DEADLINE);
+            controller.onFailure();
+        }
+        assertEquals(10, controller.getBatchSize());
+        assertEquals(1, controller.getConcurrencyLimit());
+    }
+
+    @Test
+    public void testSlowAndRejectedResponses() {
+        AdaptiveBatchController controller = controller(Duration.ZERO);
+        controller.acquire(NO_DEADLINE);
+        controller.onResponse(201, SLOW);
+        assertEquals(90, controller.getBatchSize());
+        controller.acquire(NO_DEADLINE);
+        controller.onResponse(400, FAST);
+        assertEquals(90, controller.getBatchSize());
+        assertEquals(0, controller.getInFlight());
+    }
+
+    @Test
+    public void testAcquireWaitsForConcurrencyLimit() throws Exception {
+        AdaptiveBatchController controller = controller(Duration.ofSeconds(10));
+        controller.acquire(NO_DEADLINE);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> controller.acquire(NO_DEADLINE));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+        controller.onResponse(204, FAST);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(1, controller.getInFlight());
+    }
+
+    @Test
+    public void testAcquireTimesOut() {
+        AdaptiveBatchController controller = controller(Duration.ofMillis(50));
+        controller.acquire(NO_DEADLINE);
+        assertThrows(ErrorStatusException.class, () -> controller.acquire(NO_DEADLINE));
+    }
+
+    @Test
+    public void testAcquireWaitsUntilDeadline() {
+        AdaptiveBatchController controller = controller(Duration.ofSeconds(30));
+        controller.acquire(NO_DEADLINE);
+        long start = System.nanoTime();
+        assertThrows(ErrorStatusException.class, () -> controller.acquire(start + Duration.ofMillis(50).toNanos()));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+    }
+}
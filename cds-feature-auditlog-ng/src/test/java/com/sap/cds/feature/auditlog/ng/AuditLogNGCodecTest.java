@@ -0,0 +1,233 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.Error;
+import com.networknt.schema.Schema;
+import com.networknt.schema.SchemaRegistry;
+import com.networknt.schema.SpecificationVersion;
+import com.sap.cds.services.EventContext;
+import com.sap.cds.services.auditlog.Access;
+import com.sap.cds.services.auditlog.Attribute;
+import com.sap.cds.services.auditlog.ChangedAttribute;
+import com.sap.cds.services.auditlog.ConfigChange;
+import com.sap.cds.services.auditlog.ConfigChangeLog;
+import com.sap.cds.services.auditlog.ConfigChangeLogContext;
+import com.sap.cds.services.auditlog.DataAccessLog;
+import com.sap.cds.services.auditlog.DataAccessLogContext;
+import com.sap.cds.services.auditlog.DataModification;
+import com.sap.cds.services.auditlog.DataModificationLog;
+import com.sap.cds.services.auditlog.DataModificationLogContext;
+import com.sap.cds.services.auditlog.DataObject;
+import com.sap.cds.services.auditlog.DataSubject;
+import com.sap.cds.services.auditlog.KeyValuePair;
+import com.sap.cds.services.auditlog.SecurityLog;
+import com.sap.cds.services.auditlog.SecurityLogContext;
+import com.sap.cds.services.mt.TenantProviderService;
+import com.sap.cds.services.request.UserInfo;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+/**
+ * Golden-output tests that every discovered {@link AuditLogNGCodec} produces the committed expected output in
+ * {@code src/test/resources/codec} and that the output is valid against the event schemas. The generated ids and
+ * timestamps are masked before comparing.
+ */
+public class AuditLogNGCodecTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern UUID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final Pattern TIMESTAMP = Pattern.compile("\\d{4}-\\d{2}-\\d{2}T[\\d:.]+Z");
+
+    static Stream<Arguments> codecsAndEvents() throws Exception {
+        List<AuditLogNGCodec> codecs = AuditLogNGCodecs.all();
+        assertTrue(codecs.stream().anyMatch(c -> c instanceof JacksonAuditLogNGCodec), "Default codec not discovered");
+        assertTrue(codecs.stream().anyMatch(c -> c instanceof ReferenceAuditLogNGCodec), "Drop-in codec not discovered");
+        List<Arguments> events = List.of(
+            Arguments.of("security", "legacy-security-wrapper-schema.json", securityEvents()),
+            Arguments.of("data-access", "dpp-data-access-schema.json", dataAccessEvents()),
+            Arguments.of("configuration-change", "configuration-change-schema.json", configChangeEvents()),
+            Arguments.of("data-modification", "dpp-data-modification-schema.json", dataModificationEvents()),
+            Arguments.of("general-event", "general-event-schema.json", generalEvents(false)),
+            Arguments.of("general-event-passthrough", "general-event-schema.json", generalEvents(true)));
+        return codecs.stream().flatMap(codec -> events.stream()
+            .map(e -> Arguments.of(codec.getName(), e.get()[0], e.get()[1], codec, e.get()[2])));
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("codecsAndEvents")
+    public void testEncodeMatchesExpectedOutputAndSchema(String name, String golden, String schema, AuditLogNGCodec codec,
+            JsonNode events) throws Exception {
+        byte[] encoded = codec.encode(events);
+        String expected = Files.readString(Path.of("src/test/resources/codec/" + golden + ".json"), StandardCharsets.UTF_8);
+        assertEquals(expected.strip(), mask(new String(encoded, StandardCharsets.UTF_8)));
+        JsonNode actual = MAPPER.readTree(encoded);
+        assertTrue(actual.isArray() && actual.size() > 0);
+        Schema jsonSchema = SchemaRegistry.withDefaultDialect(SpecificationVersion.DRAFT_2020_12)
+            .getSchema(MAPPER.readTree(new File("src/test/resources/" + schema)));
+        List<Error> errors = new ArrayList<>();
+        for (JsonNode event : actual) {
+            errors.addAll(jsonSchema.validate(event, ctx -> ctx.executionConfig(cfg -> cfg.formatAssertionsEnabled(true))));
+        }
+        assertEquals(0, errors.size(), "Schema validation errors: " + errors);
+    }
+
+    private static String mask(String json) {
+        return TIMESTAMP.matcher(UUID.matcher(json).replaceAll("<uuid>")).replaceAll("<timestamp>");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("codecs")
+    public void testReadTree(String name, AuditLogNGCodec codec) throws Exception {
+        String json = "{\"a\":[1,\"two\",{\"three\":null}],\"b\":true}";
+        assertEquals(MAPPER.readTree(json), codec.readTree(json));
+    }
+
+    static Stream<Arguments> codecs() {
+        return AuditLogNGCodecs.all().stream().map(codec -> Arguments.of(codec.getName(), codec));
+    }
+
+    @Test
+    public void testLoadByName() {
+        assertInstanceOf(JacksonAuditLogNGCodec.class, AuditLogNGCodecs.load(AuditLogNGProperties.defaults().getCodec()));
+        assertInstanceOf(ReferenceAuditLogNGCodec.class, AuditLogNGCodecs.load(ReferenceAuditLogNGCodec.NAME));
+        assertThrows(ErrorStatusException.class, () -> AuditLogNGCodecs.load("unknown"));
+    }
+
+    private static JsonNode securityEvents() throws Exception {
+        SecurityLog data = SecurityLog.create();
+        data.setAction("login");
+        data.setData("user \"admin\" logged in\r\nfrom 127.0.0.1");
+        SecurityLogContext context = mock(SecurityLogContext.class);
+        UserInfo userInfo = userInfo();
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getData()).thenReturn(data);
+        return capture(false, handler -> handler.handleSecurityEvent(context));
+    }
+
+    private static JsonNode dataAccessEvents() throws Exception {
+        Attribute attribute = Attribute.create();
+        attribute.setName("email");
+        Access access = Access.create();
+        access.setDataObject(dataObject("User", "user-1"));
+        access.setDataSubject(dataSubject("Person", "user-1"));
+        access.setAttributes(List.of(attribute));
+        DataAccessLog data = DataAccessLog.create();
+        data.setAccesses(List.of(access));
+        DataAccessLogContext context = mock(DataAccessLogContext.class);
+        UserInfo userInfo = userInfo();
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getData()).thenReturn(data);
+        return capture(false, handler -> handler.handleDataAccessEvent(context));
+    }
+
+    private static JsonNode configChangeEvents() throws Exception {
+        ConfigChange change = ConfigChange.create();
+        change.setDataObject(dataObject("AppConfig", "app-1"));
+        change.setAttributes(List.of(changedAttribute("logLevel", "INFO", "DEBUG")));
+        ConfigChangeLog data = ConfigChangeLog.create();
+        data.setConfigurations(List.of(change));
+        ConfigChangeLogContext context = mock(ConfigChangeLogContext.class);
+        UserInfo userInfo = userInfo();
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getData()).thenReturn(data);
+        return capture(false, handler -> handler.handleConfigChangeEvent(context));
+    }
+
+    private static JsonNode dataModificationEvents() throws Exception {
+        DataModification modification = DataModification.create();
+        modification.setDataObject(dataObject("User", "user-1"));
+        modification.setDataSubject(dataSubject("Person", "user-1"));
+        modification.setAttributes(List.of(changedAttribute("email", "old@example.com", "newé@example.com"),
+            changedAttribute("phone", null, "12345")));
+        DataModificationLog data = DataModificationLog.create();
+        data.setModifications(List.of(modification));
+        DataModificationLogContext context = mock(DataModificationLogContext.class);
+        UserInfo userInfo = userInfo();
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getData()).thenReturn(data);
+        return capture(false, handler -> handler.handleDataModificationEvent(context));
+    }
+
+    private static JsonNode generalEvents(boolean passthrough) throws Exception {
+        EventContext context = mock(EventContext.class);
+        UserInfo userInfo = userInfo();
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getEvent()).thenReturn("dataExport");
+        when(context.get("data")).thenReturn(Map.of("event", "{\"channelType\":\"UNSPECIFIED\",\"objectId\":\"o\\u00e9\"}"));
+        return capture(passthrough, handler -> handler.handleGeneralEvent(context));
+    }
+
+    private static JsonNode capture(boolean passthrough, HandlerCall call) throws Exception {
+        AuditLogNGCommunicator communicator = mock(AuditLogNGCommunicator.class);
+        when(communicator.getRegion()).thenReturn("eu10");
+        when(communicator.getNamespace()).thenReturn("namespace");
+        TenantProviderService tenantService = mock(TenantProviderService.class);
+        when(tenantService.readProviderTenant()).thenReturn("provider");
+        AuditLogNGProperties properties = AuditLogNGHandlerTest.properties(
+            Map.of("cds.auditlog.ng.general-events.passthrough", passthrough));
+        call.run(new AuditLogNGHandler(communicator, tenantService, properties));
+        ArgumentCaptor<JsonNode> captor = ArgumentCaptor.forClass(JsonNode.class);
+        verify(communicator).sendBulkRequest(captor.capture());
+        return captor.getValue();
+    }
+
+    private static UserInfo userInfo() {
+        UserInfo userInfo = mock(UserInfo.class);
+        when(userInfo.getName()).thenReturn("alice");
+        when(userInfo.getTenant()).thenReturn("tenant-1");
+        return userInfo;
+    }
+
+    private static DataObject dataObject(String type, String id) {
+        DataObject dataObject = DataObject.create();
+        dataObject.setType(type);
+        dataObject.setId(List.of(keyValuePair("id", id)));
+        return dataObject;
+    }
+
+    private static DataSubject dataSubject(String type, String id) {
+        DataSubject dataSubject = DataSubject.create();
+        dataSubject.setType(type);
+        dataSubject.setId(List.of(keyValuePair("id", id)));
+        return dataSubject;
+    }
+
+    private static KeyValuePair keyValuePair(String key, String value) {
+        KeyValuePair pair = KeyValuePair.create();
+        pair.setKeyName(key);
+        pair.setValue(value);
+        return pair;
+    }
+
+    private static ChangedAttribute changedAttribute(String name, String oldValue, String newValue) {
+        ChangedAttribute attribute = ChangedAttribute.create();
+        attribute.setName(name);
+        attribute.setOldValue(oldValue);
+        attribute.setNewValue(newValue);
+        return attribute;
+    }
+
+    @FunctionalInterface
+    private interface HandlerCall {
+        void run(AuditLogNGHandler handler) throws Exception;
+    }
+}
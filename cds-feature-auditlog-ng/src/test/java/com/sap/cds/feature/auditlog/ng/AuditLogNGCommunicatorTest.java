@@ -0,0 +1,385 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.cds.services.utils.ErrorStatusException;
+import com.sap.cloud.environment.servicebinding.api.ServiceBinding;
+
+import io.opentelemetry.context.Scope;
+
+public class AuditLogNGCommunicatorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private CloseableHttpClient httpClient;
+    private List<JsonNode> requests;
+    private volatile boolean rejectPoison;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        httpClient = mock(CloseableHttpClient.class);
+        requests = new ArrayList<>();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            HttpPost post = invocation.getArgument(0);
+            requests.add(MAPPER.readTree(EntityUtils.toByteArray(post.getEntity())));
+            return response(201, "{\"count\":" + requests.get(requests.size() - 1).size() + "}");
+        });
+    }
+
+    static ServiceBinding binding() {
+        ServiceBinding binding = mock(ServiceBinding.class);
+        when(binding.getCredentials()).thenReturn(Map.of(
+                "url", "https://auditlog.example.com",
+                "region", "eu10",
+                "namespace", "sap.test"));
+        return binding;
+    }
+
+    static AuditLogNGCommunicator communicator(AuditLogNGProperties properties, CloseableHttpClient httpClient) {
+        ServiceBinding binding = binding();
+        return new AuditLogNGCommunicator(binding, properties, new PayloadMemoryBudget(properties.getMemoryBudget()),
+                new ReloadableHttpClient(() -> binding, b -> httpClient, Duration.ZERO));
+    }
+
+    static CloseableHttpResponse response(int statusCode, String body) throws Exception {
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null));
+        when(response.getEntity()).thenReturn(new StringEntity(body));
+        return response;
+    }
+
+    private static ArrayNode events(int count) {
+        ArrayNode events = MAPPER.createArrayNode();
+        for (int i = 0; i < count; i++) {
+            events.addObject().put("id", String.valueOf(i));
+        }
+        return events;
+    }
+
+    @Test
+    public void testSendsAllEventsInOneRequestByDefault() throws Exception {
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGProperties.defaults(), httpClient);
+        assertNull(communicator.getBatchController());
+        assertEquals("{\"count\":1000}", communicator.sendBulkRequest(events(1000)));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testMeasuresLatencyOfResponses() throws Exception {
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGProperties.defaults(), httpClient);
+        assertEquals(0, communicator.getLatencyNanos());
+        communicator.sendBulkRequest(events(1));
+        assertTrue(communicator.getLatencyNanos() > 0);
+        communicator.resetLatency();
+        assertEquals(0, communicator.getLatencyNanos());
+    }
+
+    @Test
+    public void testAdaptiveBatchingSplitsInOrder() throws Exception {
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.batching.adaptive", true,
+                "cds.auditlog.ng.batching.initial-size", 100,
+                "cds.auditlog.ng.batching.min-size", 10)), httpClient);
+        communicator.sendBulkRequest(events(250));
+
+        assertEquals(List.of(100, 110, 40), requests.stream().map(JsonNode::size).toList());
+        int expected = 0;
+        for (JsonNode request : requests) {
+            for (JsonNode event : request) {
+                assertEquals(String.valueOf(expected++), event.get("id").asText());
+            }
+        }
+        assertEquals(130, communicator.getBatchController().getBatchSize());
+        assertEquals(0, communicator.getBatchController().getInFlight());
+    }
+
+    @Test
+    public void testFailureAfterDeliveredBatchReportsUndeliveredEvents() throws Exception {
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            requests.add(MAPPER.readTree(EntityUtils.toByteArray(((HttpPost) invocation.getArgument(0)).getEntity())));
+            return requests.size() == 1 ? response(201, "{}") : response(503, "{}");
+        });
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.batching.adaptive", true,
+                "cds.auditlog.ng.batching.initial-size", 100,
+                "cds.auditlog.ng.batching.min-size", 10)), httpClient);
+
+        PartialDeliveryException e = assertThrows(PartialDeliveryException.class, () -> communicator.sendBulkRequest(events(250)));
+        assertEquals(150, e.getUndelivered().size());
+        assertEquals("100", e.getUndelivered().get(0).get("id").asText());
+        assertEquals("249", e.getUndelivered().get(149).get("id").asText());
+    }
+
+    @Test
+    public void testFailureWithoutDeliveredEventsIsNotPartial() throws Exception {
+        CloseableHttpResponse unavailable = response(503, "{}");
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(unavailable);
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGProperties.defaults(), httpClient);
+
+        ErrorStatusException e = assertThrows(ErrorStatusException.class, () -> communicator.sendBulkRequest(events(4)));
+        assertNull(PartialDeliveryException.of(e));
+    }
+
+    @Test
+    public void testRejectedEventsAreIsolatedAndStored(@TempDir Path dir) throws Exception {
+        rejectPoisonedRequests();
+        Path file = dir.resolve("dead-letters.ndjson");
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.dead-letter.file", file.toString())), httpClient);
+        ArrayNode events = events(8);
+        ((ObjectNode) events.get(5)).put("poison", true);
+
+        communicator.sendBulkRequest(events);
+
+        // 1 rejected bulk, then halves [0-3] ok, [4-7] rejected, [4,5] rejected, [4] ok, [5] rejected, [6,7] ok
+        assertEquals(7, requests.size());
+        assertEquals(List.of("0", "1", "2", "3", "4", "6", "7"), delivered());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        JsonNode record = MAPPER.readTree(lines.get(0));
+        assertEquals(400, record.get("status").asInt());
+        assertEquals("{\"error\":\"poison\"}", record.get("response").asText());
+        assertEquals("5", record.get("event").get("id").asText());
+
+        // the service accepts the event now
+        rejectPoison = false;
+        requests.clear();
+        assertEquals(1, communicator.replayDeadLetters());
+        assertEquals(1, requests.size());
+        assertEquals("5", requests.get(0).get(0).get("id").asText());
+        assertFalse(Files.exists(file));
+        assertEquals(0, communicator.replayDeadLetters());
+    }
+
+    @Test
+    public void testReplayStoresEventsRejectedAgain(@TempDir Path dir) throws Exception {
+        rejectPoisonedRequests();
+        Path file = dir.resolve("dead-letters.ndjson");
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.dead-letter.file", file.toString())), httpClient);
+        ArrayNode events = events(2);
+        ((ObjectNode) events.get(0)).put("poison", true);
+        communicator.sendBulkRequest(events);
+
+        assertEquals(1, communicator.replayDeadLetters());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertEquals("0", MAPPER.readTree(lines.get(0)).get("event").get("id").asText());
+    }
+
+    @Test
+    public void testRefusedRequestIsNeitherBisectedNorStored(@TempDir Path dir) throws Exception {
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            requests.add(MAPPER.readTree(EntityUtils.toByteArray(((HttpPost) invocation.getArgument(0)).getEntity())));
+            return response(401, "{\"error\":\"unauthorized\"}");
+        });
+        Path file = dir.resolve("dead-letters.ndjson");
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.dead-letter.file", file.toString())), httpClient);
+
+        assertThrows(RequestRefusedException.class, () -> communicator.sendBulkRequest(events(4)));
+        assertEquals(1, requests.size());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testRefusalStopsBisection(@TempDir Path dir) throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            requests.add(MAPPER.readTree(EntityUtils.toByteArray(((HttpPost) invocation.getArgument(0)).getEntity())));
+            // the payload is rejected first, then the certificate expires
+            return calls.incrementAndGet() == 1 ? response(400, "{}") : response(403, "{}");
+        });
+        Path file = dir.resolve("dead-letters.ndjson");
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.dead-letter.file", file.toString())), httpClient);
+
+        assertThrows(RequestRefusedException.class, () -> communicator.sendBulkRequest(events(4)));
+        assertEquals(2, requests.size());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testRejectedEventsFailWithoutDeadLetterStore() throws Exception {
+        rejectPoisonedRequests();
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGProperties.defaults(), httpClient);
+        ArrayNode events = events(4);
+        ((ObjectNode) events.get(0)).put("poison", true);
+
+        assertThrows(ErrorStatusException.class, () -> communicator.sendBulkRequest(events));
+        // rejections are not retried, the valid events are delivered nevertheless
+        assertEquals(List.of("1", "2", "3"), delivered());
+        assertEquals(5, requests.size());
+    }
+
+    private void rejectPoisonedRequests() throws Exception {
+        rejectPoison = true;
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            HttpPost post = invocation.getArgument(0);
+            JsonNode request = MAPPER.readTree(EntityUtils.toByteArray(post.getEntity()));
+            requests.add(request);
+            for (JsonNode event : request) {
+                if (rejectPoison && event.has("poison")) {
+                    return response(400, "{\"error\":\"poison\"}");
+                }
+            }
+            return response(201, "{\"count\":" + request.size() + "}");
+        });
+    }
+
+    private List<String> delivered() {
+        List<String> ids = new ArrayList<>();
+        for (JsonNode request : requests) {
+            if (request.findValue("poison") == null) {
+                request.forEach(event -> ids.add(event.get("id").asText()));
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    public void testThrottledRequestIsSentAgainAfterRetryAfter() throws Exception {
+        List<Long> sentAt = new ArrayList<>();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            sentAt.add(System.nanoTime());
+            if (sentAt.size() == 1) {
+                CloseableHttpResponse response = response(429, "{}");
+                when(response.getFirstHeader(HttpHeaders.RETRY_AFTER)).thenReturn(new BasicHeader(HttpHeaders.RETRY_AFTER, "1"));
+                return response;
+            }
+            return response(201, "{\"count\":1}");
+        });
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGProperties.defaults(), httpClient);
+
+        assertEquals("{\"count\":1}", communicator.sendBulkRequest(events(1)));
+        assertEquals(2, sentAt.size());
+        assertTrue(Duration.ofNanos(sentAt.get(1) - sentAt.get(0)).toMillis() >= 900);
+    }
+
+    @Test
+    public void testThrottledRequestFailsAfterMaxWait() throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            sent.incrementAndGet();
+            return response(429, "{}");
+        });
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.rate-limit.throttle-backoff", Duration.ofMillis(100),
+                "cds.auditlog.ng.rate-limit.max-wait", Duration.ofMillis(250))), httpClient);
+
+        assertThrows(ErrorStatusException.class, () -> communicator.sendBulkRequest(events(1)));
+        // no immediate retries, only the paced repetitions within the maximum wait time
+        assertTrue(sent.get() >= 2 && sent.get() <= 3, "sent " + sent.get());
+    }
+
+    @Test
+    public void testNoRetryAfterDeadline() throws Exception {
+        List<RequestConfig> configs = new ArrayList<>();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            configs.add(((HttpPost) invocation.getArgument(0)).getConfig());
+            return response(503, "{}");
+        });
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGProperties.defaults(), httpClient);
+
+        try (Scope scope = AuditLogNGDeadline.withBudget(Duration.ofMillis(300))) {
+            ErrorStatusException e = assertThrows(ErrorStatusException.class, () -> communicator.sendBulkRequest(events(1)));
+            assertEquals("http", DeadlineExceededException.of(e).getStage());
+        }
+        // the retry would start after the deadline
+        assertEquals(1, configs.size());
+        assertTrue(configs.get(0).getSocketTimeout() <= 300);
+        assertTrue(configs.get(0).getConnectTimeout() <= 300);
+        assertTrue(configs.get(0).getConnectionRequestTimeout() <= 300);
+    }
+
+    @Test
+    public void testNoRequestAfterDeadline() throws Exception {
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGProperties.defaults(), httpClient);
+
+        try (Scope scope = AuditLogNGDeadline.withBudget(Duration.ZERO)) {
+            ErrorStatusException e = assertThrows(ErrorStatusException.class, () -> communicator.sendBulkRequest(events(1)));
+            assertEquals("serialize", DeadlineExceededException.of(e).getStage());
+        }
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    public void testWarmUpOpensConnectionsWithoutSendingEvents() throws Exception {
+        List<String> methods = new ArrayList<>();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            synchronized (methods) {
+                methods.add(((HttpUriRequest) invocation.getArgument(0)).getMethod());
+            }
+            return response(405, "");
+        });
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGProperties.defaults(), httpClient);
+
+        assertEquals(2, communicator.warmUpConnections(2, Duration.ofSeconds(5)));
+        assertEquals(List.of("OPTIONS", "OPTIONS"), methods);
+    }
+
+    @Test
+    public void testCapturesRequestsAndResponses() throws Exception {
+        rejectPoisonedRequests();
+        AuditLogNGCommunicator communicator = communicator(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.capture.size", 10)), httpClient);
+        ArrayNode events = events(2);
+        ((ObjectNode) events.get(1)).put("poison", true);
+
+        assertThrows(ErrorStatusException.class, () -> communicator.sendBulkRequest(events));
+        List<PayloadCapture.Entry> entries = communicator.getCapture().getEntries();
+        // the bulk request is rejected and bisected into two requests
+        assertEquals(6, entries.size());
+        assertEquals(events, MAPPER.readTree(entries.get(0).payload()));
+        assertEquals(PayloadCapture.RESPONSE, entries.get(1).direction());
+        assertEquals(400, entries.get(1).status());
+        assertEquals(entries.get(0).sequence(), entries.get(1).requestId());
+        assertEquals("{\"count\":1}", entries.get(3).payload());
+        assertEquals(entries.get(2).sequence(), entries.get(3).requestId());
+    }
+
+    @Test
+    public void testRetryAfterHeader() throws Exception {
+        CloseableHttpResponse response = response(429, "{}");
+        assertNull(AuditLogNGCommunicator.retryAfter(response));
+        when(response.getFirstHeader(HttpHeaders.RETRY_AFTER)).thenReturn(new BasicHeader(HttpHeaders.RETRY_AFTER, "120"));
+        assertEquals(Duration.ofSeconds(120), AuditLogNGCommunicator.retryAfter(response));
+        String date = DateUtils.formatDate(new Date(System.currentTimeMillis() + 60_000));
+        when(response.getFirstHeader(HttpHeaders.RETRY_AFTER)).thenReturn(new BasicHeader(HttpHeaders.RETRY_AFTER, date));
+        long seconds = AuditLogNGCommunicator.retryAfter(response).toSeconds();
+        assertTrue(seconds > 50 && seconds <= 60, "seconds " + seconds);
+        when(response.getFirstHeader(HttpHeaders.RETRY_AFTER)).thenReturn(new BasicHeader(HttpHeaders.RETRY_AFTER, "soon"));
+        assertNull(AuditLogNGCommunicator.retryAfter(response));
+    }
+}
@@ -0,0 +1,112 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.cds.CdsData;
+import com.sap.cds.services.application.ApplicationLifecycleService;
+import com.sap.cds.services.auditlog.SecurityLog;
+import com.sap.cds.services.auditlog.SecurityLogContext;
+import com.sap.cds.services.environment.CdsProperties;
+import com.sap.cds.services.environment.PropertiesProvider;
+import com.sap.cds.services.impl.environment.SimplePropertiesProvider;
+import com.sap.cds.services.request.UserInfo;
+import com.sap.cds.services.runtime.CdsRuntime;
+import com.sap.cds.services.runtime.CdsRuntimeConfigurer;
+
+public class AuditLogNGConfigurationTest {
+
+    /**
+     * Creates a runtime with the configurations of the classpath, including the {@link AuditLogNGConfiguration}, and
+     * the given properties.
+     */
+    static CdsRuntime runtime(Map<String, Object> properties) {
+        PropertiesProvider defaults = new SimplePropertiesProvider(new CdsProperties());
+        PropertiesProvider provider = new PropertiesProvider() {
+            @Override
+            public <T> T bindPropertyClass(String prefix, Class<T> type) {
+                return defaults.bindPropertyClass(prefix, type);
+            }
+
+            @Override
+            public String getProperty(String key, String defaultValue) {
+                return (String) properties.getOrDefault(key, defaultValue);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getProperty(String key, Class<T> type, T defaultValue) {
+                return properties.containsKey(key) ? (T) properties.get(key) : defaultValue;
+            }
+        };
+        return CdsRuntimeConfigurer.create(provider).serviceConfigurations().eventHandlerConfigurations().complete();
+    }
+
+    static InMemoryAuditLogNGSink sinkOf(AuditLogNGHandler handler) {
+        return (InMemoryAuditLogNGSink) handler.getSink();
+    }
+
+    @Test
+    public void testHandlerIsNotRegisteredWithoutBinding() {
+        CdsRuntime runtime = runtime(Map.of());
+
+        assertTrue(AuditLogNGHandler.get(runtime).isEmpty());
+    }
+
+    @Test
+    public void testSubmitThroughRuntime() throws Exception {
+        CdsRuntime runtime = runtime(Map.of("cds.auditlog.ng.sink.name", InMemoryAuditLogNGSink.NAME));
+        AuditLogNGHandler handler = AuditLogNGHandler.get(runtime).orElseThrow();
+
+        CompletableFuture<Void> delivery = runtime.requestContext().run(requestContext -> {
+            SecurityLog data = SecurityLog.create();
+            data.setAction("login");
+            data.setData("batch job");
+            SecurityLogContext context = SecurityLogContext.create();
+            context.setData(data);
+            return handler.submit(context);
+        });
+        delivery.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, sinkOf(handler).getEvents().size());
+        assertEquals("legacySecurityWrapper", sinkOf(handler).getEvents().get(0).get("type").asText());
+    }
+
+    @Test
+    public void testSubscriberThroughRuntime() throws Exception {
+        CdsRuntime runtime = runtime(Map.of("cds.auditlog.ng.sink.name", InMemoryAuditLogNGSink.NAME,
+            "cds.auditlog.ng.subscriber.batch-size", 2));
+        AuditLogNGHandler handler = AuditLogNGHandler.get(runtime).orElseThrow();
+        AuditLogNGSubscriber subscriber = handler.subscriber(UserInfo.create().setName("stream").setTenant("t1"));
+
+        try (SubmissionPublisher<CdsData> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(subscriber);
+            for (String attribute : List.of("a", "b", "c")) {
+                publisher.submit(AuditLogNGHandlerTest.dataModificationLog(attribute));
+            }
+        }
+        subscriber.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a", "b", "c"), sinkOf(handler).getEvents().stream()
+            .map(event -> event.findValue("attribute").asText()).sorted().toList());
+    }
+
+    @Test
+    public void testHandlerIsClosedWhenApplicationStops() {
+        CdsRuntime runtime = runtime(Map.of("cds.auditlog.ng.sink.name", InMemoryAuditLogNGSink.NAME));
+        AuditLogNGHandler handler = AuditLogNGHandler.get(runtime).orElseThrow();
+        assertFalse(handler.isClosed());
+
+        runtime.getServiceCatalog().getService(ApplicationLifecycleService.class, ApplicationLifecycleService.DEFAULT_NAME)
+            .applicationStopped();
+
+        assertTrue(handler.isClosed());
+    }
+}
@@ -0,0 +1,61 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.context.Scope;
+
+public class AuditLogNGDeadlineTest {
+
+    @Test
+    public void testNoDeadlineByDefault() {
+        assertNull(AuditLogNGDeadline.current());
+    }
+
+    @Test
+    public void testCallerDeadlineIsScoped() {
+        try (Scope scope = AuditLogNGDeadline.withBudget(Duration.ofSeconds(5))) {
+            Duration remaining = AuditLogNGDeadline.current().remaining();
+            assertTrue(remaining.compareTo(Duration.ofSeconds(4)) > 0 && remaining.compareTo(Duration.ofSeconds(5)) <= 0);
+        }
+        assertNull(AuditLogNGDeadline.current());
+    }
+
+    @Test
+    public void testEarlierDeadlineTakesPrecedence() {
+        try (Scope caller = AuditLogNGDeadline.withBudget(Duration.ofMillis(100))) {
+            AuditLogNGDeadline callerDeadline = AuditLogNGDeadline.current();
+            assertSame(callerDeadline, AuditLogNGDeadline.after(Duration.ofMinutes(2)));
+
+            AuditLogNGDeadline shorter = AuditLogNGDeadline.after(Duration.ofMillis(10));
+            assertNotSame(callerDeadline, shorter);
+            assertTrue(shorter.nanoTime() - callerDeadline.nanoTime() < 0);
+        }
+    }
+
+    @Test
+    public void testExpiredDeadlineFailsCheck() {
+        try (Scope scope = AuditLogNGDeadline.withBudget(Duration.ZERO)) {
+            AuditLogNGDeadline deadline = AuditLogNGDeadline.current();
+            assertTrue(deadline.isExpired());
+            assertEquals(Duration.ZERO, deadline.remaining());
+            DeadlineExceededException e = assertThrows(DeadlineExceededException.class, () -> deadline.check("build"));
+            assertEquals("build", e.getStage());
+        }
+    }
+
+    @Test
+    public void testBudgetPerEventType() {
+        AuditLogNGProperties.Deadlines deadlines = AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.deadline.default", Duration.ofSeconds(10),
+                "cds.auditlog.ng.deadline.event-types.legacySecurityWrapper", Duration.ofMillis(500))).getDeadlines();
+
+        assertEquals(Duration.ofMillis(500), deadlines.getBudget("legacySecurityWrapper"));
+        assertEquals(Duration.ofSeconds(10), deadlines.getBudget("dppDataAccess"));
+        assertEquals(Duration.ofSeconds(10), deadlines.getBudget(null));
+    }
+}
@@ -4,10 +4,20 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +35,7 @@ import com.networknt.schema.Schema;
 import com.networknt.schema.SchemaRegistry;
 import com.networknt.schema.SpecificationVersion;
 import com.networknt.schema.Error;
+import com.sap.cds.CdsData;
 import com.sap.cds.services.EventContext;
 import com.sap.cds.services.auditlog.Access;
 import com.sap.cds.services.auditlog.Attachment;
@@ -43,8 +54,13 @@ import com.sap.cds.services.auditlog.DataSubject;
 import com.sap.cds.services.auditlog.KeyValuePair;
 import com.sap.cds.services.auditlog.SecurityLog;
 import com.sap.cds.services.auditlog.SecurityLogContext;
+import com.sap.cds.services.changeset.ChangeSetContext;
+import com.sap.cds.services.changeset.ChangeSetListener;
+import com.sap.cds.services.environment.CdsEnvironment;
 import com.sap.cds.services.mt.TenantProviderService;
 import com.sap.cds.services.request.UserInfo;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
 
 public class AuditLogNGHandlerTest {
 
@@ -55,6 +71,8 @@ public class AuditLogNGHandlerTest {
     @Mock
     private UserInfo userInfo;
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private AuditLogNGHandler handler;
 
     @BeforeEach
@@ -267,6 +285,26 @@ public class AuditLogNGHandlerTest {
         runAndAssertEvent("src/test/resources/legacy-security-wrapper-schema.json", () -> handler.handleSecurityEvent(context));
     }
 
+    @Test
+    public void testHandleSecurityEvent_OrigEventEscaping() throws Exception {
+        SecurityLogContext context = mock(SecurityLogContext.class);
+        SecurityLog securityLog = mock(SecurityLog.class);
+        when(userInfo.getName()).thenReturn("j\"doe\\");
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getData()).thenReturn(securityLog);
+        when(securityLog.getAction()).thenReturn("login");
+        when(securityLog.getData()).thenReturn("{\"a\":\"b\"}\r\nline\ttwo\nend\r\u0001");
+        ArrayNode events = runAndAssertEvent("src/test/resources/legacy-security-wrapper-schema.json",
+            () -> handler.handleSecurityEvent(context));
+        String origEvent = events.get(0).get("data").get("data").get("legacySecurityWrapper").get("origEvent").asText();
+        JsonNode orig = MAPPER.readTree(origEvent);
+        assertEquals("j\"doe\\", orig.get("user").asText());
+        assertEquals("$IDP", orig.get("identityProvider").asText());
+        assertEquals("action: login, data: {\"a\":\"b\"}\\nline\ttwo\\nend\r\u0001", orig.get("data").asText());
+        assertNotNull(orig.get("uuid"));
+        assertNotNull(orig.get("time"));
+    }
+
     @Test
     public void testHandleGeneralEvent_DataExportWrapping() throws Exception {
         // Prepare general context
@@ -294,6 +332,404 @@ public class AuditLogNGHandlerTest {
         Assertions.assertEquals("string", wrapped.get("channelId").asText());
     }
 
+    @Test
+    public void testHandleGeneralEvent_CustomMapper() throws Exception {
+        EventContext context = mock(EventContext.class);
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getEvent()).thenReturn(OrderExportEventMapper.EVENT);
+        when(context.get("orderId")).thenReturn("order-1");
+
+        ArrayNode events = runAndAssertEvent("src/test/resources/general-event-schema.json",
+            () -> handler.handleGeneralEvent(context));
+        JsonNode event = events.get(0);
+        assertEquals("dataExport", event.get("type").asText());
+        assertEquals("order-1", event.get("data").get("data").get("dataExport").get("objectId").asText());
+        verify(context, never()).get("data");
+    }
+
+    @Test
+    public void testHandleGeneralEvent_TypedContextWithoutProxy() throws Exception {
+        SecurityLogContext context = mock(SecurityLogContext.class);
+        SecurityLog securityLog = mock(SecurityLog.class);
+        when(context.getEvent()).thenReturn(SecurityLogContext.CDS_NAME);
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getData()).thenReturn(securityLog);
+        when(securityLog.getData()).thenReturn("security event data");
+
+        runAndAssertEvent("src/test/resources/legacy-security-wrapper-schema.json", () -> handler.handleGeneralEvent(context));
+        verify(context, never()).as(any());
+    }
+
+    @Test
+    public void testHandleGeneralEvent_Passthrough() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.general-events.passthrough", true)));
+        String innerJson = "{\"channelType\":\"UNSPECIFIED\",\"nested\":{\"list\":[1,2,{\"a\":null}]},\"objectId\":\"string\"}";
+        EventContext generalContext = mockGeneralEventContext("dataExport", innerJson);
+
+        ArrayNode events = runAndAssertEvent("src/test/resources/general-event-schema.json",
+            () -> handler.handleGeneralEvent(generalContext));
+        JsonNode wrapped = events.get(0).get("data").get("data").get("dataExport");
+        Assertions.assertEquals(MAPPER.readTree(innerJson), wrapped);
+    }
+
+    @Test
+    public void testHandleGeneralEvent_PassthroughRejectsInvalidJson() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.general-events.passthrough", true)));
+        for (String invalid : List.of("{\"a\":1", "[1,2]", "{\"a\":1}{\"b\":2}", "{\"a\":}")) {
+            EventContext generalContext = mockGeneralEventContext("dataExport", invalid);
+            assertThrows(ErrorStatusException.class, () -> handler.handleGeneralEvent(generalContext), invalid);
+        }
+        verify(communicator, never()).sendBulkRequest(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testHandleGeneralEvent_PassthroughLimits() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService, properties(Map.of(
+            "cds.auditlog.ng.general-events.passthrough", true,
+            "cds.auditlog.ng.general-events.max-depth", 3,
+            "cds.auditlog.ng.general-events.max-size", 32)));
+        EventContext tooDeep = mockGeneralEventContext("dataExport", "{\"a\":{\"b\":{\"c\":{}}}}");
+        assertThrows(ErrorStatusException.class, () -> handler.handleGeneralEvent(tooDeep));
+        EventContext tooLarge = mockGeneralEventContext("dataExport", "{\"a\":\"" + "x".repeat(32) + "\"}");
+        assertThrows(ErrorStatusException.class, () -> handler.handleGeneralEvent(tooLarge));
+        EventContext valid = mockGeneralEventContext("dataExport", "{\"a\":{\"b\":{}}}");
+        handler.handleGeneralEvent(valid);
+        verify(communicator).sendBulkRequest(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testHandleDataModificationEvent_TruncatesLargeValues() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.values.max-length", 16)));
+        String large = "ä".repeat(100_000);
+        ChangedAttribute attr = mockChangedAttribute("document", "short", large);
+        KeyValuePair id = mockKeyValuePair("id", "1");
+        DataModification modification = mockDataModification(List.of(attr), mockDataObject("Doc", List.of(id)), mockDataSubject("Person", List.of(id)));
+        DataModificationLog dataModificationLog = mock(DataModificationLog.class);
+        when(dataModificationLog.getModifications()).thenReturn(List.of(modification));
+        DataModificationLogContext context = mock(DataModificationLogContext.class);
+        when(context.getData()).thenReturn(dataModificationLog);
+        when(context.getUserInfo()).thenReturn(userInfo);
+
+        ArrayNode events = runAndAssertEvent("src/test/resources/dpp-data-modification-schema.json",
+            () -> handler.handleDataModificationEvent(context));
+        JsonNode dppNode = events.get(0).get("data").get("data").get("dppDataModification");
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(large.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("ä".repeat(16) + "...[truncated, length=100000, sha256=" + sha256 + "]", dppNode.get("newValue").asText());
+        assertEquals("short", dppNode.get("oldValue").asText());
+    }
+
+    @Test
+    public void testChangeSetAccumulation_SendsOnceOnCompletion() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.changeset-accumulation", true)));
+        ChangeSetContext changeSet = mock(ChangeSetContext.class);
+        DataModificationLogContext modificationContext = mockDataModificationContext(changeSet, "email", "phone");
+        DataAccessLogContext accessContext = mockDataAccessContext(changeSet, "name");
+
+        handler.handleDataModificationEvent(modificationContext);
+        handler.handleDataAccessEvent(accessContext);
+        handler.handleDataModificationEvent(modificationContext);
+        verify(communicator, never()).sendBulkRequest(ArgumentMatchers.any());
+
+        ArgumentCaptor<ChangeSetListener> listener = ArgumentCaptor.forClass(ChangeSetListener.class);
+        verify(changeSet).register(listener.capture());
+        listener.getValue().beforeClose();
+        listener.getValue().afterClose(true);
+
+        ArrayNode events = runAndAssertEvent(null, () -> {});
+        assertEquals(5, events.size());
+        assertEquals(List.of("dppDataModification", "dppDataModification", "dppDataAccess", "dppDataModification", "dppDataModification"),
+            events.findValuesAsText("type"));
+    }
+
+    @Test
+    public void testChangeSetAccumulation_FailureBeforeCloseCancelsChangeSet() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.changeset-accumulation", true)));
+        when(communicator.sendBulkRequest(ArgumentMatchers.any()))
+            .thenThrow(new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE));
+        ChangeSetContext changeSet = mock(ChangeSetContext.class);
+        handler.handleDataModificationEvent(mockDataModificationContext(changeSet, "email"));
+        handler.handleDataAccessEvent(mockDataAccessContext(changeSet, "name"));
+        ArgumentCaptor<ChangeSetListener> listener = ArgumentCaptor.forClass(ChangeSetListener.class);
+        verify(changeSet).register(listener.capture());
+
+        // the exception cancels the ChangeSet before the changes are committed
+        assertThrows(ErrorStatusException.class, () -> listener.getValue().beforeClose());
+        listener.getValue().afterClose(false);
+        verify(communicator, times(1)).sendBulkRequest(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testChangeSetAccumulation_FailureAfterCancelIsLogged() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.changeset-accumulation", true)));
+        when(communicator.sendBulkRequest(ArgumentMatchers.any()))
+            .thenThrow(new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE));
+        ChangeSetContext changeSet = mock(ChangeSetContext.class);
+        when(changeSet.isMarkedForCancel()).thenReturn(true);
+        handler.handleDataAccessEvent(mockDataAccessContext(changeSet, "name"));
+        ArgumentCaptor<ChangeSetListener> listener = ArgumentCaptor.forClass(ChangeSetListener.class);
+        verify(changeSet).register(listener.capture());
+
+        listener.getValue().beforeClose();
+        verify(communicator, never()).sendBulkRequest(ArgumentMatchers.any());
+        assertDoesNotThrow(() -> listener.getValue().afterClose(false));
+        verify(communicator, times(1)).sendBulkRequest(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testChangeSetAccumulation_DiscardsModificationsOnRollback() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.changeset-accumulation", true)));
+        ChangeSetContext changeSet = mock(ChangeSetContext.class);
+        handler.handleDataModificationEvent(mockDataModificationContext(changeSet, "email"));
+        handler.handleDataAccessEvent(mockDataAccessContext(changeSet, "name"));
+        ArgumentCaptor<ChangeSetListener> listener = ArgumentCaptor.forClass(ChangeSetListener.class);
+        verify(changeSet).register(listener.capture());
+        listener.getValue().afterClose(false);
+
+        ArrayNode events = runAndAssertEvent("src/test/resources/dpp-data-access-schema.json", () -> {});
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void testChangeSetAccumulation_WithoutChangeSetSendsImmediately() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.changeset-accumulation", true)));
+        runAndAssertEvent("src/test/resources/dpp-data-modification-schema.json",
+            () -> handler.handleDataModificationEvent(mockDataModificationContext(null, "email")));
+    }
+
+    @Test
+    public void testSubmit_CompletesOnDelivery() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.changeset-accumulation", true)));
+        List<String> threads = new ArrayList<>();
+        when(communicator.sendBulkRequest(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return "{}";
+        });
+        // submitted events are not accumulated, as the future completes on delivery
+        CompletableFuture<Void> delivery = handler.submit(mockDataModificationContext(mock(ChangeSetContext.class), "email"));
+        delivery.get(5, TimeUnit.SECONDS);
+
+        ArrayNode events = runAndAssertEvent("src/test/resources/dpp-data-modification-schema.json", () -> {});
+        assertEquals(1, events.size());
+        assertTrue(threads.get(0).startsWith("auditlog-ng-async-"), threads.get(0));
+    }
+
+    @Test
+    public void testSubmit_FailsWithTranslatedError() throws Exception {
+        when(communicator.sendBulkRequest(ArgumentMatchers.any())).thenThrow(new ErrorStatusException(
+            CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE));
+        CompletableFuture<Void> delivery = handler.submit(mockDataModificationContext(null, "email"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> delivery.get(5, TimeUnit.SECONDS));
+        assertEquals(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE,
+            ((ErrorStatusException) e.getCause()).getErrorStatus());
+
+        // events that cannot be built fail without being sent
+        CompletableFuture<Void> invalid = handler.submit(mockGeneralEventContext("dataExport", "{invalid"));
+        assertTrue(invalid.isCompletedExceptionally());
+        verify(communicator, times(1)).sendBulkRequest(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testSubmit_CancelledBeforeSendIsSkipped() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.async.threads", 1)));
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger sent = new AtomicInteger();
+        when(communicator.sendBulkRequest(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            sent.incrementAndGet();
+            sending.countDown();
+            release.await();
+            return "{}";
+        });
+        CompletableFuture<Void> first = handler.submit(mockDataModificationContext(null, "email"));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = handler.submit(mockDataModificationContext(null, "phone"));
+        CompletableFuture<Void> third = handler.submit(mockDataModificationContext(null, "name"))
+            .orTimeout(10, TimeUnit.MILLISECONDS);
+        assertTrue(second.cancel(false));
+        Thread.sleep(50);
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertThrows(ExecutionException.class, () -> third.get(5, TimeUnit.SECONDS));
+        // the queue is drained, the cancelled and the timed out bulk are skipped
+        handler.submit(mockDataModificationContext(null, "last")).get(5, TimeUnit.SECONDS);
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testPipelinedModificationLogIsSentInChunks() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService,
+            properties(Map.of("cds.auditlog.ng.pipeline.chunk-size", 2)));
+        List<List<String>> chunks = Collections.synchronizedList(new ArrayList<>());
+        when(communicator.sendBulkRequest(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            ArrayNode chunk = invocation.getArgument(0);
+            chunks.add(chunk.findValuesAsText("attribute"));
+            return "{}";
+        });
+
+        handler.handleGeneralEvent(mockDataModificationContext(null, "a", "b", "c", "d", "e"));
+
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")), chunks);
+    }
+
+    @Test
+    public void testSubscriberSendsStreamInBatches() throws Exception {
+        handler = new AuditLogNGHandler(communicator, tenantService, properties(Map.of(
+            "cds.auditlog.ng.subscriber.batch-size", 2,
+            "cds.auditlog.ng.subscriber.max-in-flight", 1)));
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        when(communicator.sendBulkRequest(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            ArrayNode batch = invocation.getArgument(0);
+            batches.add(batch.findValuesAsText("attribute"));
+            return "{}";
+        });
+        AuditLogNGSubscriber subscriber = handler.subscriber(userInfo);
+
+        try (SubmissionPublisher<CdsData> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(subscriber);
+            for (String attribute : List.of("a", "b", "c", "d", "e")) {
+                publisher.submit(dataModificationLog(attribute));
+            }
+        }
+        subscriber.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")), batches);
+    }
+
+    static DataModificationLog dataModificationLog(String attribute) {
+        KeyValuePair id = KeyValuePair.create();
+        id.setKeyName("id");
+        id.setValue("1");
+        DataObject dataObject = DataObject.create();
+        dataObject.setType("User");
+        dataObject.setId(List.of(id));
+        DataSubject dataSubject = DataSubject.create();
+        dataSubject.setType("Person");
+        dataSubject.setId(List.of(id));
+        ChangedAttribute changedAttribute = ChangedAttribute.create();
+        changedAttribute.setName(attribute);
+        changedAttribute.setNewValue("new");
+        DataModification modification = DataModification.create();
+        modification.setDataObject(dataObject);
+        modification.setDataSubject(dataSubject);
+        modification.setAttributes(List.of(changedAttribute));
+        DataModificationLog log = DataModificationLog.create();
+        log.setModifications(List.of(modification));
+        return log;
+    }
+
+    @Test
+    public void testReplayDeadLettersOfAllBindings() throws Exception {
+        AuditLogNGCommunicator other = mock(AuditLogNGCommunicator.class);
+        when(communicator.replayDeadLetters()).thenReturn(2);
+        when(other.replayDeadLetters()).thenReturn(3);
+        handler = new AuditLogNGHandler(List.of(communicator, other), tenantService, AuditLogNGProperties.defaults());
+
+        assertEquals(5, handler.replayDeadLetters());
+        verify(communicator).replayDeadLetters();
+        verify(other).replayDeadLetters();
+        // other sinks have no dead letters
+        assertEquals(0, new AuditLogNGHandler(new InMemoryAuditLogNGSink(), "local", "dev", tenantService,
+            AuditLogNGProperties.defaults()).replayDeadLetters());
+    }
+
+    @Test
+    public void testReloadCertificatesAndCloseAllBindings() {
+        AuditLogNGCommunicator other = mock(AuditLogNGCommunicator.class);
+        when(other.reloadCertificate()).thenReturn(true);
+        handler = new AuditLogNGHandler(List.of(communicator, other), tenantService, AuditLogNGProperties.defaults());
+
+        assertTrue(handler.reloadCertificates());
+        verify(communicator).reloadCertificate();
+        handler.close();
+        verify(communicator).close();
+        verify(other).close();
+    }
+
+    @Test
+    public void testSinkReceivesEvents() throws Exception {
+        InMemoryAuditLogNGSink sink = (InMemoryAuditLogNGSink) AuditLogNGSinks.load(InMemoryAuditLogNGSink.NAME);
+        handler = new AuditLogNGHandler(sink, "local", "dev", tenantService, AuditLogNGProperties.defaults());
+        when(userInfo.getTenant()).thenReturn("t1");
+
+        handler.handleGeneralEvent(mockDataModificationContext(null, "email", "phone"));
+
+        List<JsonNode> events = sink.getEvents();
+        assertEquals(2, events.size());
+        assertEquals("/local/dev/t1", events.get(0).get("source").asText());
+        verify(communicator, never()).sendBulkRequest(ArgumentMatchers.any());
+        // another sink does not share the events
+        assertTrue(new InMemoryAuditLogNGSink().getEvents().isEmpty());
+    }
+
+    @Test
+    public void testUnknownSink() {
+        ErrorStatusException e = assertThrows(ErrorStatusException.class, () -> AuditLogNGSinks.load("kafka"));
+        assertEquals(CdsErrorStatuses.AUDITLOG_SERVICE_INVALID_CONFIG, e.getErrorStatus());
+    }
+
+    private DataModificationLogContext mockDataModificationContext(ChangeSetContext changeSet, String... attributes) {
+        List<ChangedAttribute> changed = new ArrayList<>();
+        for (String attribute : attributes) {
+            changed.add(mockChangedAttribute(attribute, "old", "new"));
+        }
+        KeyValuePair id = mockKeyValuePair("id", "1");
+        DataModification modification = mockDataModification(changed, mockDataObject("User", List.of(id)), mockDataSubject("Person", List.of(id)));
+        DataModificationLog dataModificationLog = mock(DataModificationLog.class);
+        when(dataModificationLog.getModifications()).thenReturn(List.of(modification));
+        DataModificationLogContext context = mock(DataModificationLogContext.class);
+        when(context.getEvent()).thenReturn(DataModificationLogContext.CDS_NAME);
+        when(context.getData()).thenReturn(dataModificationLog);
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getChangeSetContext()).thenReturn(changeSet);
+        return context;
+    }
+
+    private DataAccessLogContext mockDataAccessContext(ChangeSetContext changeSet, String attribute) {
+        KeyValuePair id = mockKeyValuePair("id", "1");
+        DataObject dataObject = mockDataObject("User", List.of(id));
+        DataSubject dataSubject = mockDataSubject("Person", List.of(id));
+        Attribute accessed = mockAttribute(attribute);
+        Access access = mock(Access.class);
+        when(access.getDataObject()).thenReturn(dataObject);
+        when(access.getDataSubject()).thenReturn(dataSubject);
+        when(access.getAttributes()).thenReturn(List.of(accessed));
+        DataAccessLog dataAccessLog = mock(DataAccessLog.class);
+        when(dataAccessLog.getAccesses()).thenReturn(List.of(access));
+        DataAccessLogContext context = mock(DataAccessLogContext.class);
+        when(context.getData()).thenReturn(dataAccessLog);
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getChangeSetContext()).thenReturn(changeSet);
+        return context;
+    }
+
+    private EventContext mockGeneralEventContext(String event, String eventJson) {
+        EventContext generalContext = mock(EventContext.class);
+        when(generalContext.getUserInfo()).thenReturn(userInfo);
+        when(generalContext.getEvent()).thenReturn(event);
+        Map<String, Object> data = new HashMap<>();
+        data.put("event", eventJson);
+        when(generalContext.get("data")).thenReturn(data);
+        return generalContext;
+    }
+
+    static AuditLogNGProperties properties(Map<String, Object> values) {
+        CdsEnvironment environment = mock(CdsEnvironment.class);
+        when(environment.getProperty(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+            .thenAnswer(invocation -> values.getOrDefault(invocation.getArgument(0), invocation.getArgument(2)));
+        return AuditLogNGProperties.from(environment);
+    }
+
     private ChangedAttribute mockChangedAttribute(String name, String oldValue, String newValue) {
         ChangedAttribute attr = mock(ChangedAttribute.class);
         when(attr.getName()).thenReturn(name);
@@ -355,8 +791,11 @@ public class AuditLogNGHandlerTest {
         ArgumentCaptor<ArrayNode> captor = ArgumentCaptor.forClass(ArrayNode.class);
         handlerMethod.run();
         verify(communicator).sendBulkRequest(captor.capture());
-        ArrayNode actualEvents = captor.getValue();
-        assertJsonMatchesSchema(schemaPath, actualEvents);
+        // validate what goes over the wire, raw values are only resolved during serialization
+        ArrayNode actualEvents = (ArrayNode) MAPPER.readTree(MAPPER.writeValueAsString(captor.getValue()));
+        if (schemaPath != null) {
+            assertJsonMatchesSchema(schemaPath, actualEvents);
+        }
         return actualEvents;
     }
 
@@ -0,0 +1,123 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.cds.services.request.UserInfo;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class AuditLogNGRecordingTest {
+
+    @FunctionalInterface
+    private interface ThrowingRunnable { void run() throws Exception; }
+
+    private static List<RecordedEvent> record(Path dir, ThrowingRunnable action) throws Exception {
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("Build", "Serialize", "HttpAttempt", "QueueWait", "SpoolWrite")) {
+                recording.enable("com.sap.cds.auditlog.ng." + name);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            Path file = dir.resolve("recording.jfr");
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals("com.sap.cds.auditlog.ng." + name)).toList();
+    }
+
+    private static ArrayNode events(int count) {
+        ArrayNode events = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < count; i++) {
+            events.addObject().put("id", String.valueOf(i));
+        }
+        return events;
+    }
+
+    @Test
+    public void testRecordsSendingStages(@TempDir Path dir) throws Exception {
+        CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+        when(httpClient.execute(any(HttpUriRequest.class)))
+                .thenAnswer(invocation -> AuditLogNGCommunicatorTest.response(503, "unavailable"))
+                .thenAnswer(invocation -> AuditLogNGCommunicatorTest.response(201, "{}"));
+        AuditLogNGCommunicator communicator = AuditLogNGCommunicatorTest.communicator(AuditLogNGProperties.defaults(), httpClient);
+
+        List<RecordedEvent> recorded = record(dir, () -> communicator.sendBulkRequest(events(3)));
+
+        RecordedEvent serialize = named(recorded, "Serialize").get(0);
+        assertEquals(3, serialize.getInt("eventCount"));
+        assertTrue(serialize.getLong("bytes") > 0);
+        List<RecordedEvent> attempts = named(recorded, "HttpAttempt");
+        assertEquals(2, attempts.size());
+        assertEquals(503, attempts.get(0).getInt("statusCode"));
+        assertEquals(1, attempts.get(0).getInt("attempt"));
+        assertEquals(201, attempts.get(1).getInt("statusCode"));
+        assertEquals(2, attempts.get(1).getInt("attempt"));
+        assertEquals("eu10/sap.test", attempts.get(1).getString("binding"));
+        assertEquals(List.of("admission", "rate-limit"),
+                named(recorded, "QueueWait").stream().map(e -> e.getString("queue")).toList());
+    }
+
+    @Test
+    public void testRecordsBuildAndAsyncQueue(@TempDir Path dir) throws Exception {
+        AuditLogNGHandler handler = new AuditLogNGHandler(mock(AuditLogNGCommunicator.class), null,
+                AuditLogNGHandlerTest.properties(Map.of("cds.auditlog.ng.subscriber.batch-size", 1)));
+        AuditLogNGSubscriber subscriber = handler.subscriber(UserInfo.create().setName("user").setTenant("t1"));
+
+        List<RecordedEvent> recorded = record(dir, () -> {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onNext(AuditLogNGHandlerTest.dataModificationLog("email"));
+            subscriber.onComplete();
+            subscriber.getCompletion().get(5, TimeUnit.SECONDS);
+        });
+
+        RecordedEvent build = named(recorded, "Build").get(0);
+        assertEquals("dppDataModification", build.getString("eventType"));
+        assertEquals(1, build.getInt("eventCount"));
+        assertEquals("async", named(recorded, "QueueWait").get(0).getString("queue"));
+    }
+
+    @Test
+    public void testRecordsSpoolWrites(@TempDir Path dir) throws Exception {
+        FileAuditLogNGSink sink = new FileAuditLogNGSink();
+        sink.open(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.sink.file.path", dir.resolve("events.ndjson").toString(),
+                "cds.auditlog.ng.sink.file.fsync", false)).getSink().getFile(), AuditLogNGCodecs.load(JacksonAuditLogNGCodec.NAME));
+
+        List<RecordedEvent> recorded = record(dir, () -> sink.send(events(2)));
+
+        RecordedEvent write = named(recorded, "SpoolWrite").get(0);
+        assertEquals(sink.getFile().toString(), write.getString("file"));
+        assertEquals(2, write.getInt("eventCount"));
+        assertEquals(Files.size(sink.getFile()), write.getLong("bytes"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.cds.CdsData;
+import com.sap.cds.Struct;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+public class AuditLogNGSubscriberTest {
+
+    private final List<ArrayNode> batches = new ArrayList<>();
+    private final List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+    private long requested;
+    private boolean cancelled;
+    private AuditLogNGSubscriber subscriber;
+
+    @BeforeEach
+    public void setUp() {
+        subscriber = new AuditLogNGSubscriber(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.subscriber.batch-size", 2,
+                "cds.auditlog.ng.subscriber.max-in-flight", 2)).getSubscriber(),
+                item -> JsonNodeFactory.instance.arrayNode().add(JsonNodeFactory.instance.textNode((String) item.get("id"))),
+                events -> {
+                    CompletableFuture<Void> delivery = new CompletableFuture<>();
+                    batches.add(events);
+                    deliveries.add(delivery);
+                    return delivery;
+                });
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requested += n;
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+            }
+        });
+    }
+
+    private static CdsData item(String id) {
+        CdsData item = Struct.create(CdsData.class);
+        item.put("id", id);
+        return item;
+    }
+
+    @Test
+    public void testRequestsMoreOnlyAfterBatchIsSent() {
+        assertEquals(4, requested);
+        for (int i = 0; i < 4; i++) {
+            subscriber.onNext(item(String.valueOf(i)));
+        }
+        assertEquals(2, batches.size());
+        assertEquals(4, requested);
+
+        deliveries.get(1).complete(null);
+        assertEquals(6, requested);
+        deliveries.get(0).complete(null);
+        assertEquals(8, requested);
+        assertFalse(subscriber.getCompletion().isDone());
+    }
+
+    @Test
+    public void testSendsLastBatchOnComplete() throws Exception {
+        subscriber.onNext(item("a"));
+        subscriber.onNext(item("b"));
+        subscriber.onNext(item("c"));
+        subscriber.onComplete();
+
+        assertEquals(2, batches.size());
+        assertEquals("c", batches.get(1).get(0).asText());
+        assertFalse(subscriber.getCompletion().isDone());
+        deliveries.forEach(delivery -> delivery.complete(null));
+        subscriber.getCompletion().get(5, TimeUnit.SECONDS);
+        assertEquals(4, requested);
+    }
+
+    @Test
+    public void testSendsReceivedItemsOnError() {
+        subscriber.onNext(item("a"));
+        subscriber.onError(new IllegalStateException("broken stream"));
+        deliveries.forEach(delivery -> delivery.complete(null));
+
+        assertEquals(1, batches.size());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> subscriber.getCompletion().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    public void testCancelsWhenBatchFails() {
+        subscriber.onNext(item("a"));
+        subscriber.onNext(item("b"));
+        deliveries.get(0).completeExceptionally(new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE));
+
+        assertTrue(cancelled);
+        assertEquals(4, requested);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> subscriber.getCompletion().get(5, TimeUnit.SECONDS));
+        assertEquals(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, ((ErrorStatusException) e.getCause()).getErrorStatus());
+        // items delivered after the cancellation are ignored
+        subscriber.onNext(item("c"));
+        subscriber.onNext(item("d"));
+        assertEquals(1, batches.size());
+    }
+}
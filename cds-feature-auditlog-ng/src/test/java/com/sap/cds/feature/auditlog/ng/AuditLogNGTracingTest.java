@@ -0,0 +1,79 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.sap.cds.services.EventContext;
+import com.sap.cds.services.mt.TenantProviderService;
+import com.sap.cds.services.request.UserInfo;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.junit5.OpenTelemetryExtension;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+public class AuditLogNGTracingTest {
+
+    @RegisterExtension
+    static final OpenTelemetryExtension otel = OpenTelemetryExtension.create();
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream().filter(s -> s.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("Missing span " + name + " in " + spans));
+    }
+
+    @Test
+    public void testSpansOfBuildSerializeAttemptsAndRetries() throws Exception {
+        CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+        var unavailable = AuditLogNGCommunicatorTest.response(503, "unavailable");
+        var created = AuditLogNGCommunicatorTest.response(201, "{}");
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(unavailable, created);
+        AuditLogNGCommunicator communicator = AuditLogNGCommunicatorTest.communicator(AuditLogNGProperties.defaults(), httpClient);
+        AuditLogNGHandler handler = new AuditLogNGHandler(communicator, mock(TenantProviderService.class));
+
+        UserInfo userInfo = mock(UserInfo.class);
+        when(userInfo.getTenant()).thenReturn("tenant");
+        when(userInfo.getName()).thenReturn("user");
+        EventContext context = mock(EventContext.class);
+        when(context.getUserInfo()).thenReturn(userInfo);
+        when(context.getEvent()).thenReturn("dataExport");
+        when(context.get("data")).thenReturn(Map.of("event", "{\"objectId\":\"1\"}"));
+
+        handler.handleGeneralEvent(context);
+
+        List<SpanData> spans = otel.getSpans();
+        SpanData handle = span(spans, AuditLogNGTracing.SPAN_HANDLE);
+        SpanData build = span(spans, AuditLogNGTracing.SPAN_BUILD);
+        SpanData send = span(spans, AuditLogNGTracing.SPAN_SEND);
+        SpanData serialize = span(spans, AuditLogNGTracing.SPAN_SERIALIZE);
+        SpanData attempt = span(spans, AuditLogNGTracing.SPAN_HTTP_ATTEMPT);
+        SpanData retry = span(spans, AuditLogNGTracing.SPAN_HTTP_RETRY);
+
+        assertEquals("dataExport", handle.getAttributes().get(AuditLogNGTracing.EVENT_TYPE));
+        assertEquals("dataExport", build.getAttributes().get(AuditLogNGTracing.EVENT_TYPE));
+        assertEquals(1L, build.getAttributes().get(AuditLogNGTracing.EVENT_COUNT));
+        assertEquals(1L, send.getAttributes().get(AuditLogNGTracing.EVENT_COUNT));
+        long payloadBytes = serialize.getAttributes().get(AuditLogNGTracing.PAYLOAD_BYTES);
+        assertTrue(payloadBytes > 0);
+        assertEquals(payloadBytes, send.getAttributes().get(AuditLogNGTracing.PAYLOAD_BYTES));
+        assertEquals(503L, attempt.getAttributes().get(AuditLogNGTracing.HTTP_STATUS_CODE));
+        assertEquals(StatusCode.ERROR, attempt.getStatus().getStatusCode());
+        assertEquals(201L, retry.getAttributes().get(AuditLogNGTracing.HTTP_STATUS_CODE));
+        assertEquals(2L, retry.getAttributes().get(AuditLogNGTracing.ATTEMPT));
+        assertEquals(StatusCode.UNSET, send.getStatus().getStatusCode());
+
+        assertEquals(handle.getSpanId(), build.getParentSpanId());
+        assertEquals(handle.getSpanId(), send.getParentSpanId());
+        assertEquals(send.getSpanId(), serialize.getParentSpanId());
+        assertEquals(send.getSpanId(), attempt.getParentSpanId());
+        assertEquals(send.getSpanId(), retry.getParentSpanId());
+    }
+}
@@ -0,0 +1,76 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.cds.services.mt.TenantProviderService;
+
+public class AuditLogNGWarmUpTest {
+
+    private static AuditLogNGCommunicator communicator() {
+        AuditLogNGCommunicator communicator = mock(AuditLogNGCommunicator.class);
+        when(communicator.getRegion()).thenReturn("eu10");
+        when(communicator.getNamespace()).thenReturn("sap.test");
+        return communicator;
+    }
+
+    private static AuditLogNGProperties.WarmUp properties(Duration timeout) {
+        return AuditLogNGHandlerTest.properties(Map.of(
+            "cds.auditlog.ng.warm-up.enabled", true,
+            "cds.auditlog.ng.warm-up.connections", 3,
+            "cds.auditlog.ng.warm-up.timeout", timeout)).getWarmUp();
+    }
+
+    @Test
+    public void testBuildsEventsAndOpensConnectionsWithoutSending() throws Exception {
+        AuditLogNGCommunicator communicator = communicator();
+        when(communicator.warmUpConnections(anyInt(), any())).thenReturn(3);
+        TenantProviderService tenantService = mock(TenantProviderService.class);
+        AuditLogNGHandler handler = new AuditLogNGHandler(communicator, tenantService);
+        assertDoesNotThrow(handler::warmUp);
+
+        new AuditLogNGWarmUp(handler, List.of(communicator), properties(Duration.ofSeconds(5))).start().get(5, TimeUnit.SECONDS);
+
+        verify(communicator).warmUpConnections(eq(3), argThat(timeout -> timeout.compareTo(Duration.ofSeconds(5)) <= 0));
+        verify(communicator, never()).sendBulkRequest(any());
+        // the synthetic events have their own tenant, so the tenant service is not called
+        verifyNoInteractions(tenantService);
+    }
+
+    @Test
+    public void testStopsAfterTimeout() throws Exception {
+        AuditLogNGCommunicator slow = communicator();
+        when(slow.warmUpConnections(anyInt(), any())).thenAnswer(invocation -> {
+            Thread.sleep(((Duration) invocation.getArgument(1)).toMillis() + 50);
+            return 0;
+        });
+        AuditLogNGCommunicator next = communicator();
+        AuditLogNGHandler handler = new AuditLogNGHandler(slow, mock(TenantProviderService.class));
+
+        new AuditLogNGWarmUp(handler, List.of(slow, next), properties(Duration.ofMillis(200))).start().get(5, TimeUnit.SECONDS);
+
+        verify(next, never()).warmUpConnections(anyInt(), any());
+    }
+
+    @Test
+    public void testFailuresAreContained() throws Exception {
+        AuditLogNGCommunicator failing = communicator();
+        when(failing.warmUpConnections(anyInt(), any())).thenThrow(new IllegalStateException("invalid certificate"));
+        AuditLogNGCommunicator next = communicator();
+        AuditLogNGHandler handler = new AuditLogNGHandler(failing, mock(TenantProviderService.class));
+
+        new AuditLogNGWarmUp(handler, List.of(failing, next), properties(Duration.ofSeconds(5))).start().get(5, TimeUnit.SECONDS);
+
+        verify(next).warmUpConnections(eq(3), any());
+    }
+}
@@ -0,0 +1,128 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.cds.services.utils.ErrorStatusException;
+
+public class BulkheadTest {
+
+    private static final long NO_DEADLINE = System.nanoTime() + Duration.ofHours(1).toNanos();
+
+    private static Bulkhead bulkhead(int maxConcurrentCalls, int tenantMaxConcurrentCalls, Duration maxWait) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("cds.auditlog.ng.bulkhead.max-concurrent-calls", maxConcurrentCalls);
+        values.put("cds.auditlog.ng.bulkhead.tenant-max-concurrent-calls", tenantMaxConcurrentCalls);
+        values.put("cds.auditlog.ng.bulkhead.max-wait", maxWait);
+        return new Bulkhead(AuditLogNGHandlerTest.properties(values).getBulkhead(), "eu10/sap.test");
+    }
+
+    @Test
+    public void testRejectsAfterMaxWait() {
+        Bulkhead bulkhead = bulkhead(2, 0, Duration.ofMillis(100));
+        Bulkhead.Permit first = bulkhead.acquire("t1", NO_DEADLINE);
+        Bulkhead.Permit second = bulkhead.acquire("t2", NO_DEADLINE);
+        assertEquals(2, bulkhead.getInUse());
+
+        long start = System.nanoTime();
+        assertThrows(ErrorStatusException.class, () -> bulkhead.acquire("t3", NO_DEADLINE));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 90);
+        assertEquals(1, bulkhead.getRejectedCount());
+
+        first.close();
+        bulkhead.acquire("t3", NO_DEADLINE).close();
+        second.close();
+        assertEquals(0, bulkhead.getInUse());
+    }
+
+    @Test
+    public void testWaitIsBoundedByDeadline() {
+        Bulkhead bulkhead = bulkhead(1, 0, Duration.ofSeconds(10));
+        try (Bulkhead.Permit permit = bulkhead.acquire("t1", NO_DEADLINE)) {
+            long start = System.nanoTime();
+            assertThrows(ErrorStatusException.class,
+                    () -> bulkhead.acquire("t1", System.nanoTime() + Duration.ofMillis(50).toNanos()));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+        }
+    }
+
+    @Test
+    public void testWaitingCallerIsAdmittedOnRelease() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 0, Duration.ofSeconds(5));
+        Bulkhead.Permit permit = bulkhead.acquire("t1", NO_DEADLINE);
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            bulkhead.acquire("t2", NO_DEADLINE).close();
+            admitted.countDown();
+        });
+        waiter.start();
+        while (bulkhead.getWaiting() == 0) {
+            Thread.sleep(5);
+        }
+        permit.close();
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTenantLimitKeepsOtherTenantsAdmitted() {
+        Bulkhead bulkhead = bulkhead(4, 1, Duration.ofMillis(50));
+        try (Bulkhead.Permit permit = bulkhead.acquire("t1", NO_DEADLINE)) {
+            assertThrows(ErrorStatusException.class, () -> bulkhead.acquire("t1", NO_DEADLINE));
+            // the rejected caller of t1 did not keep a permit of the binding
+            assertEquals(1, bulkhead.getInUse());
+            bulkhead.acquire("t2", NO_DEADLINE).close();
+        }
+    }
+
+    @Test
+    public void testTenantLimitWithoutBindingLimit() {
+        Bulkhead bulkhead = bulkhead(0, 1, Duration.ofMillis(50));
+        assertTrue(bulkhead.isEnabled());
+        try (Bulkhead.Permit permit = bulkhead.acquire("t1", NO_DEADLINE)) {
+            assertThrows(ErrorStatusException.class, () -> bulkhead.acquire("t1", NO_DEADLINE));
+            bulkhead.acquire("t2", NO_DEADLINE).close();
+        }
+    }
+
+    @Test
+    public void testIdleTenantsAreDropped() throws Exception {
+        Bulkhead bulkhead = bulkhead(4, 1, Duration.ofSeconds(5));
+        Bulkhead.Permit permit = bulkhead.acquire("t1", NO_DEADLINE);
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            bulkhead.acquire("t1", NO_DEADLINE).close();
+            admitted.countDown();
+        });
+        waiter.start();
+        while (bulkhead.getWaiting() == 0) {
+            Thread.sleep(5);
+        }
+        for (int i = 0; i < 100; i++) {
+            bulkhead.acquire("tenant-" + i, NO_DEADLINE).close();
+        }
+        // the permits of t1 are kept while a caller holds them and another one waits for them
+        assertEquals(1, bulkhead.getTenantCount());
+        permit.close();
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(0, bulkhead.getTenantCount());
+    }
+
+    @Test
+    public void testDisabled() {
+        assertEquals(0, AuditLogNGProperties.defaults().getBulkhead().getMaxConcurrentCalls());
+        Bulkhead bulkhead = new Bulkhead(AuditLogNGProperties.defaults().getBulkhead(), "eu10/sap.test");
+        assertFalse(bulkhead.isEnabled());
+        for (int i = 0; i < 100; i++) {
+            bulkhead.acquire("t1", NO_DEADLINE);
+        }
+        assertEquals(0, bulkhead.getInUse());
+    }
+}
@@ -0,0 +1,106 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Date;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.PKCS8Generator;
+import org.bouncycastle.openssl.jcajce.JceOpenSSLPKCS8EncryptorBuilder;
+import org.bouncycastle.operator.OutputEncryptor;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS8EncryptedPrivateKeyInfoBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class CertificateHttpClientConfigTest {
+
+    private static KeyPair keyPair;
+    private static X509Certificate certificate;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=auditlog-ng-test");
+        Date now = new Date();
+        certificate = new JcaX509CertificateConverter().getCertificate(new JcaX509v3CertificateBuilder(name,
+                BigInteger.ONE, now, new Date(now.getTime() + 3_600_000), name, keyPair.getPublic())
+                .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+    }
+
+    private static String pem(String label, byte[] der) {
+        return "-----BEGIN " + label + "-----\n" + Base64.getMimeEncoder(64, new byte[] { '\n' }).encodeToString(der)
+                + "\n-----END " + label + "-----\n";
+    }
+
+    /**
+     * Encrypts the key with PBES2, AES-256-CBC and HMAC-SHA256 like {@code openssl pkcs8 -topk8}.
+     */
+    private static byte[] encrypt(PrivateKey key, char[] passphrase) throws Exception {
+        OutputEncryptor encryptor = new JceOpenSSLPKCS8EncryptorBuilder(PKCS8Generator.AES_256_CBC)
+                .setPRF(PKCS8Generator.PRF_HMACSHA256).setProvider(new BouncyCastleProvider()).setPassword(passphrase).build();
+        return new JcaPKCS8EncryptedPrivateKeyInfoBuilder(key).build(encryptor).getEncoded();
+    }
+
+    @Test
+    public void testParsesCertificateChain() throws Exception {
+        String chain = "subject=CN=auditlog-ng-test\n" + pem("CERTIFICATE", certificate.getEncoded())
+                + pem("CERTIFICATE", certificate.getEncoded());
+
+        X509Certificate[] certificates = CertificateHttpClientConfig.parseCertificateChain(chain);
+
+        assertEquals(2, certificates.length);
+        assertEquals(certificate, certificates[0]);
+    }
+
+    @Test
+    public void testParsesUnencryptedKey() throws Exception {
+        PrivateKey key = CertificateHttpClientConfig.parsePrivateKey(pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()), null);
+
+        assertArrayEquals(keyPair.getPrivate().getEncoded(), key.getEncoded());
+    }
+
+    @Test
+    public void testDecryptsEncryptedKeyWithJdk() throws Exception {
+        char[] passphrase = "secret".toCharArray();
+        byte[] encrypted = encrypt(keyPair.getPrivate(), passphrase);
+
+        PrivateKey key = CertificateHttpClientConfig.decryptPrivateKey(encrypted, passphrase);
+        assertNotNull(key);
+        assertArrayEquals(keyPair.getPrivate().getEncoded(), key.getEncoded());
+        assertArrayEquals(keyPair.getPrivate().getEncoded(), CertificateHttpClientConfig.parsePrivateKey(
+                pem("ENCRYPTED PRIVATE KEY", encrypted), passphrase).getEncoded());
+    }
+
+    @Test
+    public void testWrongPassphraseFails() throws Exception {
+        byte[] encrypted = encrypt(keyPair.getPrivate(), "secret".toCharArray());
+
+        assertNull(CertificateHttpClientConfig.decryptPrivateKey(encrypted, "wrong".toCharArray()));
+        assertThrows(Exception.class, () -> CertificateHttpClientConfig.parsePrivateKey(
+                pem("ENCRYPTED PRIVATE KEY", encrypted), "wrong".toCharArray()));
+    }
+
+    @Test
+    public void testCreatesHttpClient() throws Exception {
+        CertificateHttpClientConfig config = CertificateHttpClientConfig.builder()
+                .certPem(pem("CERTIFICATE", certificate.getEncoded()))
+                .keyPem(pem("ENCRYPTED PRIVATE KEY", encrypt(keyPair.getPrivate(), "secret".toCharArray())))
+                .keyPassphrase("secret")
+                .build();
+
+        assertNotNull(config.getHttpClient());
+        config.getHttpClient().close();
+    }
+}
@@ -0,0 +1,115 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+public class FileAuditLogNGSinkTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static FileAuditLogNGSink sink(Path file, long maxSize, int maxFiles, boolean fsync) throws Exception {
+        Map<String, Object> values = new HashMap<>();
+        values.put("cds.auditlog.ng.sink.file.path", file.toString());
+        values.put("cds.auditlog.ng.sink.file.max-size", maxSize);
+        values.put("cds.auditlog.ng.sink.file.max-files", maxFiles);
+        values.put("cds.auditlog.ng.sink.file.fsync", fsync);
+        values.put("cds.auditlog.ng.sink.file.sync-interval", Duration.ofMillis(5));
+        FileAuditLogNGSink sink = new FileAuditLogNGSink();
+        sink.open(AuditLogNGHandlerTest.properties(values).getSink().getFile(), new JacksonAuditLogNGCodec());
+        return sink;
+    }
+
+    private static ArrayNode events(int from, int count) {
+        ArrayNode events = MAPPER.createArrayNode();
+        for (int i = from; i < from + count; i++) {
+            events.addObject().put("id", i);
+        }
+        return events;
+    }
+
+    private static List<Integer> ids(Path file) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            ids.add(MAPPER.readTree(line).get("id").asInt());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testAppendsEventsAsLines(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("logs/events.ndjson");
+        FileAuditLogNGSink sink = sink(file, 0, 10, true);
+        sink.send(events(0, 3));
+        sink.send(events(3, 2));
+
+        assertEquals(List.of(0, 1, 2, 3, 4), ids(file));
+
+        // a new sink appends to the existing file
+        sink(file, 0, 10, false).send(events(5, 1));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), ids(file));
+    }
+
+    @Test
+    public void testRotatesFiles(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("events.ndjson");
+        // each bulk of one event is 9 bytes, so a file holds two bulks
+        FileAuditLogNGSink sink = sink(file, 20, 2, false);
+        for (int i = 0; i < 8; i++) {
+            sink.send(events(i, 1));
+        }
+
+        assertEquals(List.of(6, 7), ids(file));
+        assertEquals(List.of(4, 5), ids(dir.resolve("events.ndjson.1")));
+        assertEquals(List.of(2, 3), ids(dir.resolve("events.ndjson.2")));
+        assertFalse(Files.exists(dir.resolve("events.ndjson.3")));
+    }
+
+    @Test
+    public void testConcurrentWritesAreNotInterleaved(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("events.ndjson");
+        FileAuditLogNGSink sink = sink(file, 0, 10, true);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                int from = i * 10;
+                writes.add(executor.submit(() -> {
+                    sink.send(events(from, 10));
+                    return null;
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Integer> ids = ids(file);
+        assertEquals(400, ids.size());
+        for (int i = 0; i < ids.size(); i += 10) {
+            int first = ids.get(i);
+            assertEquals(0, first % 10);
+            for (int j = 1; j < 10; j++) {
+                assertEquals(first + j, ids.get(i + j));
+            }
+        }
+    }
+}
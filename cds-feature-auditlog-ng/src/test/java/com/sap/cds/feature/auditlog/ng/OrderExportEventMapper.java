@@ -0,0 +1,36 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.cds.services.EventContext;
+
+/**
+ * Custom event mapper registered in the test resources, mapping the {@code orderExport} event to a
+ * {@code dataExport} audit log event.
+ */
+public class OrderExportEventMapper implements AuditLogNGEventMapper {
+
+    static final String EVENT = "orderExport";
+
+    @Override
+    public String getEvent() {
+        return EVENT;
+    }
+
+    @Override
+    public String getType() {
+        return "dataExport";
+    }
+
+    @Override
+    public JsonNode map(EventContext context) {
+        ObjectNode data = JsonNodeFactory.instance.objectNode();
+        data.put("channelType", "UNSPECIFIED");
+        data.put("channelId", "orders");
+        data.put("objectType", "Orders");
+        data.put("objectId", (String) context.get("orderId"));
+        data.put("destinationUri", "string");
+        return data;
+    }
+}
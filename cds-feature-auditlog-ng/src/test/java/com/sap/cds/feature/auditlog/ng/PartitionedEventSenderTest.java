@@ -0,0 +1,118 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class PartitionedEventSenderTest {
+
+    private static ObjectNode event(String tenant, String dataSubjectId, String objectId, int sequence) {
+        ObjectNode event = JsonNodeFactory.instance.objectNode();
+        event.put("source", "/eu10/sap.test/" + tenant);
+        ObjectNode data = event.putObject("data").putObject("data").putObject("dppDataModification");
+        data.put("objectType", "Orders");
+        data.put("objectId", objectId);
+        data.put("dataSubjectType", "Customers");
+        data.put("dataSubjectId", dataSubjectId);
+        data.put("newValue", String.valueOf(sequence));
+        return event;
+    }
+
+    @Test
+    public void testLaneOfIsStablePerPartition() {
+        PartitionedEventSender sender = new PartitionedEventSender(8, events -> {});
+        assertEquals(sender.laneOf(event("t1", "ID:1", "ID:a", 0)), sender.laneOf(event("t1", "ID:1", "ID:b", 1)));
+        assertEquals(sender.laneOf(event("t1", "null", "ID:a", 0)), sender.laneOf(event("t1", "null", "ID:a", 1)));
+        Set<Integer> lanes = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            lanes.add(sender.laneOf(event("t1", "ID:" + i, "ID:a", 0)));
+        }
+        assertEquals(8, lanes.size());
+    }
+
+    @Test
+    public void testOrderIsPreservedPerPartition() throws Exception {
+        Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        PartitionedEventSender sender = new PartitionedEventSender(4, events -> {
+            threads.add(Thread.currentThread().getName());
+            for (JsonNode event : events) {
+                JsonNode data = event.path("data").path("data").path("dppDataModification");
+                received.computeIfAbsent(event.path("source").asText() + data.path("dataSubjectId").asText(),
+                        k -> Collections.synchronizedList(new ArrayList<>())).add(data.path("newValue").asInt());
+            }
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int caller = 0; caller < 4; caller++) {
+                String tenant = "t" + caller;
+                futures.add(callers.submit(() -> {
+                    for (int sequence = 0; sequence < 50; sequence++) {
+                        ArrayNode events = JsonNodeFactory.instance.arrayNode();
+                        for (int subject = 0; subject < 10; subject++) {
+                            events.add(event(tenant, "ID:" + subject, "ID:" + sequence, sequence));
+                        }
+                        sender.send(events);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        assertEquals(40, received.size());
+        List<Integer> expected = new ArrayList<>();
+        for (int sequence = 0; sequence < 50; sequence++) {
+            expected.add(sequence);
+        }
+        received.values().forEach(sequences -> assertEquals(expected, sequences));
+        assertTrue(threads.size() > 1);
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("auditlog-ng-lane-")));
+    }
+
+    @Test
+    public void testExceptionsArePropagated() {
+        PartitionedEventSender sender = new PartitionedEventSender(2, events -> {
+            throw new JsonParseException(null, "invalid");
+        });
+        ArrayNode events = JsonNodeFactory.instance.arrayNode().add(event("t1", "ID:1", "ID:a", 0));
+        assertThrows(JsonParseException.class, () -> sender.send(events));
+
+        PartitionedEventSender failing = new PartitionedEventSender(2, e -> {
+            throw new IllegalStateException("unavailable");
+        });
+        assertThrows(IllegalStateException.class, () -> failing.send(events));
+    }
+
+    @Test
+    public void testLanesProperty() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("cds.auditlog.ng.lanes", 3);
+        assertEquals(3, AuditLogNGHandlerTest.properties(values).getLanes());
+        assertEquals(1, AuditLogNGProperties.defaults().getLanes());
+    }
+}
@@ -0,0 +1,109 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class PayloadCaptureTest {
+
+    private static PayloadCapture capture(int size, double sampleRate, int maxBytes) {
+        return new PayloadCapture(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.capture.size", size,
+                "cds.auditlog.ng.capture.sample-rate", sampleRate,
+                "cds.auditlog.ng.capture.max-bytes", maxBytes)).getCapture(), "eu10/sap.test");
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        PayloadCapture capture = new PayloadCapture(AuditLogNGProperties.defaults().getCapture(), "eu10/sap.test");
+        assertFalse(capture.isEnabled());
+        assertFalse(capture.sample());
+        assertTrue(capture.getEntries().isEmpty());
+    }
+
+    @Test
+    public void testKeepsLastEntriesInOrder() {
+        PayloadCapture capture = capture(3, 1.0, 1024);
+        long requestId = 0;
+        for (int i = 0; i < 5; i++) {
+            requestId = capture.request(("[" + i + "]").getBytes(StandardCharsets.UTF_8));
+        }
+        capture.response(requestId, 201, "{}");
+
+        List<PayloadCapture.Entry> entries = capture.getEntries();
+        assertEquals(List.of("[3]", "[4]", "{}"), entries.stream().map(PayloadCapture.Entry::payload).toList());
+        assertEquals(PayloadCapture.RESPONSE, entries.get(2).direction());
+        assertEquals(201, entries.get(2).status());
+        assertEquals(entries.get(1).sequence(), entries.get(2).requestId());
+        assertTrue(PayloadCapture.dump().containsAll(entries));
+    }
+
+    @Test
+    public void testTruncatesPayloads() {
+        PayloadCapture capture = capture(1, 1.0, 4);
+        capture.request("[\"abcdef\"]".getBytes(StandardCharsets.UTF_8));
+
+        PayloadCapture.Entry entry = capture.getEntries().get(0);
+        assertEquals("[\"ab", entry.payload());
+        assertEquals(10, entry.bytes());
+        assertTrue(entry.truncated());
+    }
+
+    @Test
+    public void testSamplesRequests() {
+        assertFalse(capture(10, 0.0, 1024).sample());
+        PayloadCapture sampled = capture(10, 0.5, 1024);
+        int count = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (sampled.sample()) {
+                count++;
+            }
+        }
+        assertTrue(count > 350 && count < 650, "sampled " + count);
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        PayloadCapture capture = capture(16, 1.0, 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    capture.request(new byte[] { '1' });
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        List<PayloadCapture.Entry> entries = capture.getEntries();
+        assertEquals(16, entries.size());
+        assertEquals(3999, entries.get(15).sequence());
+    }
+
+    @Test
+    public void testResponsesOfConcurrentRequestsAreMatched() {
+        PayloadCapture capture = capture(10, 1.0, 1024);
+        long first = capture.request("[1]".getBytes(StandardCharsets.UTF_8));
+        long second = capture.request("[2]".getBytes(StandardCharsets.UTF_8));
+        capture.response(second, 201, "{\"count\":2}");
+        capture.response(first, 400, "{}");
+
+        List<PayloadCapture.Entry> entries = capture.getEntries();
+        assertEquals(first, entries.get(0).requestId());
+        assertEquals(second, entries.get(1).requestId());
+        assertEquals(second, entries.get(2).requestId());
+        assertEquals(first, entries.get(3).requestId());
+        assertEquals(400, entries.get(3).status());
+    }
+}
@@ -0,0 +1,144 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.cds.services.utils.ErrorStatusException;
+
+public class PayloadMemoryBudgetTest {
+
+    private static final long NO_DEADLINE = System.nanoTime() + Duration.ofHours(1).toNanos();
+
+    @Test
+    public void testReserveAndRelease() {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(100, PayloadMemoryBudget.Policy.FAIL, Duration.ZERO);
+        PayloadMemoryBudget.Reservation first = budget.reserve(40, NO_DEADLINE);
+        PayloadMemoryBudget.Reservation second = budget.reserve(60, NO_DEADLINE);
+        assertEquals(100, budget.getUsedBytes());
+        first.resize(10);
+        assertEquals(70, budget.getUsedBytes());
+        first.close();
+        second.close();
+        second.close();
+        assertEquals(0, budget.getUsedBytes());
+        assertEquals(100, budget.getPeakBytes());
+    }
+
+    @Test
+    public void testFailPolicyRejectsWhenExhausted() {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(100, PayloadMemoryBudget.Policy.FAIL, Duration.ofSeconds(10));
+        try (PayloadMemoryBudget.Reservation reservation = budget.reserve(80, NO_DEADLINE)) {
+            assertThrows(ErrorStatusException.class, () -> budget.reserve(30, NO_DEADLINE));
+            assertEquals(1, budget.getRejectedCount());
+        }
+        budget.reserve(30, NO_DEADLINE).close();
+    }
+
+    @Test
+    public void testBlockPolicyWaitsForRelease() throws Exception {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(100, PayloadMemoryBudget.Policy.BLOCK, Duration.ofSeconds(10));
+        PayloadMemoryBudget.Reservation first = budget.reserve(80, NO_DEADLINE);
+        CompletableFuture<PayloadMemoryBudget.Reservation> second = CompletableFuture.supplyAsync(() -> budget.reserve(50, NO_DEADLINE));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+        first.close();
+        second.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testBlockPolicyTimesOut() {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(100, PayloadMemoryBudget.Policy.BLOCK, Duration.ofMillis(50));
+        try (PayloadMemoryBudget.Reservation reservation = budget.reserve(100, NO_DEADLINE)) {
+            assertThrows(ErrorStatusException.class, () -> budget.reserve(1, NO_DEADLINE));
+        }
+    }
+
+    @Test
+    public void testBlockPolicyWaitsUntilDeadline() {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(100, PayloadMemoryBudget.Policy.BLOCK, Duration.ofSeconds(30));
+        try (PayloadMemoryBudget.Reservation reservation = budget.reserve(100, NO_DEADLINE)) {
+            long start = System.nanoTime();
+            assertThrows(ErrorStatusException.class, () -> budget.reserve(1, start + Duration.ofMillis(50).toNanos()));
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+        }
+    }
+
+    @Test
+    public void testOversizedPayloadAdmittedAlone() {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(100, PayloadMemoryBudget.Policy.FAIL, Duration.ZERO);
+        try (PayloadMemoryBudget.Reservation reservation = budget.reserve(500, NO_DEADLINE)) {
+            assertEquals(500, budget.getUsedBytes());
+            assertThrows(ErrorStatusException.class, () -> budget.reserve(1, NO_DEADLINE));
+        }
+    }
+
+    @Test
+    public void testWaitersAreAdmittedInOrder() throws Exception {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(100, PayloadMemoryBudget.Policy.BLOCK, Duration.ofSeconds(10));
+        PayloadMemoryBudget.Reservation first = budget.reserve(60, NO_DEADLINE);
+        CompletableFuture<PayloadMemoryBudget.Reservation> oversized = CompletableFuture.supplyAsync(() -> budget.reserve(500, NO_DEADLINE));
+        Thread.sleep(100);
+        // the small payload would fit, but must not overtake the oversized payload waiting before it
+        CompletableFuture<PayloadMemoryBudget.Reservation> small = CompletableFuture.supplyAsync(() -> budget.reserve(30, NO_DEADLINE));
+        Thread.sleep(100);
+        assertFalse(oversized.isDone());
+        assertFalse(small.isDone());
+
+        first.close();
+        PayloadMemoryBudget.Reservation admitted = oversized.get(5, TimeUnit.SECONDS);
+        assertEquals(500, budget.getUsedBytes());
+        Thread.sleep(100);
+        assertFalse(small.isDone());
+        admitted.close();
+        small.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testWaiterGivingUpLetsNextWaiterIn() throws Exception {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(100, PayloadMemoryBudget.Policy.BLOCK, Duration.ofSeconds(10));
+        try (PayloadMemoryBudget.Reservation first = budget.reserve(60, NO_DEADLINE)) {
+            long deadline = System.nanoTime() + Duration.ofMillis(100).toNanos();
+            CompletableFuture<PayloadMemoryBudget.Reservation> oversized = CompletableFuture.supplyAsync(() -> budget.reserve(500, deadline));
+            Thread.sleep(20);
+            CompletableFuture<PayloadMemoryBudget.Reservation> small = CompletableFuture.supplyAsync(() -> budget.reserve(30, NO_DEADLINE));
+            assertThrows(Exception.class, () -> oversized.get(5, TimeUnit.SECONDS));
+            small.get(5, TimeUnit.SECONDS).close();
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        PayloadMemoryBudget budget = new PayloadMemoryBudget(AuditLogNGHandlerTest.properties(
+            Map.of("cds.auditlog.ng.memory-budget.max-bytes", 0L)).getMemoryBudget());
+        assertFalse(budget.isEnabled());
+        budget.reserve(Long.MAX_VALUE, NO_DEADLINE).close();
+        assertEquals(0, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testSharedBudget() {
+        AuditLogNGProperties.MemoryBudget defaults = AuditLogNGProperties.defaults().getMemoryBudget();
+        PayloadMemoryBudget budget = PayloadMemoryBudget.shared(defaults);
+        assertSame(budget, PayloadMemoryBudget.shared(AuditLogNGProperties.defaults().getMemoryBudget()));
+        assertNotSame(budget, PayloadMemoryBudget.shared(AuditLogNGHandlerTest.properties(
+            Map.of("cds.auditlog.ng.memory-budget.max-bytes", 1024L)).getMemoryBudget()));
+    }
+
+    @Test
+    public void testProperties() {
+        AuditLogNGProperties.MemoryBudget defaults = AuditLogNGProperties.defaults().getMemoryBudget();
+        assertEquals(0, defaults.getMaxBytes());
+        assertEquals(PayloadMemoryBudget.Policy.BLOCK, defaults.getPolicy());
+        AuditLogNGProperties.MemoryBudget configured = AuditLogNGHandlerTest.properties(
+            Map.of("cds.auditlog.ng.memory-budget.policy", "fail")).getMemoryBudget();
+        assertEquals(PayloadMemoryBudget.Policy.FAIL, configured.getPolicy());
+    }
+}
@@ -0,0 +1,127 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+public class PipelinedEventSenderTest {
+
+    private static List<Integer> values(ArrayNode chunk) {
+        List<Integer> values = new ArrayList<>();
+        chunk.forEach(node -> values.add(node.intValue()));
+        return values;
+    }
+
+    @Test
+    public void testSendsChunksInOrder() throws Exception {
+        List<List<Integer>> chunks = Collections.synchronizedList(new ArrayList<>());
+        PipelinedEventSender sender = new PipelinedEventSender(3, 1, events -> chunks.add(values(events)));
+
+        PipelinedEventSender.Pipeline pipeline = sender.open();
+        for (int i = 0; i < 8; i++) {
+            pipeline.add(IntNode.valueOf(i));
+        }
+        pipeline.finish();
+
+        assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6, 7)), chunks);
+        assertEquals(8, pipeline.getCount());
+    }
+
+    @Test
+    public void testBuildsNextChunkWhileSending() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        PipelinedEventSender sender = new PipelinedEventSender(2, 1, events -> {
+            threads.add(Thread.currentThread().getName());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        PipelinedEventSender.Pipeline pipeline = sender.open();
+        pipeline.add(IntNode.valueOf(0));
+        pipeline.add(IntNode.valueOf(1));
+        // the first chunk is in flight and blocked, the next one is still being built
+        pipeline.add(IntNode.valueOf(2));
+        assertEquals(1, release.getCount());
+        release.countDown();
+        pipeline.finish();
+
+        assertEquals(2, threads.size());
+        assertTrue(threads.get(0).startsWith("auditlog-ng-pipeline-"), threads.get(0));
+        assertEquals(Thread.currentThread().getName(), threads.get(1));
+    }
+
+    @Test
+    public void testBuilderSendsIfAllThreadsAreBusy() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        PipelinedEventSender sender = new PipelinedEventSender(1, 1, events -> {
+            threads.add(Thread.currentThread().getName());
+            if (Thread.currentThread().getName().startsWith("auditlog-ng-pipeline-")) {
+                sending.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        PipelinedEventSender.Pipeline first = sender.open();
+        first.add(IntNode.valueOf(0));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        PipelinedEventSender.Pipeline second = sender.open();
+        // the only thread is busy with the chunk of the first log
+        second.add(IntNode.valueOf(1));
+        assertEquals(List.of("auditlog-ng-pipeline-0", Thread.currentThread().getName()), threads);
+        release.countDown();
+        first.finish();
+        second.finish();
+
+        sender.close();
+        PipelinedEventSender.Pipeline closed = sender.open();
+        closed.add(IntNode.valueOf(2));
+        closed.finish();
+        assertEquals(Thread.currentThread().getName(), threads.get(2));
+    }
+
+    @Test
+    public void testThreadsFollowConcurrencyLimits() {
+        assertEquals(2, PipelinedEventSender.threads(AuditLogNGProperties.defaults()));
+        assertEquals(8, PipelinedEventSender.threads(AuditLogNGHandlerTest.properties(
+                Map.of("cds.auditlog.ng.bulkhead.max-concurrent-calls", 8))));
+    }
+
+    @Test
+    public void testFailureStopsBuilding() throws Exception {
+        List<List<Integer>> chunks = Collections.synchronizedList(new ArrayList<>());
+        PipelinedEventSender sender = new PipelinedEventSender(1, 1, events -> {
+            chunks.add(values(events));
+            throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE);
+        });
+
+        PipelinedEventSender.Pipeline pipeline = sender.open();
+        pipeline.add(IntNode.valueOf(0));
+        ErrorStatusException e = assertThrows(ErrorStatusException.class, () -> pipeline.add(IntNode.valueOf(1)));
+        assertEquals(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE, e.getErrorStatus());
+        pipeline.abort();
+
+        assertEquals(List.of(List.of(0)), chunks);
+    }
+}
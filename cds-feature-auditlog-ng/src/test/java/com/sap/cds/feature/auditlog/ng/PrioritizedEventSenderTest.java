@@ -0,0 +1,158 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+public class PrioritizedEventSenderTest {
+
+    private static final AuditLogNGProperties.Priorities DEFAULTS = AuditLogNGProperties.defaults().getPriorities();
+
+    private static ArrayNode events(String type, int count) {
+        ArrayNode events = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < count; i++) {
+            events.addObject().put("type", type).put("id", i);
+        }
+        return events;
+    }
+
+    @Test
+    public void testPriorityOfEventTypes() {
+        PrioritizedEventSender sender = new PrioritizedEventSender(DEFAULTS, events -> {});
+        assertEquals(PrioritizedEventSender.Priority.HIGH, sender.priorityOf(events("legacySecurityWrapper", 1).get(0)));
+        assertEquals(PrioritizedEventSender.Priority.BULK, sender.priorityOf(events("dppDataAccess", 1).get(0)));
+        assertEquals(PrioritizedEventSender.Priority.NORMAL, sender.priorityOf(events("dppDataModification", 1).get(0)));
+        assertEquals(PrioritizedEventSender.Priority.NORMAL, sender.priorityOf(events("orderExport", 1).get(0)));
+
+        sender = new PrioritizedEventSender(AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.priority.high.event-types", "legacySecurityWrapper, configurationChange")).getPriorities(),
+                events -> {});
+        assertEquals(PrioritizedEventSender.Priority.HIGH, sender.priorityOf(events("configurationChange", 1).get(0)));
+    }
+
+    @Test
+    public void testEventTypeInMultipleClassesIsRejected() {
+        AuditLogNGProperties.Priorities priorities = AuditLogNGHandlerTest.properties(Map.of(
+                "cds.auditlog.ng.priority.normal.event-types", "dppDataAccess")).getPriorities();
+        assertThrows(ErrorStatusException.class, () -> new PrioritizedEventSender(priorities, events -> {}));
+    }
+
+    @Test
+    public void testBulkEventsAreSentInBatches() throws Exception {
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> ids = Collections.synchronizedList(new ArrayList<>());
+        PrioritizedEventSender sender = new PrioritizedEventSender(DEFAULTS, events -> {
+            sizes.add(events.size());
+            events.forEach(event -> ids.add(event.get("id").asInt()));
+        });
+        sender.send(events("dppDataAccess", 2500));
+        assertEquals(List.of(1000, 1000, 500), sizes);
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, ids.get(i));
+        }
+
+        sizes.clear();
+        sender.send(events("dppDataModification", 2500));
+        assertEquals(List.of(2500), sizes);
+    }
+
+    @Test
+    public void testFailedBatchReportsUndeliveredEvents() {
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        PrioritizedEventSender sender = new PrioritizedEventSender(DEFAULTS, events -> {
+            sizes.add(events.size());
+            if (sizes.size() == 2) {
+                throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE);
+            }
+        });
+
+        PartialDeliveryException e = assertThrows(PartialDeliveryException.class, () -> sender.send(events("dppDataAccess", 2500)));
+        // the first batch has been delivered, the failed and the remaining batch have not
+        assertEquals(1500, e.getUndelivered().size());
+        assertEquals(1000, e.getUndelivered().get(0).get("id").asInt());
+        assertEquals(List.of(1000, 1000), sizes);
+    }
+
+    @Test
+    public void testFailedClassReportsUndeliveredEvents() {
+        PrioritizedEventSender sender = new PrioritizedEventSender(DEFAULTS, events -> {
+            if (events.get(0).get("type").asText().equals("dppDataAccess")) {
+                throw new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE);
+            }
+        });
+        ArrayNode events = events("legacySecurityWrapper", 2);
+        events.addAll(events("dppDataAccess", 3));
+
+        PartialDeliveryException e = assertThrows(PartialDeliveryException.class, () -> sender.send(events));
+        assertEquals(3, e.getUndelivered().size());
+        e.getUndelivered().forEach(event -> assertEquals("dppDataAccess", event.get("type").asText()));
+
+        // without any delivered event, the failure is not a partial delivery
+        ErrorStatusException failure = assertThrows(ErrorStatusException.class, () -> sender.send(events("dppDataAccess", 3)));
+        assertNull(PartialDeliveryException.of(failure));
+    }
+
+    @Test
+    public void testMixedEventsAreSentPerClass() throws Exception {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        PrioritizedEventSender sender = new PrioritizedEventSender(DEFAULTS, events -> {
+            for (JsonNode event : events) {
+                threads.add(event.get("type").asText() + "@" + Thread.currentThread().getName().replaceAll("-\\d+$", ""));
+            }
+        });
+        ArrayNode events = events("dppDataAccess", 1);
+        events.addAll(events("legacySecurityWrapper", 1));
+        sender.send(events);
+        assertEquals(2, threads.size());
+        assertTrue(threads.contains("dppDataAccess@auditlog-ng-bulk"));
+        assertTrue(threads.contains("legacySecurityWrapper@auditlog-ng-high"));
+    }
+
+    @Test
+    public void testHighPriorityEventsDoNotWaitForBulkEvents() throws Exception {
+        CountDownLatch bulkStarted = new CountDownLatch(2);
+        CountDownLatch releaseBulk = new CountDownLatch(1);
+        PrioritizedEventSender sender = new PrioritizedEventSender(DEFAULTS, events -> {
+            if ("dppDataAccess".equals(events.get(0).get("type").asText())) {
+                bulkStarted.countDown();
+                try {
+                    releaseBulk.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        // both connections of the bulk class are busy
+        CompletableFuture<Void> bulk1 = CompletableFuture.runAsync(() -> send(sender, events("dppDataAccess", 20_000)));
+        CompletableFuture<Void> bulk2 = CompletableFuture.runAsync(() -> send(sender, events("dppDataAccess", 20_000)));
+        assertTrue(bulkStarted.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture.runAsync(() -> send(sender, events("legacySecurityWrapper", 1))).get(5, TimeUnit.SECONDS);
+        assertFalse(bulk1.isDone() || bulk2.isDone());
+
+        releaseBulk.countDown();
+        CompletableFuture.allOf(bulk1, bulk2).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void send(PrioritizedEventSender sender, ArrayNode events) {
+        try {
+            sender.send(events);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.cds.services.utils.ErrorStatusException;
+
+public class RateLimiterTest {
+
+    private static RateLimiter limiter(double rate, double tenantRate, Duration maxWait) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("cds.auditlog.ng.rate-limit.requests-per-second", rate);
+        values.put("cds.auditlog.ng.rate-limit.tenant-requests-per-second", tenantRate);
+        values.put("cds.auditlog.ng.rate-limit.burst", 1);
+        values.put("cds.auditlog.ng.rate-limit.throttle-backoff", Duration.ofMillis(200));
+        values.put("cds.auditlog.ng.rate-limit.max-wait", maxWait);
+        return new RateLimiter(AuditLogNGHandlerTest.properties(values).getRateLimit());
+    }
+
+    @Test
+    public void testPacesRequests() {
+        RateLimiter limiter = limiter(20.0, 0.0, Duration.ofSeconds(5));
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("t1", limiter.deadline());
+        }
+        // the first request is sent immediately, the others 50 ms apart
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 180);
+    }
+
+    @Test
+    public void testUnlimitedByDefault() {
+        RateLimiter limiter = new RateLimiter(AuditLogNGProperties.defaults().getRateLimit());
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire("t1", limiter.deadline());
+        }
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000);
+        assertEquals(0, limiter.getRate());
+    }
+
+    @Test
+    public void testThrottlingPausesForRetryAfter() {
+        RateLimiter limiter = limiter(0.0, 0.0, Duration.ofSeconds(5));
+        limiter.onThrottled("t1", Duration.ofMillis(300));
+        long start = System.nanoTime();
+        limiter.acquire("t2", limiter.deadline());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 250);
+    }
+
+    @Test
+    public void testThrottlingWithoutRetryAfterUsesBackoff() {
+        RateLimiter limiter = limiter(0.0, 0.0, Duration.ofSeconds(5));
+        limiter.onThrottled("t1", null);
+        long start = System.nanoTime();
+        limiter.acquire("t1", limiter.deadline());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 150);
+    }
+
+    @Test
+    public void testThrottlingReducesRateUntilRecovered() {
+        RateLimiter limiter = limiter(100.0, 10.0, Duration.ofSeconds(5));
+        limiter.onThrottled("t1", Duration.ZERO);
+        assertEquals(50.0, limiter.getRate(), 0.001);
+        assertEquals(5.0, limiter.getRate("t1"), 0.001);
+        assertEquals(10.0, limiter.getRate("t2"), 0.001);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSuccess("t1");
+        }
+        assertEquals(100.0, limiter.getRate(), 0.001);
+        assertEquals(10.0, limiter.getRate("t1"), 0.001);
+    }
+
+    @Test
+    public void testTenantsAreLimitedSeparately() {
+        RateLimiter limiter = limiter(0.0, 1.0, Duration.ofMillis(100));
+        limiter.acquire("t1", limiter.deadline());
+        limiter.acquire("t2", limiter.deadline());
+        assertThrows(ErrorStatusException.class, () -> limiter.acquire("t1", limiter.deadline()));
+    }
+
+    @Test
+    public void testRejectionOfTenantRefundsGlobalToken() throws Exception {
+        RateLimiter limiter = limiter(10.0, 0.01, Duration.ofMillis(50));
+        limiter.acquire("t1", limiter.deadline());
+        // the global bucket refills, the bucket of t1 does not
+        Thread.sleep(150);
+        assertThrows(ErrorStatusException.class, () -> limiter.acquire("t1", limiter.deadline()));
+        // the rejected request of t1 did not take the global token of t2
+        limiter.acquire("t2", limiter.deadline());
+    }
+
+    @Test
+    public void testIdleTenantsAreEvicted() {
+        RateLimiter limiter = limiter(0.0, 10.0, Duration.ofSeconds(5));
+        limiter.acquire("t1", limiter.deadline());
+        limiter.onThrottled("t2", Duration.ZERO);
+        assertEquals(2, limiter.getTenantCount());
+        limiter.evictIdleTenants(System.nanoTime() + Duration.ofMinutes(2).toNanos());
+        // the bucket of t2 still has a reduced rate
+        assertEquals(1, limiter.getTenantCount());
+        assertEquals(5.0, limiter.getRate("t2"), 0.001);
+    }
+}
@@ -0,0 +1,30 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drop-in codec registered in the test resources, using an {@link ObjectMapper} with default configuration.
+ */
+public class ReferenceAuditLogNGCodec implements AuditLogNGCodec {
+
+    static final String NAME = "reference";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public JsonNode readTree(String json) throws JsonProcessingException {
+        return mapper.readTree(json);
+    }
+
+    @Override
+    public byte[] encode(JsonNode events) throws JsonProcessingException {
+        return mapper.writeValueAsBytes(events);
+    }
+}
@@ -0,0 +1,108 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+
+import com.sap.cloud.environment.servicebinding.api.ServiceBinding;
+
+public class ReloadableHttpClientTest {
+
+    private final Map<String, Object> credentials = new HashMap<>(Map.of("cert", "cert-1", "key", "key-1"));
+    private final AtomicInteger created = new AtomicInteger();
+
+    private ServiceBinding binding() {
+        ServiceBinding binding = mock(ServiceBinding.class);
+        when(binding.getCredentials()).thenReturn(Map.copyOf(credentials));
+        return binding;
+    }
+
+    private ReloadableHttpClient client(Duration closeDelay) {
+        return new ReloadableHttpClient(this::binding, b -> {
+            created.incrementAndGet();
+            return mock(CloseableHttpClient.class);
+        }, closeDelay);
+    }
+
+    @Test
+    public void testClientIsCreatedLazily() {
+        ReloadableHttpClient client = client(Duration.ZERO);
+        assertEquals(0, created.get());
+        CloseableHttpClient first = client.get();
+        assertSame(first, client.get());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void testWarmUpCreatesClientInBackground() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        ReloadableHttpClient client = new ReloadableHttpClient(this::binding, b -> {
+            created.incrementAndGet();
+            latch.countDown();
+            return mock(CloseableHttpClient.class);
+        }, Duration.ZERO);
+        client.warmUp();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        client.get();
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void testReloadSwapsClientOnlyIfCredentialsChanged() throws Exception {
+        ReloadableHttpClient client = client(Duration.ZERO);
+        CloseableHttpClient first = client.get();
+        assertFalse(client.reload());
+        assertSame(first, client.get());
+
+        credentials.put("cert", "cert-2");
+        assertTrue(client.reload());
+        CloseableHttpClient second = client.get();
+        assertNotSame(first, second);
+        verify(first, timeout(5000)).close();
+        verify(second, never()).close();
+    }
+
+    @Test
+    public void testReplacedClientIsClosedAfterGracePeriod() throws Exception {
+        ReloadableHttpClient client = client(Duration.ofSeconds(3));
+        CloseableHttpClient first = client.get();
+        credentials.put("key", "key-2");
+        assertTrue(client.reload());
+        // a large margin to the grace period, so that the check does not come too late on a slow machine
+        verify(first, after(200).never()).close();
+        verify(first, timeout(10000)).close();
+    }
+
+    @Test
+    public void testWatchReloadsPeriodically() throws Exception {
+        ReloadableHttpClient client = client(Duration.ZERO);
+        CloseableHttpClient first = client.get();
+        client.watch(Duration.ofMillis(20));
+        credentials.put("passphrase", "secret");
+        verify(first, timeout(5000)).close();
+        assertNotSame(first, client.get());
+    }
+
+    @Test
+    public void testCloseStopsWatchingAndClosesClient() throws Exception {
+        ReloadableHttpClient client = client(Duration.ZERO);
+        CloseableHttpClient first = client.get();
+        client.watch(Duration.ofMillis(20));
+        client.close();
+        verify(first, timeout(5000)).close();
+
+        credentials.put("passphrase", "secret");
+        Thread.sleep(200);
+        assertEquals(1, created.get());        assertFalse(client.reload());
+        assertThrows(IllegalStateException.class, client::get);
+    }
+}
@@ -0,0 +1,219 @@
+package com.sap.cds.feature.auditlog.ng;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.cds.services.utils.CdsErrorStatuses;
+import com.sap.cds.services.utils.ErrorStatusException;
+
+public class RoutingEventSenderTest {
+
+    private static AuditLogNGCommunicator communicator(String region) {
+        AuditLogNGCommunicator communicator = mock(AuditLogNGCommunicator.class);
+        when(communicator.getRegion()).thenReturn(region);
+        when(communicator.getNamespace()).thenReturn("sap.test");
+        return communicator;
+    }
+
+    private static AuditLogNGProperties.Routing routing(Map<String, Object> values) {
+        Map<String, Object> prefixed = new HashMap<>();
+        values.forEach((key, value) -> prefixed.put("cds.auditlog.ng.routing." + key, value));
+        return AuditLogNGHandlerTest.properties(prefixed).getRouting();
+    }
+
+    private static ArrayNode events(String tenant) {
+        ArrayNode events = JsonNodeFactory.instance.arrayNode();
+        events.addObject().put("source", "/eu10/sap.test/" + tenant);
+        return events;
+    }
+
+    @Test
+    public void testFailoverRewritesSource() throws Exception {
+        AuditLogNGCommunicator eu = communicator("eu10");
+        AuditLogNGCommunicator us = communicator("us10");
+        doThrow(new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE)).when(eu).sendBulkRequest(any());
+        RoutingEventSender sender = new RoutingEventSender(List.of(eu, us), routing(Map.of()));
+
+        sender.send(events("tenant"));
+
+        ArgumentCaptor<JsonNode> sent = ArgumentCaptor.forClass(JsonNode.class);
+        verify(us).sendBulkRequest(sent.capture());
+        assertEquals("/us10/sap.test/tenant", sent.getValue().get(0).get("source").asText());
+        assertFalse(sender.isEjected(eu));
+    }
+
+    @Test
+    public void testServerErrorFailsOver() throws Exception {
+        AuditLogNGCommunicator eu = communicator("eu10");
+        AuditLogNGCommunicator us = communicator("us10");
+        doThrow(new ErrorStatusException(CdsErrorStatuses.AUDITLOG_UNEXPECTED_HTTP_STATUS, 503)).when(eu).sendBulkRequest(any());
+        RoutingEventSender sender = new RoutingEventSender(List.of(eu, us), routing(Map.of("ejection.failures", 1)));
+
+        sender.send(events("tenant"));
+
+        verify(us).sendBulkRequest(any());
+        assertTrue(sender.isEjected(eu));
+    }
+
+    @Test
+    public void testRejectionDoesNotFailOver() throws Exception {
+        assertNoFailover(new PayloadRejectedException(400, "{}"));
+    }
+
+    @Test
+    public void testRefusalDoesNotFailOver() throws Exception {
+        assertNoFailover(new RequestRefusedException(401));
+    }
+
+    @Test
+    public void testDeadlineDoesNotFailOver() throws Exception {
+        // the resilience decorator wraps the exception
+        assertNoFailover(new IllegalStateException(new DeadlineExceededException("request")));
+    }
+
+    private void assertNoFailover(RuntimeException failure) throws Exception {
+        AuditLogNGCommunicator eu = communicator("eu10");
+        AuditLogNGCommunicator us = communicator("us10");
+        doThrow(failure).when(eu).sendBulkRequest(any());
+        RoutingEventSender sender = new RoutingEventSender(List.of(eu, us), routing(Map.of("ejection.failures", 1)));
+
+        assertSame(failure, assertThrows(RuntimeException.class, () -> sender.send(events("tenant"))));
+        verify(us, never()).sendBulkRequest(any());
+        assertFalse(sender.isEjected(eu));
+    }
+
+    @Test
+    public void testFailoverSendsOnlyUndeliveredEvents() throws Exception {
+        AuditLogNGCommunicator eu = communicator("eu10");
+        AuditLogNGCommunicator us = communicator("us10");
+        ArrayNode events = events("tenant");
+        events.addObject().put("source", "/eu10/sap.test/tenant").put("id", "undelivered");
+        ArrayNode undelivered = JsonNodeFactory.instance.arrayNode().add(events.get(1));
+        doThrow(new PartialDeliveryException(undelivered, new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE)))
+                .when(eu).sendBulkRequest(any());
+        RoutingEventSender sender = new RoutingEventSender(List.of(eu, us), routing(Map.of()));
+
+        sender.send(events);
+
+        ArgumentCaptor<JsonNode> sent = ArgumentCaptor.forClass(JsonNode.class);
+        verify(us).sendBulkRequest(sent.capture());
+        assertEquals(1, sent.getValue().size());
+        assertEquals("undelivered", sent.getValue().get(0).get("id").asText());
+        assertEquals("/us10/sap.test/tenant", sent.getValue().get(0).get("source").asText());
+        // the delivered event keeps the source of the binding it was delivered to
+        assertEquals("/eu10/sap.test/tenant", events.get(0).get("source").asText());
+    }
+
+    @Test
+    public void testFailingBindingIsEjected() throws Exception {
+        AuditLogNGCommunicator eu = communicator("eu10");
+        AuditLogNGCommunicator us = communicator("us10");
+        doThrow(new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE)).when(eu).sendBulkRequest(any());
+        RoutingEventSender sender = new RoutingEventSender(List.of(eu, us), routing(Map.of("ejection.failures", 2)));
+
+        sender.send(events("tenant"));
+        sender.send(events("tenant"));
+        assertTrue(sender.isEjected(eu));
+        sender.send(events("tenant"));
+
+        verify(eu, times(2)).sendBulkRequest(any());
+        verify(us, times(3)).sendBulkRequest(any());
+    }
+
+    @Test
+    public void testSlowBindingIsEjected() throws Exception {
+        AuditLogNGCommunicator eu = communicator("eu10");
+        AuditLogNGCommunicator us = communicator("us10");
+        // the communicator measures the slow response while sending
+        AtomicBoolean responded = new AtomicBoolean();
+        when(eu.sendBulkRequest(any())).thenAnswer(invocation -> {
+            responded.set(true);
+            return "{}";
+        });
+        when(eu.getLatencyNanos()).thenAnswer(invocation -> responded.get() ? (double) Duration.ofSeconds(3).toNanos() : 0.0);
+        RoutingEventSender sender = new RoutingEventSender(List.of(eu, us), routing(Map.of(
+                "ejection.latency", Duration.ofSeconds(2),
+                "ejection.duration", Duration.ofMinutes(1))));
+
+        sender.send(events("tenant"));
+        assertTrue(sender.isEjected(eu));
+        verify(eu).resetLatency();
+        sender.send(events("tenant"));
+        verify(us).sendBulkRequest(any());
+    }
+
+    @Test
+    public void testLocalWaitDoesNotEjectBinding() throws Exception {
+        AuditLogNGCommunicator eu = communicator("eu10");
+        AuditLogNGCommunicator us = communicator("us10");
+        // e.g. waiting for the bulkhead or rate limiter, while the service responds fast
+        when(eu.sendBulkRequest(any())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return "{}";
+        });
+        when(eu.getLatencyNanos()).thenReturn((double) Duration.ofMillis(1).toNanos());
+        RoutingEventSender sender = new RoutingEventSender(List.of(eu, us), routing(Map.of(
+                "ejection.latency", Duration.ofMillis(10))));
+
+        sender.send(events("tenant"));
+        assertFalse(sender.isEjected(eu));
+    }
+
+    @Test
+    public void testAllBindingsFail() throws Exception {
+        AuditLogNGCommunicator eu = communicator("eu10");
+        AuditLogNGCommunicator us = communicator("us10");
+        doThrow(new ErrorStatusException(CdsErrorStatuses.AUDITLOG_SERVICE_NOT_AVAILABLE)).when(eu).sendBulkRequest(any());
+        doThrow(new IllegalStateException("unavailable")).when(us).sendBulkRequest(any());
+        RoutingEventSender sender = new RoutingEventSender(List.of(eu, us), routing(Map.of()));
+
+        assertThrows(IllegalStateException.class, () -> sender.send(events("tenant")));
+    }
+
+    @Test
+    public void testTenantPolicyIsStable() throws Exception {
+        List<AuditLogNGCommunicator> communicators = List.of(communicator("eu10"), communicator("us10"), communicator("jp10"));
+        RoutingEventSender sender = new RoutingEventSender(communicators, routing(Map.of("policy", "tenant")));
+
+        Set<AuditLogNGCommunicator> used = new HashSet<>();
+        for (int tenant = 0; tenant < 30; tenant++) {
+            for (int i = 0; i < 3; i++) {
+                sender.send(events("tenant-" + tenant));
+            }
+            List<AuditLogNGCommunicator> targets = communicators.stream()
+                    .filter(c -> mockingDetails(c).getInvocations().stream()
+                            .anyMatch(invocation -> invocation.getMethod().getName().equals("sendBulkRequest")))
+                    .toList();
+            assertEquals(1, targets.size());
+            used.add(targets.get(0));
+            communicators.forEach(c -> clearInvocations(c));
+        }
+        assertEquals(3, used.size());
+    }
+
+    @Test
+    public void testLatencyWeightedPolicyUsesAllBindings() throws Exception {
+        List<AuditLogNGCommunicator> communicators = List.of(communicator("eu10"), communicator("us10"));
+        RoutingEventSender sender = new RoutingEventSender(communicators, routing(Map.of("policy", "latency-weighted")));
+        for (int i = 0; i < 50; i++) {
+            sender.send(events("tenant"));
+        }
+        verify(communicators.get(0), atLeastOnce()).sendBulkRequest(any());
+        verify(communicators.get(1), atLeastOnce()).sendBulkRequest(any());
+    }
+}